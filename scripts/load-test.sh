@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+#
+# Fires concurrent requests at a running catalog and reports the status codes, throughput and latency per scenario.
+#
+# Usage: scripts/load-test.sh [BASE_URL] [REQUESTS] [CONCURRENCY]
+#   BASE_URL     defaults to http://localhost:8080
+#   REQUESTS     requests per scenario, defaults to 1000
+#   CONCURRENCY  parallel curl workers, defaults to 16
+#
+# The catalog is seeded with one brand, one category and 100 products when it has no products yet.
+
+set -euo pipefail
+
+BASE_URL="${1:-http://localhost:8080}"
+REQUESTS="${2:-1000}"
+CONCURRENCY="${3:-16}"
+
+json_field() {
+    grep -o "\"$1\":[0-9]*" | head -n 1 | cut -d: -f2
+}
+
+seed() {
+    if [[ "$(curl -sf "$BASE_URL/products/page?size=1")" != "[]" ]]; then
+        return
+    fi
+    echo "Seeding catalog at $BASE_URL"
+    curl -sf -o /dev/null -H 'Content-Type: application/json' -d '{"name": "Load test brand"}' "$BASE_URL/brands"
+    curl -sf -o /dev/null -H 'Content-Type: application/json' -d '{"name": "Load test category"}' "$BASE_URL/categories"
+    local brand_id category_id
+    brand_id="$(curl -sf "$BASE_URL/brands" | json_field id)"
+    category_id="$(curl -sf "$BASE_URL/categories" | json_field id)"
+    for i in $(seq 1 100); do
+        curl -sf -o /dev/null -H 'Content-Type: application/json' \
+            -d "{\"name\": \"Load test product $i\", \"description\": \"Product $i created by the load test\", \"price\": 9.99, \"quantity\": $i, \"categoryId\": $category_id, \"brandId\": $brand_id}" \
+            "$BASE_URL/products"
+    done
+}
+
+# Runs REQUESTS requests with CONCURRENCY workers; every curl prints "<status> <seconds>".
+run() {
+    local name="$1"
+    shift
+    local results started finished
+    results="$(mktemp)"
+    started="$(date +%s.%N)"
+    seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I {} \
+        curl -s -o /dev/null -w '%{http_code} %{time_total}\n' "$@" >> "$results"
+    finished="$(date +%s.%N)"
+
+    echo "== $name"
+    echo "   status: $(cut -d' ' -f1 "$results" | sort | uniq -c | awk '{printf "%s x%s  ", $2, $1}')"
+    sort -n -k2 "$results" | awk -v started="$started" -v finished="$finished" '
+        { latency[NR] = $2 * 1000; total += $2 * 1000 }
+        END {
+            printf "   throughput: %.1f req/s\n", NR / (finished - started)
+            printf "   latency ms: avg %.1f  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f\n",
+                total / NR, latency[int(NR * 0.50) + 1], latency[int(NR * 0.95) + 1],
+                latency[int(NR * 0.99) + 1], latency[NR]
+        }'
+    rm -f "$results"
+}
+
+seed
+product_id="$(curl -sf "$BASE_URL/products/page?size=1" | json_field id)"
+etag="$(curl -sf -D - -o /dev/null "$BASE_URL/products/$product_id" | grep -i '^etag:' | cut -d' ' -f2 | tr -d '\r')"
+
+run "GET /brands" "$BASE_URL/brands"
+run "GET /products/$product_id" "$BASE_URL/products/$product_id"
+run "GET /products/$product_id If-None-Match: $etag" -H "If-None-Match: $etag" "$BASE_URL/products/$product_id"
+run "GET /products as gzipped NDJSON" -H 'Accept: application/x-ndjson' -H 'Accept-Encoding: gzip' "$BASE_URL/products"
@@ -0,0 +1,68 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.Lab2Application;
+import com.example.lab2.service.CategoryService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts the application against an in-memory H2 database and seeds it with plain SQL, so that datasets of a million
+ * rows are ready in seconds. Seeded ids are 1..count and the id sequences are moved past them.
+ */
+final class BenchmarkContexts {
+
+    static final int CATEGORY_FAN_OUT = 10;
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(Lab2Application.class)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.docker.compose.enabled=false",
+                        "spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "lab2.metrics.hibernate-statistics=false",
+                        "logging.level.root=WARN"
+                )
+                .run();
+    }
+
+    static void seedBrands(ConfigurableApplicationContext context, int count) {
+        final var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into brand (id, name, version, created_at, updated_at) select x, 'Brand ' || x, 0, now(), now() from system_range(1, ?)", count);
+        restartSequence(jdbcTemplate, "brand_seq", count);
+    }
+
+    /**
+     * Seeds a balanced category tree rooted at id 1 in which every category has {@value CATEGORY_FAN_OUT} children,
+     * then rebuilds the closure table from the parent links.
+     */
+    static void seedCategories(ConfigurableApplicationContext context, int count) {
+        final var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into category (id, name, parent_category_id, version, created_at, updated_at)
+                select x, 'Category ' || x, case when x = 1 then null else (x - 2) / ? + 1 end, 0, now(), now()
+                from system_range(1, ?)""", CATEGORY_FAN_OUT, count);
+        restartSequence(jdbcTemplate, "category_seq", count);
+        context.getBean(CategoryService.class).rebuildCategoryHierarchy();
+    }
+
+    static void seedProducts(ConfigurableApplicationContext context, int count, int categoryCount, int brandCount) {
+        final var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into product (id, name, description, price, quantity, category_id, brand_id, version, created_at, updated_at)
+                select x, 'Product ' || x, 'Description of product ' || x, mod(x, 1000) * 100 + 99, mod(x, 50),
+                       mod(x, ?) + 1, mod(x, ?) + 1, 0, now(), now()
+                from system_range(1, ?)""", categoryCount, brandCount, count);
+        restartSequence(jdbcTemplate, "product_seq", count);
+    }
+
+    private static void restartSequence(JdbcTemplate jdbcTemplate, String sequence, int count) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (count + 100));
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.service.BrandService;
+import com.example.lab2.service.DtoValidators;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BrandServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rowCount;
+
+    private final AtomicLong createdBrands = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private BrandService brandService;
+    private Validator validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seedBrands(context, rowCount);
+        brandService = context.getBean(BrandService.class);
+        validator = context.getBean(Validator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BrandDto> getAllBrands() {
+        return brandService.getAllBrands();
+    }
+
+    @Benchmark
+    public BrandDto getBrandById() {
+        return brandService.getBrandById(ThreadLocalRandom.current().nextLong(1, rowCount + 1));
+    }
+
+    @Benchmark
+    public void createBrand() {
+        brandService.createBrand(new BrandDto(null, "Benchmark brand " + createdBrands.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Set<?> validateBrandDto() {
+        return validator.validate(new BrandDto(null, "Validated brand"));
+    }
+
+    @Benchmark
+    public boolean validateBrandDtoFastPath() {
+        return DtoValidators.isValid(new BrandDto(null, "Validated brand"));
+    }
+
+}
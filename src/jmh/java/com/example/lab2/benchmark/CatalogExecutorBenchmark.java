@@ -0,0 +1,73 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.service.BrandService;
+import com.example.lab2.service.CatalogExecutionProperties;
+import com.example.lab2.service.CatalogExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares virtual and platform threads for a burst of concurrent callers sharing the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogExecutorBenchmark {
+
+    private static final int BRAND_COUNT = 1_000;
+    private static final int PLATFORM_THREADS = 64;
+
+    @Param({"VIRTUAL", "PLATFORM"})
+    private CatalogExecutionProperties.Mode mode;
+
+    @Param("1000")
+    private int callerCount;
+
+    private ConfigurableApplicationContext context;
+    private BrandService brandService;
+    private CatalogExecutor catalogExecutor;
+    private List<Long> brandIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seedBrands(context, BRAND_COUNT);
+        brandService = context.getBean(BrandService.class);
+        final var databaseConcurrency = context.getEnvironment().getRequiredProperty("lab2.execution.database-concurrency", Integer.class);
+        catalogExecutor = new CatalogExecutor(new CatalogExecutionProperties(mode, PLATFORM_THREADS, databaseConcurrency));
+        brandIds = IntStream.range(0, callerCount)
+                .mapToObj(index -> (long) index % BRAND_COUNT + 1)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalogExecutor.destroy();
+        context.close();
+    }
+
+    @Benchmark
+    public List<?> getBrandsConcurrently() {
+        return catalogExecutor.mapAll(brandIds, brandService::getBrandById);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.service.CategoryService;
+import com.example.lab2.service.DtoValidators;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Besides the CRUD paths, measures subtree and ancestor lookups through the category closure table on a balanced
+ * tree, starting from a category near the root so that the subtree holds about a tenth of all categories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CategoryServiceBenchmark {
+
+    private static final long SUBTREE_ROOT_ID = 2L;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rowCount;
+
+    private final AtomicLong createdCategories = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private Validator validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seedCategories(context, rowCount);
+        categoryService = context.getBean(CategoryService.class);
+        validator = context.getBean(Validator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CategoryDto> getAllCategories() {
+        return categoryService.getAllCategories();
+    }
+
+    @Benchmark
+    public CategoryDto getCategoryById() {
+        return categoryService.getCategoryById(randomCategoryId());
+    }
+
+    @Benchmark
+    public void createCategory() {
+        categoryService.createCategory(new CategoryDto(null, "Benchmark category " + createdCategories.incrementAndGet(), randomCategoryId()));
+    }
+
+    @Benchmark
+    public Set<?> validateCategoryDto() {
+        return validator.validate(new CategoryDto(null, "Validated category", 1L));
+    }
+
+    @Benchmark
+    public boolean validateCategoryDtoFastPath() {
+        return DtoValidators.isValid(new CategoryDto(null, "Validated category", 1L));
+    }
+
+    @Benchmark
+    public List<CategoryDto> getDescendants() {
+        return categoryService.getDescendants(SUBTREE_ROOT_ID);
+    }
+
+    @Benchmark
+    public List<CategoryDto> getAncestors() {
+        return categoryService.getAncestors(randomCategoryId());
+    }
+
+    private long randomCategoryId() {
+        return ThreadLocalRandom.current().nextLong(1, rowCount + 1);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples search latency over a synthetic catalog whose term frequencies follow a skewed distribution, so the most
+ * common term matches a large share of the products and short prefixes expand to thousands of completions. Read the
+ * p0.99 percentile of the sample time to check the latency target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ProductSearchIndexBenchmark {
+
+    private static final int VOCABULARY_SIZE = 100_000;
+    private static final int NAME_TERMS = 3;
+    private static final int DESCRIPTION_TERMS = 6;
+    private static final int CATEGORY_COUNT = 1_000;
+    private static final int BRAND_COUNT = 100;
+    private static final int LIMIT = 20;
+
+    @Param("5000000")
+    private int productCount;
+
+    @Param({"COMMON_TERM", "RARE_TERM", "SHORT_PREFIX", "COMMON_TERM_AND_PREFIX", "FILTERED_COMMON_TERM"})
+    private Query query;
+
+    private ProductSearchIndex searchIndex;
+    private String[] vocabulary;
+    private String queryText;
+    private ProductSearchIndex.Filter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var random = new Random(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (var index = 0; index < vocabulary.length; index++) {
+            vocabulary[index] = word(random);
+        }
+        searchIndex = new ProductSearchIndex();
+        for (var id = 1L; id <= productCount; id++) {
+            searchIndex.put(new ProductDto(id, text(random, NAME_TERMS), text(random, DESCRIPTION_TERMS),
+                    BigDecimal.valueOf(id % 1_000 + 1), 1, id % CATEGORY_COUNT + 1, id % BRAND_COUNT + 1));
+        }
+        queryText = switch (query) {
+            case COMMON_TERM, FILTERED_COMMON_TERM -> vocabulary[0];
+            case RARE_TERM -> vocabulary[VOCABULARY_SIZE / 2];
+            case SHORT_PREFIX -> vocabulary[0].substring(0, 1);
+            case COMMON_TERM_AND_PREFIX -> vocabulary[0] + " " + vocabulary[1].substring(0, 2);
+        };
+        filter = query == Query.FILTERED_COMMON_TERM ? new ProductSearchIndex.Filter(null, 1L, null, null) : ProductSearchIndex.Filter.NONE;
+    }
+
+    @Benchmark
+    public long[] search() {
+        return searchIndex.search(queryText, filter, LIMIT);
+    }
+
+    private String text(Random random, int termCount) {
+        final var text = new StringBuilder();
+        for (var term = 0; term < termCount; term++) {
+            // cubing skews the draw towards the start of the vocabulary, roughly like natural term frequencies
+            final var draw = random.nextDouble();
+            text.append(vocabulary[(int) (draw * draw * draw * VOCABULARY_SIZE)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(Random random) {
+        final var word = new char[4 + random.nextInt(6)];
+        for (var index = 0; index < word.length; index++) {
+            word[index] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    public enum Query {
+        COMMON_TERM,
+        RARE_TERM,
+        SHORT_PREFIX,
+        COMMON_TERM_AND_PREFIX,
+        FILTERED_COMMON_TERM
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.service.DtoValidators;
+import com.example.lab2.service.ProductService;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductServiceBenchmark {
+
+    private static final int CATEGORY_COUNT = 1_000;
+    private static final int BRAND_COUNT = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rowCount;
+
+    private final AtomicLong createdProducts = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private Validator validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seedCategories(context, CATEGORY_COUNT);
+        BenchmarkContexts.seedBrands(context, BRAND_COUNT);
+        BenchmarkContexts.seedProducts(context, rowCount, CATEGORY_COUNT, BRAND_COUNT);
+        productService = context.getBean(ProductService.class);
+        validator = context.getBean(Validator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public ProductDto getProductById() {
+        return productService.getProductById(ThreadLocalRandom.current().nextLong(1, rowCount + 1));
+    }
+
+    @Benchmark
+    public void createProduct() {
+        productService.createProduct(productDto("Benchmark product " + createdProducts.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Set<?> validateProductDto() {
+        return validator.validate(productDto("Validated product"));
+    }
+
+    @Benchmark
+    public boolean validateProductDtoFastPath() {
+        return DtoValidators.isValid(productDto("Validated product"));
+    }
+
+    private static ProductDto productDto(String name) {
+        final var random = ThreadLocalRandom.current();
+        return ProductDto.builder()
+                .name(name)
+                .description("Created by benchmark")
+                .price(new BigDecimal("9.99"))
+                .quantity(10)
+                .categoryId(random.nextLong(1, CATEGORY_COUNT + 1))
+                .brandId(random.nextLong(1, BRAND_COUNT + 1))
+                .build();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.example.lab2.benchmark;
+
+import com.example.lab2.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists every product as managed entities in a read-write transaction, which snapshots each entity and dirty-checks
+ * it on commit, as entities in a read-only transaction, and as DTOs read straight from the query. Run with
+ * {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ReadOnlyListingBenchmark {
+
+    private static final int CATEGORY_COUNT = 1_000;
+    private static final int BRAND_COUNT = 100;
+
+    @Param("1000000")
+    private int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seedCategories(context, CATEGORY_COUNT);
+        BenchmarkContexts.seedBrands(context, BRAND_COUNT);
+        BenchmarkContexts.seedProducts(context, rowCount, CATEGORY_COUNT, BRAND_COUNT);
+        productRepository = context.getBean(ProductRepository.class);
+        final var transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer listEntitiesInReadWriteTransaction() {
+        return readWriteTransaction.execute(status -> productRepository.findAll().size());
+    }
+
+    @Benchmark
+    public Integer listEntitiesInReadOnlyTransaction() {
+        return readOnlyTransaction.execute(status -> productRepository.findAll().size());
+    }
+
+    @Benchmark
+    public Integer listDtosInReadOnlyTransaction() {
+        return readOnlyTransaction.execute(status -> productRepository.findAllDtos().size());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.BrandPatchDto;
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.service.BrandService;
+import com.example.lab2.service.CatalogChangeTracker;
+import com.example.lab2.service.CatalogDeletionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/brands")
+@RequiredArgsConstructor
+public class BrandController {
+
+    private final BrandService brandService;
+    private final CatalogDeletionService catalogDeletionService;
+
+    @GetMapping
+    public List<BrandDto> getAllBrands() {
+        return brandService.getAllBrands();
+    }
+
+    @GetMapping("/changes")
+    public ChangesDto<BrandDto> getChangedSince(@RequestParam(required = false) Instant since,
+                                                @RequestParam(required = false) Long sinceId,
+                                                @RequestParam(defaultValue = "" + CatalogChangeTracker.DEFAULT_LIMIT) int limit) {
+        return brandService.getChangedSince(since, sinceId, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BrandDto> getBrandById(@PathVariable Long id, WebRequest webRequest) {
+        final var eTag = ETags.fromVersion(brandService.getBrandVersion(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(brandService.getBrandById(id));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createBrand(@RequestBody BrandDto brandDto) {
+        brandService.createBrand(brandDto);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateBrand(@PathVariable Long id, @RequestBody BrandDto brandDto,
+                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        brandService.updateBrand(id, ifMatch == null ? brandDto : brandDto.toBuilder()
+                .version(ETags.toVersion(ifMatch))
+                .build());
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchBrand(@PathVariable Long id, @RequestBody BrandPatchDto brandPatchDto) {
+        brandService.patchBrand(id, brandPatchDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteBrand(@PathVariable Long id,
+                            @RequestParam(defaultValue = "REJECT") CatalogDeletionService.Mode mode,
+                            @RequestParam(required = false) Long fallbackId) {
+        catalogDeletionService.deleteBrand(id, mode, fallbackId);
+    }
+
+}
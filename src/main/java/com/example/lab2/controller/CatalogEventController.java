@@ -0,0 +1,33 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.CatalogEventDto;
+import com.example.lab2.service.CatalogEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class CatalogEventController {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final CatalogEventService catalogEventService;
+
+    @GetMapping
+    public List<CatalogEventDto> getEvents(@RequestParam(defaultValue = "0") long afterOffset,
+                                           @RequestParam(defaultValue = "" + DEFAULT_BATCH_SIZE) int size) {
+        return catalogEventService.getEvents(afterOffset, size);
+    }
+
+    @GetMapping("/last-offset")
+    public long getLastOffset() {
+        return catalogEventService.getLastOffset();
+    }
+
+}
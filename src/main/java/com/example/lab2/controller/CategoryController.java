@@ -0,0 +1,98 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.CategoryPatchDto;
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.service.CatalogChangeTracker;
+import com.example.lab2.service.CatalogDeletionService;
+import com.example.lab2.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/categories")
+@RequiredArgsConstructor
+public class CategoryController {
+
+    private final CategoryService categoryService;
+    private final CatalogDeletionService catalogDeletionService;
+
+    @GetMapping
+    public List<CategoryDto> getAllCategories() {
+        return categoryService.getAllCategories();
+    }
+
+    @GetMapping("/changes")
+    public ChangesDto<CategoryDto> getChangedSince(@RequestParam(required = false) Instant since,
+                                                   @RequestParam(required = false) Long sinceId,
+                                                   @RequestParam(defaultValue = "" + CatalogChangeTracker.DEFAULT_LIMIT) int limit) {
+        return categoryService.getChangedSince(since, sinceId, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        final var eTag = ETags.fromVersion(categoryService.getCategoryVersion(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(categoryService.getCategoryById(id));
+    }
+
+    @GetMapping("/{id}/descendants")
+    public List<CategoryDto> getDescendants(@PathVariable Long id) {
+        return categoryService.getDescendants(id);
+    }
+
+    @GetMapping("/{id}/ancestors")
+    public List<CategoryDto> getAncestors(@PathVariable Long id) {
+        return categoryService.getAncestors(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createCategory(@RequestBody CategoryDto categoryDto) {
+        categoryService.createCategory(categoryDto);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateCategory(@PathVariable Long id, @RequestBody CategoryDto categoryDto,
+                               @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        categoryService.updateCategory(id, ifMatch == null ? categoryDto : categoryDto.toBuilder()
+                .version(ETags.toVersion(ifMatch))
+                .build());
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchCategory(@PathVariable Long id, @RequestBody CategoryPatchDto categoryPatchDto) {
+        categoryService.patchCategory(id, categoryPatchDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteCategory(@PathVariable Long id,
+                               @RequestParam(defaultValue = "REJECT") CatalogDeletionService.Mode mode,
+                               @RequestParam(required = false) Long fallbackId) {
+        catalogDeletionService.deleteCategory(id, mode, fallbackId);
+    }
+
+}
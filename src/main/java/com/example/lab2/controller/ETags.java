@@ -0,0 +1,29 @@
+package com.example.lab2.controller;
+
+/**
+ * Entity tags are derived from the optimistic locking version, so conditional requests are answered without loading
+ * or serializing the resource. They are weak because response compression changes the bytes on the wire. A full
+ * update takes the expected version from {@code If-Match} when the header is present.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String fromVersion(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    static long toVersion(String eTag) {
+        final var opaqueTag = eTag.strip().startsWith("W/") ? eTag.strip().substring(2) : eTag.strip();
+        if (opaqueTag.length() > 2 && opaqueTag.startsWith("\"") && opaqueTag.endsWith("\"")) {
+            try {
+                return Long.parseLong(opaqueTag.substring(1, opaqueTag.length() - 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Entity tag does not hold a version: " + eTag, e);
+            }
+        }
+        throw new IllegalArgumentException("Entity tag does not hold a version: " + eTag);
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.dto.PriceStatisticsDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductPatchDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.service.CatalogChangeTracker;
+import com.example.lab2.service.ProductSearchService;
+import com.example.lab2.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+public class ProductController {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> writeAllProducts(outputStream, true));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllProductsAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> writeAllProducts(outputStream, false));
+    }
+
+    @GetMapping("/page")
+    public List<ProductDto> getProductsPage(@RequestParam(required = false) Long afterId,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return productService.getProductsPage(afterId, size);
+    }
+
+    @GetMapping("/search")
+    public List<ProductDto> searchProducts(ProductSearchDto productSearchDto) {
+        return productSearchService.searchProducts(productSearchDto);
+    }
+
+    @GetMapping("/price-statistics/categories")
+    public List<PriceStatisticsDto> getPriceStatisticsByCategory() {
+        return productService.getPriceStatisticsByCategory();
+    }
+
+    @GetMapping("/price-statistics/brands")
+    public List<PriceStatisticsDto> getPriceStatisticsByBrand() {
+        return productService.getPriceStatisticsByBrand();
+    }
+
+    @GetMapping("/changes")
+    public ChangesDto<ProductDto> getChangedSince(@RequestParam(required = false) Instant since,
+                                                  @RequestParam(required = false) Long sinceId,
+                                                  @RequestParam(defaultValue = "" + CatalogChangeTracker.DEFAULT_LIMIT) int limit) {
+        return productService.getChangedSince(since, sinceId, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        final var eTag = ETags.fromVersion(productService.getProductVersion(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getProductById(id));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createProduct(@RequestBody ProductDto productDto) {
+        productService.createProduct(productDto);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateProduct(@PathVariable Long id, @RequestBody ProductDto productDto,
+                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.updateProduct(id, ifMatch == null ? productDto : productDto.toBuilder()
+                .version(ETags.toVersion(ifMatch))
+                .build());
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchProduct(@PathVariable Long id, @RequestBody ProductPatchDto productPatchDto) {
+        productService.patchProduct(id, productPatchDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteProduct(@PathVariable Long id) {
+        productService.deleteProduct(id);
+    }
+
+    /**
+     * Serializes products one by one while the repository stream is read, so the response never holds more than the
+     * generator's buffer. Products are written as a JSON array or as newline-delimited JSON.
+     */
+    private void writeAllProducts(OutputStream outputStream, boolean asArray) throws IOException {
+        try (final var generator = objectMapper.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            if (asArray) {
+                generator.writeStartArray();
+            }
+            productService.streamAllProducts(products -> {
+                products.forEach(productDto -> {
+                    try {
+                        generator.writeObject(productDto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return null;
+            });
+            if (asArray) {
+                generator.writeEndArray();
+            } else {
+                generator.writeRaw('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+}
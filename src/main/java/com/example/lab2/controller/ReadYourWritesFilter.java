@@ -0,0 +1,67 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.datasource.ReplicaDataSourceProperties;
+import com.example.lab2.datasource.ReplicaRoutingContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Carries the read-your-writes window of a client in the {@value #READ_YOUR_WRITES_COOKIE} cookie. Each request opens
+ * a {@link ReplicaRoutingContext} with the end of the window from the cookie, and every write the request commits
+ * sets the cookie to the new end, so later requests of the client read from the primary until then, whichever node
+ * serves them.
+ */
+@Component
+@ConditionalOnProperty("lab2.datasource.replica.url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String READ_YOUR_WRITES_COOKIE = "lab2-primary-until";
+
+    private final Duration readYourWritesWindow;
+
+    public ReadYourWritesFilter(ReplicaDataSourceProperties properties) {
+        this.readYourWritesWindow = properties.readYourWritesWindow();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReplicaRoutingContext.open(getPrimaryUntil(request), primaryUntil -> response.addHeader(HttpHeaders.SET_COOKIE,
+                ResponseCookie.from(READ_YOUR_WRITES_COOKIE, Long.toString(primaryUntil))
+                        .path("/")
+                        .maxAge(readYourWritesWindow.plusMillis(999).toSeconds())
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .build()
+                        .toString()));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingContext.close();
+        }
+    }
+
+    private static long getPrimaryUntil(HttpServletRequest request) {
+        final var cookie = WebUtils.getCookie(request, READ_YOUR_WRITES_COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+}
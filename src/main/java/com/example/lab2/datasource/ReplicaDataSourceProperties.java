@@ -0,0 +1,21 @@
+package com.example.lab2.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param url                 JDBC url of the replica, read-only transactions stay on the primary when not set
+ * @param readYourWritesWindow how long read-only transactions of a client keep using the primary after one of its
+ *                             requests committed a write, zero sends them to the replica right away
+ */
+@ConfigurationProperties("lab2.datasource.replica")
+public record ReplicaDataSourceProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue("PT1S") Duration readYourWritesWindow) {
+
+}
@@ -0,0 +1,68 @@
+package com.example.lab2.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Routing state the {@link ReplicaRoutingDataSource} reads on top of the read-only flag of the transaction. A caller,
+ * typically the web tier, opens a read-your-writes context for the client served by the current thread with the end
+ * of its window and a listener told about every later committed write. Independently of any client, a read-only
+ * transaction can ask to stay on the primary before it runs its first statement.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<ReplicaRoutingContext> CURRENT = new ThreadLocal<>();
+    private static final Object PRIMARY_REQUIRED = ReplicaRoutingContext.class.getName() + ".primaryRequired";
+
+    private final LongConsumer writeListener;
+    private volatile long primaryUntil;
+
+    private ReplicaRoutingContext(long primaryUntil, LongConsumer writeListener) {
+        this.primaryUntil = primaryUntil;
+        this.writeListener = writeListener;
+    }
+
+    public static void open(long primaryUntil, LongConsumer writeListener) {
+        CURRENT.set(new ReplicaRoutingContext(primaryUntil, writeListener));
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Keeps the current read-only transaction on the primary. Must be called before the transaction's first statement.
+     */
+    public static void requirePrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(PRIMARY_REQUIRED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PRIMARY_REQUIRED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_REQUIRED);
+            }
+        });
+    }
+
+    public static boolean isPrimaryRequired() {
+        return TransactionSynchronizationManager.hasResource(PRIMARY_REQUIRED);
+    }
+
+    static ReplicaRoutingContext current() {
+        return CURRENT.get();
+    }
+
+    boolean isReadingOwnWrites() {
+        return System.currentTimeMillis() < primaryUntil;
+    }
+
+    void recordWrite(long primaryUntil) {
+        this.primaryUntil = primaryUntil;
+        writeListener.accept(primaryUntil);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.lab2.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else. The route is
+ * decided when the connection is first requested, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the read-only flag of the transaction
+ * to be known by then. Read-only transactions stay on the primary when they asked for it through
+ * {@link ReplicaRoutingContext#requirePrimary()} or while the read-your-writes window of the current
+ * {@link ReplicaRoutingContext} is open. When a transaction of that context commits after a statement changed rows,
+ * the window is extended and the context's listener is told, so a client does not read data older than its own writes
+ * while the replica catches up. Node clocks are assumed to agree within the window.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Duration readYourWritesWindow;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryRequired()) {
+            return Route.PRIMARY;
+        }
+        final var context = ReplicaRoutingContext.current();
+        return context != null && context.isReadingOwnWrites() ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    private Connection trackWrites(Connection connection) {
+        final var context = ReplicaRoutingContext.current();
+        if (readYourWritesWindow.isZero() || context == null || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        return WriteTrackingConnections.wrap(connection, () -> recordWriteOnCommit(context));
+    }
+
+    private void recordWriteOnCommit(ReplicaRoutingContext context) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                context.recordWrite(System.currentTimeMillis() + readYourWritesWindow.toMillis());
+            }
+        });
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.lab2.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a connection so that the first statement that changes rows runs a callback. Updates and batches count when
+ * they report affected rows; {@code execute} counts whenever it returns an update count rather than a result set.
+ */
+final class WriteTrackingConnections {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private WriteTrackingConnections() {
+    }
+
+    static Connection wrap(Connection connection, Runnable onFirstWrite) {
+        final var written = new AtomicBoolean();
+        final Runnable onWrite = () -> {
+            if (written.compareAndSet(false, true)) {
+                onFirstWrite.run();
+            }
+        };
+        return proxy(Connection.class, (proxy, method, args) -> {
+            final var result = invoke(connection, method, args);
+            return STATEMENT_FACTORIES.contains(method.getName())
+                    ? proxy(method.getReturnType(), statementHandler((Statement) result, onWrite))
+                    : result;
+        });
+    }
+
+    private static InvocationHandler statementHandler(Statement statement, Runnable onWrite) {
+        return (proxy, method, args) -> {
+            final var result = invoke(statement, method, args);
+            if (isWrite(method.getName(), result)) {
+                onWrite.run();
+            }
+            return result;
+        };
+    }
+
+    private static boolean isWrite(String methodName, Object result) {
+        return switch (methodName) {
+            case "executeUpdate", "executeLargeUpdate" -> ((Number) result).longValue() > 0;
+            case "executeBatch" -> Arrays.stream((int[]) result).anyMatch(count -> count != 0);
+            case "executeLargeBatch" -> Arrays.stream((long[]) result).anyMatch(count -> count != 0);
+            case "execute" -> Boolean.FALSE.equals(result);
+            default -> false;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(WriteTrackingConnections.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+}
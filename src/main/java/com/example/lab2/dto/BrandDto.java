@@ -4,9 +4,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
-@Builder
+@Builder(toBuilder = true)
 public record BrandDto(
         Long id,
-        @NotBlank @Size(max = 255) String name) {
+        @NotBlank @Size(max = 255) String name,
+        Long version) {
+
+    public BrandDto(Long id, String name) {
+        this(id, name, null);
+    }
 
 }
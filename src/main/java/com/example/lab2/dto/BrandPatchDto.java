@@ -0,0 +1,12 @@
+package com.example.lab2.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+@Builder
+public record BrandPatchDto(
+        Long version,
+        @Pattern(regexp = PatchConstraints.NOT_BLANK) @Size(max = 255) String name) {
+
+}
@@ -0,0 +1,13 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+@Builder
+public record CacheStatisticsDto(
+        String region,
+        long hitCount,
+        long missCount,
+        long putCount,
+        long elementCount) {
+
+}
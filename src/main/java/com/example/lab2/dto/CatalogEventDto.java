@@ -0,0 +1,18 @@
+package com.example.lab2.dto;
+
+import com.example.lab2.model.CatalogEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record CatalogEventDto(
+        Long offset,
+        CatalogEvent.Type type,
+        CatalogEvent.Aggregate aggregate,
+        Long aggregateId,
+        @JsonRawValue String payload,
+        Instant occurredAt) {
+
+}
@@ -5,10 +5,15 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
-@Builder
+@Builder(toBuilder = true)
 public record CategoryDto(
         Long id,
         @NotBlank @Size(max = 255) String name,
-        @Positive Long parentCategoryId) {
+        @Positive Long parentCategoryId,
+        Long version) {
+
+    public CategoryDto(Long id, String name, Long parentCategoryId) {
+        this(id, name, parentCategoryId, null);
+    }
 
 }
@@ -0,0 +1,19 @@
+package com.example.lab2.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+/**
+ * @param parentCategoryId the new parent, the current one is kept when {@code null}
+ * @param moveToRoot       {@code true} detaches the category from its parent, cannot be combined with a new parent
+ */
+@Builder
+public record CategoryPatchDto(
+        Long version,
+        @Pattern(regexp = PatchConstraints.NOT_BLANK) @Size(max = 255) String name,
+        @Positive Long parentCategoryId,
+        Boolean moveToRoot) {
+
+}
@@ -0,0 +1,10 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record ChangeMarkerDto(Long id, Instant updatedAt) {
+
+}
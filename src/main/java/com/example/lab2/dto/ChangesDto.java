@@ -0,0 +1,15 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param watermark   {@code since} of the next request
+ * @param watermarkId {@code sinceId} of the next request, set while more changes follow
+ */
+@Builder
+public record ChangesDto<T>(List<T> changed, List<Long> deletedIds, Instant watermark, Long watermarkId, boolean hasMore) {
+
+}
@@ -0,0 +1,10 @@
+package com.example.lab2.dto;
+
+final class PatchConstraints {
+
+    static final String NOT_BLANK = "(?s).*\\S.*";
+
+    private PatchConstraints() {
+    }
+
+}
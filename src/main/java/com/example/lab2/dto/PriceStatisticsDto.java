@@ -0,0 +1,15 @@
+package com.example.lab2.dto;
+
+import com.example.lab2.model.Prices;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record PriceStatisticsDto(Long id, BigDecimal minPrice, BigDecimal maxPrice, BigDecimal averagePrice, Long productCount) {
+
+    public PriceStatisticsDto(Long id, long minPriceInCents, long maxPriceInCents, double averagePriceInCents, Long productCount) {
+        this(id, Prices.fromCents(minPriceInCents), Prices.fromCents(maxPriceInCents), Prices.fromCents(averagePriceInCents), productCount);
+    }
+
+}
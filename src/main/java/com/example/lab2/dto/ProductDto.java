@@ -1,16 +1,35 @@
 package com.example.lab2.dto;
 
+import com.example.lab2.model.Prices;
 import jakarta.validation.constraints.*;
 import lombok.Builder;
 
-@Builder
+import java.math.BigDecimal;
+
+@Builder(toBuilder = true)
 public record ProductDto(
         Long id,
         @NotBlank @Size(max = 255) String name,
         @NotBlank @Size(max = 2000) String description,
-        @NotNull @Positive Double price,
+        @NotNull @Positive @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal price,
         @NotNull @PositiveOrZero Integer quantity,
         @NotNull @Positive Long categoryId,
-        @NotNull @Positive Long brandId) {
+        @NotNull @Positive Long brandId,
+        Long version) {
+
+    public ProductDto {
+        if (price != null && price.scale() < Prices.SCALE) {
+            price = price.setScale(Prices.SCALE);
+        }
+    }
+
+    public ProductDto(Long id, String name, String description, BigDecimal price, Integer quantity, Long categoryId, Long brandId) {
+        this(id, name, description, price, quantity, categoryId, brandId, null);
+    }
+
+    public ProductDto(Long id, String name, String description, long priceInCents, Integer quantity, Long categoryId, Long brandId,
+                      Long version) {
+        this(id, name, description, Prices.fromCents(priceInCents), quantity, categoryId, brandId, version);
+    }
 
 }
@@ -0,0 +1,10 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ProductFacetsDto(long totalCount, List<FacetCountDto> categoryCounts, List<FacetCountDto> brandCounts) {
+
+}
@@ -0,0 +1,20 @@
+package com.example.lab2.dto;
+
+import com.example.lab2.model.Prices;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+@Builder
+public record ProductFilterDto(
+        @Positive Long categoryId,
+        Set<@Positive Long> brandIds,
+        @PositiveOrZero @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal minPrice,
+        @PositiveOrZero @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal maxPrice,
+        Boolean inStock) {
+
+}
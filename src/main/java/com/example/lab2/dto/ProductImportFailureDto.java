@@ -0,0 +1,10 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ProductImportFailureDto(
+        long lineNumber,
+        String reason) {
+
+}
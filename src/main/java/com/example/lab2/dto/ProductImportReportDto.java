@@ -0,0 +1,12 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ProductImportReportDto(
+        long importedCount,
+        List<ProductImportFailureDto> failures) {
+
+}
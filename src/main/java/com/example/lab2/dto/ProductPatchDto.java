@@ -0,0 +1,19 @@
+package com.example.lab2.dto;
+
+import com.example.lab2.model.Prices;
+import jakarta.validation.constraints.*;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record ProductPatchDto(
+        Long version,
+        @Pattern(regexp = PatchConstraints.NOT_BLANK) @Size(max = 255) String name,
+        @Pattern(regexp = PatchConstraints.NOT_BLANK) @Size(max = 2000) String description,
+        @Positive @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal price,
+        @PositiveOrZero Integer quantity,
+        @Positive Long categoryId,
+        @Positive Long brandId) {
+
+}
@@ -0,0 +1,8 @@
+package com.example.lab2.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ProductQuantityDto(Long id, int quantity) {
+
+}
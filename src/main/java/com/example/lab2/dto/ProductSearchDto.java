@@ -0,0 +1,18 @@
+package com.example.lab2.dto;
+
+import com.example.lab2.model.Prices;
+import jakarta.validation.constraints.*;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record ProductSearchDto(
+        @NotBlank @Size(max = 255) String query,
+        @Positive Long categoryId,
+        @Positive Long brandId,
+        @PositiveOrZero @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal minPrice,
+        @PositiveOrZero @Digits(integer = Prices.MAX_INTEGER_DIGITS, fraction = Prices.SCALE) BigDecimal maxPrice,
+        @Positive @Max(100) Integer limit) {
+
+}
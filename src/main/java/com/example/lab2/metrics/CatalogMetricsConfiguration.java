@@ -0,0 +1,32 @@
+package com.example.lab2.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class CatalogMetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer catalogMetricsHibernatePropertiesCustomizer(QueryCounter queryCounter, CatalogMetricsProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+            hibernateProperties.put(AvailableSettings.LOG_SLOW_QUERY, properties.slowQueryThreshold().toMillis());
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, properties.hibernateStatistics());
+        };
+    }
+
+}
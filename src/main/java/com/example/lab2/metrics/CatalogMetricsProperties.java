@@ -0,0 +1,23 @@
+package com.example.lab2.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param slowQueryThreshold repository calls and SQL statements taking longer are logged and counted as slow
+ * @param exportFile         file the Prometheus scrape output is periodically written to, disabled when not set
+ * @param exportInterval     delay between two writes of the export file
+ * @param hibernateStatistics whether Hibernate collects session factory statistics, such as the cache region counts
+ *                            reported by the catalog cache; off by default because every session pays for them
+ */
+@ConfigurationProperties("lab2.metrics")
+public record CatalogMetricsProperties(
+        @DefaultValue("PT0.2S") Duration slowQueryThreshold,
+        Path exportFile,
+        @DefaultValue("PT1M") Duration exportInterval,
+        @DefaultValue("false") boolean hibernateStatistics) {
+
+}
@@ -0,0 +1,46 @@
+package com.example.lab2.metrics;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the Prometheus scrape output to {@code lab2.metrics.export-file}, so metrics can be collected without an
+ * HTTP endpoint or an outside collector. The file is replaced atomically and written once more on shutdown.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("lab2.metrics.export-file")
+@RequiredArgsConstructor
+public class PrometheusFileExporter {
+
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
+    private final CatalogMetricsProperties properties;
+
+    @Scheduled(fixedDelayString = "${lab2.metrics.export-interval:PT1M}")
+    public void export() {
+        final var exportFile = properties.exportFile().toAbsolutePath();
+        final var tempFile = exportFile.resolveSibling(exportFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(exportFile.getParent());
+            Files.writeString(tempFile, prometheusMeterRegistry.scrape());
+            Files.move(tempFile, exportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not export metrics to {}", exportFile, e);
+        }
+    }
+
+    @PreDestroy
+    void exportOnShutdown() {
+        export();
+    }
+
+}
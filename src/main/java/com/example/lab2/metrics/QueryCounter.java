@@ -0,0 +1,23 @@
+package com.example.lab2.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so that callers can attribute them to the
+ * repository call that triggered them by comparing the count before and after.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private final ThreadLocal<long[]> counts = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        counts.get()[0]++;
+        return sql;
+    }
+
+    public long getCount() {
+        return counts.get()[0];
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.example.lab2.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Records how many SQL statements and result rows every repository call costs, next to the latency timer Spring Boot
+ * already publishes as {@code spring.data.repository.invocations}. Calls slower than the configured threshold are
+ * logged and counted.
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final QueryCounter queryCounter;
+    private final CatalogMetricsProperties properties;
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object recordRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        final var queriesBefore = queryCounter.getCount();
+        final var start = System.nanoTime();
+        try {
+            final var result = joinPoint.proceed();
+            final var signature = (MethodSignature) joinPoint.getSignature();
+            if (signature.getReturnType() != void.class) {
+                final var rows = countRows(result);
+                if (rows >= 0) {
+                    DistributionSummary.builder("lab2.repository.rows")
+                            .tags(tags(joinPoint))
+                            .register(meterRegistry)
+                            .record(rows);
+                }
+            }
+            return result;
+        } finally {
+            final var elapsedNanos = System.nanoTime() - start;
+            final var queries = queryCounter.getCount() - queriesBefore;
+            final var tags = tags(joinPoint);
+            DistributionSummary.builder("lab2.repository.queries")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(queries);
+            if (elapsedNanos > properties.slowQueryThreshold().toNanos()) {
+                Counter.builder("lab2.repository.slow")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("Slow repository call {}.{} took {} ms and ran {} statements",
+                        tags.stream().findFirst().orElseThrow().getValue(), joinPoint.getSignature().getName(),
+                        elapsedNanos / 1_000_000, queries);
+            }
+        }
+    }
+
+    private static Tags tags(ProceedingJoinPoint joinPoint) {
+        return Tags.of("repository", getRepositoryName(joinPoint.getThis()), "method", joinPoint.getSignature().getName());
+    }
+
+    private static String getRepositoryName(Object repository) {
+        return Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                .filter(Repository.class::isAssignableFrom)
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElseGet(() -> repository.getClass().getSimpleName());
+    }
+
+    private static long countRows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream<?> || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+
+}
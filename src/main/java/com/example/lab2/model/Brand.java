@@ -2,20 +2,34 @@ package com.example.lab2.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-public class Brand {
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Brand.CACHE_REGION)
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = Brand.NAME_CONSTRAINT, columnNames = "name"),
+        indexes = @Index(name = "idx_brand_updated_at", columnList = CatalogEntity.UPDATED_AT_COLUMNS)
+)
+public class Brand extends CatalogEntity {
+
+    public static final String CACHE_REGION = "brands";
+    public static final String NAME_CONSTRAINT = "uk_brand_name";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "brand_seq")
+    @SequenceGenerator(name = "brand_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
 }
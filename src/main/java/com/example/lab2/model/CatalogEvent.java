@@ -0,0 +1,49 @@
+package com.example.lab2.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Immutable
+@Table(indexes = @Index(name = "idx_catalog_event_aggregate_type_occurred_at", columnList = "aggregate, type, occurred_at"))
+public class CatalogEvent {
+
+    @Id
+    @Column(name = "event_offset")
+    private Long offset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Aggregate aggregate;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public enum Aggregate {
+        PRODUCT, BRAND, CATEGORY
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.example.lab2.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+/**
+ * Single row holding the offset of the last catalog event. Writers update it right before their transaction commits
+ * and hold its lock until then, so event offsets become visible in the order they were assigned and a consumer reading
+ * past an offset never skips one.
+ */
+@Entity
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class CatalogEventSequence {
+
+    public static final long ID = 1;
+
+    @Id
+    @Setter(AccessLevel.NONE)
+    private Long id;
+
+    @Column(nullable = false)
+    private long lastOffset;
+
+}
@@ -2,23 +2,37 @@ package com.example.lab2.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-public class Category {
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = Category.NAME_CONSTRAINT, columnNames = "name"),
+        indexes = @Index(name = "idx_category_updated_at", columnList = CatalogEntity.UPDATED_AT_COLUMNS)
+)
+public class Category extends CatalogEntity {
+
+    public static final String CACHE_REGION = "categories";
+    public static final String NAME_CONSTRAINT = "uk_category_name";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Category parentCategory;
 
 }
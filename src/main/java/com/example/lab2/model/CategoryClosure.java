@@ -0,0 +1,24 @@
+package com.example.lab2.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@IdClass(CategoryClosureId.class)
+@Table(indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendantId, depth"))
+public class CategoryClosure {
+
+    @Id
+    private Long ancestorId;
+
+    @Id
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+}
@@ -0,0 +1,19 @@
+package com.example.lab2.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class CategoryClosureId implements Serializable {
+
+    private Long ancestorId;
+
+    private Long descendantId;
+
+}
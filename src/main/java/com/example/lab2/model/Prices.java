@@ -0,0 +1,31 @@
+package com.example.lab2.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices are stored as a whole number of cents, so the database indexes, sorts and aggregates plain integers and
+ * in-memory price checks compare primitive longs. The API exposes them as decimals with {@value #SCALE} fraction
+ * digits.
+ */
+public final class Prices {
+
+    public static final int SCALE = 2;
+    public static final int MAX_INTEGER_DIGITS = 15;
+
+    private Prices() {
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static BigDecimal fromCents(double cents) {
+        return BigDecimal.valueOf(cents).movePointLeft(SCALE).setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+
+}
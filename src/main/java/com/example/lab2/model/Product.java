@@ -2,35 +2,49 @@ package com.example.lab2.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-public class Product {
+@DynamicUpdate
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = Product.NAME_CONSTRAINT, columnNames = "name"),
+        indexes = {
+                @Index(name = "idx_product_category_price", columnList = "category_id, price"),
+                @Index(name = "idx_product_brand_price", columnList = "brand_id, price"),
+                @Index(name = "idx_product_updated_at", columnList = CatalogEntity.UPDATED_AT_COLUMNS)
+        }
+)
+public class Product extends CatalogEntity {
+
+    public static final String NAME_CONSTRAINT = "uk_product_name";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Column(nullable = false)
     private String description;
 
-    @Column(nullable = false)
-    private Double price;
+    @Column(name = "price", nullable = false)
+    private long priceInCents;
 
     @Column(nullable = false)
     private Integer quantity;
 
-    @ManyToOne(cascade = CascadeType.ALL, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Category category;
 
-    @ManyToOne(cascade = CascadeType.ALL, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Brand brand;
 
 }
@@ -1,12 +1,36 @@
 package com.example.lab2.repository;
 
+import com.example.lab2.dto.ChangeMarkerDto;
 import com.example.lab2.model.Brand;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface BrandRepository extends JpaRepository<Brand, Long> {
 
-    boolean existsByName(String name);
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Brand> findAll();
+
+    @Query("select b.name from Brand b where b.name in :names")
+    Set<String> findExistingNames(Collection<String> names);
+
+    @Query("select b.id from Brand b where b.id in :ids order by b.id")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("""
+            select new com.example.lab2.dto.ChangeMarkerDto(b.id, b.updatedAt) from Brand b
+            where (b.updatedAt, b.id) > (:after, :afterId) and b.updatedAt <= :upTo order by b.updatedAt, b.id""")
+    List<ChangeMarkerDto> findChangedAfter(Instant after, long afterId, Instant upTo, Pageable pageable);
 
 }
@@ -0,0 +1,68 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.dto.CatalogEventDto;
+import com.example.lab2.model.CatalogEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CatalogEventRepository extends JpaRepository<CatalogEvent, Long> {
+
+    @Query("""
+            select new com.example.lab2.dto.CatalogEventDto(e.offset, e.type, e.aggregate, e.aggregateId, e.payload, e.occurredAt)
+            from CatalogEvent e where e.offset > :afterOffset order by e.offset""")
+    List<CatalogEventDto> findAfter(long afterOffset, Pageable pageable);
+
+    @Query("select e.aggregateId from CatalogEvent e where e.aggregate = :aggregate and e.type = :type and e.occurredAt > :after and e.occurredAt <= :upTo order by e.offset")
+    List<Long> findAggregateIdsBetween(CatalogEvent.Aggregate aggregate, CatalogEvent.Type type, Instant after, Instant upTo);
+
+    @Query("select e.aggregateId from CatalogEvent e where e.offset between :fromOffset and :toOffset order by e.offset")
+    List<Long> findAggregateIdsInOffsetRange(long fromOffset, long toOffset);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            insert into CatalogEvent (offset, type, aggregate, aggregateId, occurredAt)
+            select :firstOffset + row_number() over (order by p.id) - 1, :type, com.example.lab2.model.CatalogEvent$Aggregate.PRODUCT, p.id, :occurredAt
+            from Product p where p.category.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)""")
+    int insertProductEventsInCategorySubtree(CatalogEvent.Type type, Long categoryId, long firstOffset, Instant occurredAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            insert into CatalogEvent (offset, type, aggregate, aggregateId, occurredAt)
+            select :firstOffset + row_number() over (order by p.id) - 1, :type, com.example.lab2.model.CatalogEvent$Aggregate.PRODUCT, p.id, :occurredAt
+            from Product p where p.brand.id = :brandId""")
+    int insertProductEventsOfBrand(CatalogEvent.Type type, Long brandId, long firstOffset, Instant occurredAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            insert into CatalogEvent (offset, type, aggregate, aggregateId, occurredAt)
+            select :firstOffset + row_number() over (order by cc.descendantId) - 1, :type, com.example.lab2.model.CatalogEvent$Aggregate.CATEGORY, cc.descendantId, :occurredAt
+            from CategoryClosure cc where cc.ancestorId = :categoryId""")
+    int insertCategoryEventsOfSubtree(CatalogEvent.Type type, Long categoryId, long firstOffset, Instant occurredAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            insert into CatalogEvent (offset, type, aggregate, aggregateId, occurredAt)
+            select :firstOffset + row_number() over (order by c.id) - 1, :type, com.example.lab2.model.CatalogEvent$Aggregate.CATEGORY, c.id, :occurredAt
+            from Category c where c.id in :categoryIds""")
+    int insertCategoryEvents(CatalogEvent.Type type, Collection<Long> categoryIds, long firstOffset, Instant occurredAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            insert into CatalogEvent (offset, type, aggregate, aggregateId, occurredAt)
+            select :firstOffset + row_number() over (order by b.id) - 1, :type, com.example.lab2.model.CatalogEvent$Aggregate.BRAND, b.id, :occurredAt
+            from Brand b where b.id in :brandIds""")
+    int insertBrandEvents(CatalogEvent.Type type, Collection<Long> brandIds, long firstOffset, Instant occurredAt);
+
+    @Modifying
+    @Query("delete from CatalogEvent e where e.offset <= :offset")
+    int deleteUpTo(long offset);
+
+}
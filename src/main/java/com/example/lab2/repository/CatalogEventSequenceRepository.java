@@ -0,0 +1,21 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.model.CatalogEventSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogEventSequenceRepository extends JpaRepository<CatalogEventSequence, Long> {
+
+    @Modifying
+    @Query("update CatalogEventSequence s set s.lastOffset = s.lastOffset + :count where s.id = :id")
+    int incrementLastOffset(Long id, long count);
+
+    @Query("select s.lastOffset from CatalogEventSequence s where s.id = :id")
+    Optional<Long> findLastOffsetById(Long id);
+
+}
@@ -0,0 +1,76 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.model.CategoryClosure;
+import com.example.lab2.model.CategoryClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosureId> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    @Query("select count(cc) > 0 from CategoryClosure cc where cc.ancestorId in :categoryIds and cc.descendantId not in :categoryIds")
+    boolean existsDescendantOutside(Collection<Long> categoryIds);
+
+    @Modifying
+    @Query("insert into CategoryClosure (ancestorId, descendantId, depth) values (:categoryId, :categoryId, 0)")
+    int insertSelfPath(Long categoryId);
+
+    @Modifying
+    @Query("""
+            insert into CategoryClosure (ancestorId, descendantId, depth)
+            select cc.ancestorId, :categoryId, cc.depth + 1 from CategoryClosure cc where cc.descendantId = :parentId""")
+    int insertAncestorPaths(Long categoryId, Long parentId);
+
+    @Modifying
+    @Query("insert into CategoryClosure (ancestorId, descendantId, depth) select c.id, c.id, 0 from Category c where c.id in :categoryIds")
+    int insertSelfPaths(Collection<Long> categoryIds);
+
+    @Modifying
+    @Query("""
+            insert into CategoryClosure (ancestorId, descendantId, depth)
+            select cc.ancestorId, c.id, cc.depth + 1 from Category c join CategoryClosure cc on cc.descendantId = c.parentCategory.id
+            where c.id in :categoryIds""")
+    int insertAncestorPathsOfAll(Collection<Long> categoryIds);
+
+    @Modifying
+    @Query("""
+            delete from CategoryClosure cc
+            where cc.descendantId in (select s.descendantId from CategoryClosure s where s.ancestorId = :categoryId)
+            and cc.ancestorId not in (select s.descendantId from CategoryClosure s where s.ancestorId = :categoryId)""")
+    int deleteSubtreeAncestorPaths(Long categoryId);
+
+    @Modifying
+    @Query("""
+            insert into CategoryClosure (ancestorId, descendantId, depth)
+            select a.ancestorId, s.descendantId, a.depth + s.depth + 1 from CategoryClosure a, CategoryClosure s
+            where a.descendantId = :parentId and s.ancestorId = :categoryId""")
+    int insertSubtreeAncestorPaths(Long categoryId, Long parentId);
+
+    @Modifying
+    @Query("""
+            delete from CategoryClosure cc
+            where cc.descendantId in (select s.descendantId from CategoryClosure s where s.ancestorId = :categoryId)""")
+    int deleteAllPathsOfSubtree(Long categoryId);
+
+    @Modifying
+    @Query("delete from CategoryClosure cc where cc.descendantId in :categoryIds")
+    int deleteAllPathsOfAll(Collection<Long> categoryIds);
+
+    @Modifying
+    @Query("insert into CategoryClosure (ancestorId, descendantId, depth) select c.id, c.id, 0 from Category c")
+    int insertAllSelfPaths();
+
+    @Modifying
+    @Query("""
+            insert into CategoryClosure (ancestorId, descendantId, depth)
+            select cc.ancestorId, c.id, cc.depth + 1 from Category c join CategoryClosure cc on cc.descendantId = c.parentCategory.id
+            where cc.depth = :depth""")
+    int insertPathsBelowDepth(int depth);
+
+}
@@ -1,12 +1,82 @@
 package com.example.lab2.repository;
 
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.CategoryLinkDto;
+import com.example.lab2.dto.ChangeMarkerDto;
 import com.example.lab2.model.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
-    boolean existsByName(String name);
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findAll();
+
+    @Query("select c.name from Category c where c.name in :names")
+    Set<String> findExistingNames(Collection<String> names);
+
+    @Query("select c.id from Category c where c.id in :ids order by c.id")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("select new com.example.lab2.dto.CategoryLinkDto(c.id, c.parentCategory.id) from Category c")
+    List<CategoryLinkDto> findAllLinks();
+
+    @Query("""
+            select new com.example.lab2.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.version)
+            from CategoryClosure cc join Category c on c.id = cc.descendantId
+            where cc.ancestorId = :categoryId and cc.depth > 0 order by cc.depth, c.id""")
+    List<CategoryDto> findDescendants(Long categoryId);
+
+    @Query("""
+            select new com.example.lab2.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.version)
+            from CategoryClosure cc join Category c on c.id = cc.ancestorId
+            where cc.descendantId = :categoryId and cc.depth > 0 order by cc.depth desc""")
+    List<CategoryDto> findAncestors(Long categoryId);
+
+    /**
+     * Locks the moved category together with the new parent and its ancestors, in id order. Two moves that could
+     * form a cycle always share one of these rows, so they serialize and the later one sees the earlier one's paths.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select c from Category c
+            where c.id = :categoryId or c.id in (select cc.ancestorId from CategoryClosure cc where cc.descendantId = :parentId)
+            order by c.id""")
+    List<Category> lockForMove(Long categoryId, Long parentId);
+
+    @Query("select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId")
+    List<Long> findSubtreeIds(Long categoryId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Category c set c.parentCategory = null where c.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)")
+    int detachSubtree(Long categoryId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Category c set c.parentCategory = null where c.id in :categoryIds")
+    int detachAll(Collection<Long> categoryIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Category c where c.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)")
+    int deleteSubtree(Long categoryId);
+
+    @Query("""
+            select new com.example.lab2.dto.ChangeMarkerDto(c.id, c.updatedAt) from Category c
+            where (c.updatedAt, c.id) > (:after, :afterId) and c.updatedAt <= :upTo order by c.updatedAt, c.id""")
+    List<ChangeMarkerDto> findChangedAfter(Instant after, long afterId, Instant upTo, Pageable pageable);
 
 }
@@ -0,0 +1,18 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.dto.FacetCountDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductFilterRepository {
+
+    List<ProductDto> findDtosAfter(Specification<Product> specification, Long afterId, int limit);
+
+    List<FacetCountDto> countByCategory(Specification<Product> specification);
+
+    List<FacetCountDto> countByBrand(Specification<Product> specification);
+
+}
@@ -0,0 +1,77 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.dto.FacetCountDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ProductDto> findDtosAfter(Specification<Product> specification, Long afterId, int limit) {
+        final var criteriaBuilder = entityManager.getCriteriaBuilder();
+        final var query = criteriaBuilder.createQuery(ProductDto.class);
+        final var product = query.from(Product.class);
+        query.select(criteriaBuilder.construct(ProductDto.class,
+                        product.get("id"),
+                        product.get("name"),
+                        product.get("description"),
+                        product.get("priceInCents"),
+                        product.get("quantity"),
+                        product.get("category").get("id"),
+                        product.get("brand").get("id"),
+                        product.get("version")))
+                .where(where(specification, product, query, criteriaBuilder,
+                        criteriaBuilder.greaterThan(product.get("id"), afterId)))
+                .orderBy(criteriaBuilder.asc(product.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<FacetCountDto> countByCategory(Specification<Product> specification) {
+        return countBy(specification, "category");
+    }
+
+    @Override
+    public List<FacetCountDto> countByBrand(Specification<Product> specification) {
+        return countBy(specification, "brand");
+    }
+
+    private List<FacetCountDto> countBy(Specification<Product> specification, String attribute) {
+        final var criteriaBuilder = entityManager.getCriteriaBuilder();
+        final var query = criteriaBuilder.createQuery(FacetCountDto.class);
+        final var product = query.from(Product.class);
+        final var value = product.get(attribute).<Long>get("id");
+        query.select(criteriaBuilder.construct(FacetCountDto.class, value, criteriaBuilder.count(product)))
+                .where(where(specification, product, query, criteriaBuilder))
+                .groupBy(value)
+                .orderBy(criteriaBuilder.asc(value));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Predicate[] where(Specification<Product> specification, Root<Product> product, CriteriaQuery<?> query,
+                                     CriteriaBuilder criteriaBuilder, Predicate... predicates) {
+        final var predicate = specification.toPredicate(product, query, criteriaBuilder);
+        if (predicate == null) {
+            return predicates;
+        }
+        final var allPredicates = new Predicate[predicates.length + 1];
+        allPredicates[0] = predicate;
+        System.arraycopy(predicates, 0, allPredicates, 1, predicates.length);
+        return allPredicates;
+    }
+
+}
@@ -1,12 +1,117 @@
 package com.example.lab2.repository;
 
+import com.example.lab2.dto.ChangeMarkerDto;
+import com.example.lab2.dto.PriceStatisticsDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductQuantityDto;
 import com.example.lab2.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductFilterRepository {
+
+    int STREAM_FETCH_SIZE = 1000;
+
+    String SELECT_PRODUCT_DTO = "select new com.example.lab2.dto.ProductDto(p.id, p.name, p.description, p.priceInCents, p.quantity, p.category.id, p.brand.id, p.version) from Product p";
+
+    @Query("select p.name from Product p where p.name in :names")
+    Set<String> findExistingNames(Collection<String> names);
+
+    @Query("select p.id from Product p where p.id in :ids order by p.id")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query(SELECT_PRODUCT_DTO + " order by p.id")
+    List<ProductDto> findAllDtos();
+
+    @Query(SELECT_PRODUCT_DTO + " where p.id in :ids")
+    List<ProductDto> findAllDtosById(Collection<Long> ids);
+
+    @Query(SELECT_PRODUCT_DTO + " where p.id > :afterId order by p.id")
+    List<ProductDto> findPageAfter(Long afterId, Pageable pageable);
+
+    @Query(SELECT_PRODUCT_DTO + " where p.category.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId) order by p.id")
+    List<ProductDto> findAllInCategorySubtree(Long categoryId);
+
+    @Query("select count(p) > 0 from Product p where p.category.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)")
+    boolean existsInCategorySubtree(Long categoryId);
+
+    boolean existsByBrandId(Long brandId);
+
+    boolean existsByBrandIdIn(Collection<Long> brandIds);
+
+    boolean existsByCategoryIdIn(Collection<Long> categoryIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update Product p set p.category.id = :fallbackCategoryId, p.version = p.version + 1, p.updatedAt = instant
+            where p.category.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)""")
+    int reassignCategorySubtree(Long categoryId, Long fallbackCategoryId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Product p where p.category.id in (select cc.descendantId from CategoryClosure cc where cc.ancestorId = :categoryId)")
+    int deleteAllInCategorySubtree(Long categoryId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.brand.id = :fallbackBrandId, p.version = p.version + 1, p.updatedAt = instant where p.brand.id = :brandId")
+    int reassignBrand(Long brandId, Long fallbackBrandId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Product p where p.brand.id = :brandId")
+    int deleteAllByBrand(Long brandId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Product p where p.id = :id")
+    int deleteIfExists(Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :delta, p.version = p.version + 1, p.updatedAt = instant where p.id = :id and p.quantity + :delta >= 0")
+    int adjustQuantity(Long id, int delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.quantity = 0, p.version = p.version + 1, p.updatedAt = instant where p.id = :id")
+    int clearQuantity(Long id);
+
+    @Query("""
+            select new com.example.lab2.dto.PriceStatisticsDto(p.category.id, min(p.priceInCents), max(p.priceInCents), avg(p.priceInCents), count(p))
+            from Product p group by p.category.id order by p.category.id""")
+    List<PriceStatisticsDto> findPriceStatisticsByCategory();
+
+    @Query("""
+            select new com.example.lab2.dto.PriceStatisticsDto(p.brand.id, min(p.priceInCents), max(p.priceInCents), avg(p.priceInCents), count(p))
+            from Product p group by p.brand.id order by p.brand.id""")
+    List<PriceStatisticsDto> findPriceStatisticsByBrand();
+
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(Long id);
+
+    @Query("select new com.example.lab2.dto.ProductQuantityDto(p.id, p.quantity) from Product p where p.id in :ids")
+    List<ProductQuantityDto> findQuantitiesByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_PRODUCT_DTO + " order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<ProductDto> streamAll();
 
-    boolean existsByName(String name);
+    @Query("""
+            select new com.example.lab2.dto.ChangeMarkerDto(p.id, p.updatedAt) from Product p
+            where (p.updatedAt, p.id) > (:after, :afterId) and p.updatedAt <= :upTo order by p.updatedAt, p.id""")
+    List<ChangeMarkerDto> findChangedAfter(Instant after, long afterId, Instant upTo, Pageable pageable);
 
 }
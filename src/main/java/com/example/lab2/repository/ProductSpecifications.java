@@ -0,0 +1,62 @@
+package com.example.lab2.repository;
+
+import com.example.lab2.model.CategoryClosure;
+import com.example.lab2.model.Prices;
+import com.example.lab2.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> inCategorySubtree(Long categoryId) {
+        return (product, query, criteriaBuilder) -> {
+            if (categoryId == null) {
+                return null;
+            }
+            final var descendants = query.subquery(Long.class);
+            final var categoryClosure = descendants.from(CategoryClosure.class);
+            descendants.select(categoryClosure.get("descendantId"))
+                    .where(criteriaBuilder.equal(categoryClosure.get("ancestorId"), categoryId));
+            return product.get("category").get("id").in(descendants);
+        };
+    }
+
+    public static Specification<Product> hasBrandIn(Collection<Long> brandIds) {
+        return (product, query, criteriaBuilder) -> brandIds == null || brandIds.isEmpty()
+                ? null
+                : product.get("brand").get("id").in(brandIds);
+    }
+
+    public static Specification<Product> hasPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (product, query, criteriaBuilder) -> {
+            if (minPrice == null && maxPrice == null) {
+                return null;
+            }
+            final var priceInCents = product.<Long>get("priceInCents");
+            if (minPrice == null) {
+                return criteriaBuilder.lessThanOrEqualTo(priceInCents, Prices.toCents(maxPrice));
+            }
+            if (maxPrice == null) {
+                return criteriaBuilder.greaterThanOrEqualTo(priceInCents, Prices.toCents(minPrice));
+            }
+            return criteriaBuilder.between(priceInCents, Prices.toCents(minPrice), Prices.toCents(maxPrice));
+        };
+    }
+
+    public static Specification<Product> isInStock(Boolean inStock) {
+        return (product, query, criteriaBuilder) -> {
+            if (inStock == null) {
+                return null;
+            }
+            return inStock
+                    ? criteriaBuilder.greaterThan(product.get("quantity"), 0)
+                    : criteriaBuilder.equal(product.get("quantity"), 0);
+        };
+    }
+
+}
@@ -1,57 +1,126 @@
 package com.example.lab2.service;
 
 import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.BrandPatchDto;
+import com.example.lab2.dto.ChangesDto;
 import com.example.lab2.model.Brand;
+import com.example.lab2.model.CatalogEvent;
 import com.example.lab2.repository.BrandRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("lab2.service")
 @Transactional
 @RequiredArgsConstructor
 public class BrandService {
 
     private final BrandRepository brandRepository;
     private final Validator validator;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogChangeTracker catalogChangeTracker;
+    private final CatalogDeletionService catalogDeletionService;
 
+    @Transactional(readOnly = true)
     public List<BrandDto> getAllBrands() {
         return brandRepository.findAll().stream()
                 .map(this::mapBrandToBrandDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public BrandDto getBrandById(Long id) {
         return brandRepository.findById(id)
                 .map(this::mapBrandToBrandDto)
                 .orElseThrow();
     }
 
+    @Transactional(readOnly = true)
+    public long getBrandVersion(Long id) {
+        return brandRepository.findById(id)
+                .map(Brand::getVersion)
+                .orElseThrow();
+    }
+
+    @Transactional(readOnly = true)
+    public ChangesDto<BrandDto> getChangedSince(Instant watermark, Long watermarkId, int limit) {
+        return catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, watermark, watermarkId, limit,
+                brandRepository::findChangedAfter, ids -> brandRepository.findAllById(ids).stream()
+                        .map(this::mapBrandToBrandDto)
+                        .toList(), BrandDto::id);
+    }
+
     public void createBrand(BrandDto brandDto) {
         validateBrandDto(brandDto);
-        validateBrandNameIsNotTaken(brandDto.name());
         final var brand = Brand.builder()
                 .name(brandDto.name())
                 .build();
-        brandRepository.save(brand);
+        saveBrandWithUniqueName(brand, CatalogEvent.Type.CREATED);
     }
 
     public void updateBrand(Long id, BrandDto brandDto) {
         validateBrandDto(brandDto);
         final var brand = brandRepository.findById(id).orElseThrow();
+        EntityLookups.validateVersion(brand, EntityLookups.requireVersion(brandDto.version(), "Brand"), "Brand");
         brand.setName(brandDto.name());
-        brandRepository.save(brand);
+        saveBrandWithUniqueName(brand, CatalogEvent.Type.UPDATED);
+    }
+
+    @RetryOnConflict
+    public void patchBrand(Long id, BrandPatchDto brandPatchDto) {
+        validateBrandPatchDto(brandPatchDto);
+        final var brand = brandRepository.findById(id).orElseThrow();
+        EntityLookups.validateVersion(brand, brandPatchDto.version(), "Brand");
+        if (brandPatchDto.name() != null) {
+            brand.setName(brandPatchDto.name());
+        }
+        saveBrandWithUniqueName(brand, CatalogEvent.Type.UPDATED);
     }
 
     public void deleteBrand(Long id) {
-        brandRepository.deleteById(id);
+        catalogDeletionService.deleteBrand(id, CatalogDeletionService.Mode.REJECT, null);
+    }
+
+    public void createAllBrands(Collection<BrandDto> brandDtos) {
+        validateBrandDtos(brandDtos);
+        final var brands = brandDtos.stream()
+                .map(brandDto -> Brand.builder()
+                        .name(brandDto.name())
+                        .build())
+                .toList();
+        saveBrandsWithUniqueNames(brands, CatalogEvent.Type.CREATED);
+    }
+
+    public void updateAllBrands(Collection<BrandDto> brandDtos) {
+        validateBrandDtos(brandDtos);
+        final var brands = EntityLookups.findAllByIdOrThrow(brandRepository, getBrandIds(brandDtos), Brand::getId);
+        brandDtos.forEach(brandDto -> {
+            final var brand = brands.get(brandDto.id());
+            EntityLookups.validateVersion(brand, EntityLookups.requireVersion(brandDto.version(), "Brand"), "Brand");
+            brand.setName(brandDto.name());
+        });
+        saveBrandsWithUniqueNames(List.copyOf(brands.values()), CatalogEvent.Type.UPDATED);
+    }
+
+    public void deleteAllBrandsById(Collection<Long> ids) {
+        catalogDeletionService.deleteAllBrandsById(ids);
     }
 
     private void validateBrandDto(BrandDto brandDto) {
+        if (DtoValidators.isValid(brandDto)) {
+            return;
+        }
+
         final var violations = validator.validate(brandDto);
 
         if (!violations.isEmpty()) {
@@ -59,16 +128,75 @@ public class BrandService {
         }
     }
 
+    private void validateBrandPatchDto(BrandPatchDto brandPatchDto) {
+        final var violations = validator.validate(brandPatchDto);
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private void validateBrandDtos(Collection<BrandDto> brandDtos) {
+        final var violations = brandDtos.stream()
+                .filter(brandDto -> !DtoValidators.isValid(brandDto))
+                .flatMap(brandDto -> validator.validate(brandDto).stream())
+                .collect(Collectors.toSet());
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        EntityLookups.validateNamesAreDistinct(brandDtos.stream()
+                .map(BrandDto::name)
+                .toList(), "Brand");
+    }
+
+    private List<Long> getBrandIds(Collection<BrandDto> brandDtos) {
+        return brandDtos.stream()
+                .map(brandDto -> {
+                    if (brandDto.id() == null) {
+                        throw new IllegalArgumentException("Brand id is required: " + brandDto);
+                    }
+                    return brandDto.id();
+                })
+                .toList();
+    }
+
     private BrandDto mapBrandToBrandDto(Brand brand) {
         return BrandDto.builder()
                 .id(brand.getId())
                 .name(brand.getName())
+                .version(brand.getVersion())
                 .build();
     }
 
-    private void validateBrandNameIsNotTaken(String name) {
-        if (brandRepository.existsByName(name)) {
-            throw new IllegalStateException("Brand name is already taken: " + name);
+    private void publishBrandEvent(Brand brand, CatalogEvent.Type eventType) {
+        catalogEventPublisher.publish(eventType, CatalogEvent.Aggregate.BRAND, brand.getId(), mapBrandToBrandDto(brand));
+    }
+
+    private void saveBrandWithUniqueName(Brand brand, CatalogEvent.Type eventType) {
+        try {
+            brandRepository.saveAndFlush(brand);
+            publishBrandEvent(brand, eventType);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Brand.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("Brand name is already taken: " + brand.getName(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void saveBrandsWithUniqueNames(List<Brand> brands, CatalogEvent.Type eventType) {
+        try {
+            brandRepository.saveAllAndFlush(brands);
+            brands.forEach(brand -> publishBrandEvent(brand, eventType));
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Brand.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("One of brand names is already taken: " + brands.stream()
+                        .map(Brand::getName)
+                        .toList(), e);
+            }
+            throw e;
         }
     }
 
@@ -0,0 +1,9 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+
+import java.util.List;
+
+public record CacheInvalidation(String origin, CatalogEvent.Aggregate aggregate, List<Long> ids) {
+
+}
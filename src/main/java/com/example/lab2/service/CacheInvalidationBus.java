@@ -0,0 +1,50 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Broadcasts ids of changed catalog entities to the other nodes, so they can drop what they cache about them. Every
+ * node tags its invalidations with its own id and does not receive them back.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    static final int MAX_IDS_PER_INVALIDATION = 500;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationTransport cacheInvalidationTransport;
+
+    public void broadcast(CatalogEvent.Aggregate aggregate, Collection<Long> ids) {
+        final var idList = List.copyOf(ids);
+        for (var from = 0; from < idList.size(); from += MAX_IDS_PER_INVALIDATION) {
+            final var to = Math.min(from + MAX_IDS_PER_INVALIDATION, idList.size());
+            cacheInvalidationTransport.send(new CacheInvalidation(nodeId, aggregate, idList.subList(from, to)));
+        }
+    }
+
+    public void subscribe(CacheInvalidationTransport.Listener listener) {
+        cacheInvalidationTransport.subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidation(CacheInvalidation invalidation) {
+                if (!nodeId.equals(invalidation.origin())) {
+                    listener.onInvalidation(invalidation);
+                }
+            }
+
+            @Override
+            public void onGap() {
+                listener.onGap();
+            }
+        });
+    }
+
+}
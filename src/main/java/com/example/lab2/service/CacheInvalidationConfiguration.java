@@ -0,0 +1,80 @@
+package com.example.lab2.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Picks the {@link CacheInvalidationTransport}. With {@code AUTO}, nodes backed by PostgreSQL talk through
+ * {@code LISTEN/NOTIFY} and any other database falls back to the in-memory transport. The PostgreSQL listener connects
+ * with the primary's {@code spring.datasource} settings, or the connection details of a service connection when there
+ * is one.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(CacheInvalidationProperties properties, DataSource dataSource,
+                                                                 EntityManager entityManager, ObjectMapper objectMapper,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 ObjectProvider<JdbcConnectionDetails> jdbcConnectionDetails) throws SQLException {
+        final var transport = properties.transport() == CacheInvalidationProperties.Transport.AUTO
+                ? detectTransport(dataSource)
+                : properties.transport();
+        return switch (transport) {
+            case POSTGRES -> new PostgresCacheInvalidationTransport(
+                    listenerConnectionFactory(jdbcConnectionDetails.getIfAvailable(() -> fromProperties(dataSourceProperties))),
+                    entityManager, objectMapper, properties.maxStaleness());
+            default -> new InMemoryCacheInvalidationTransport();
+        };
+    }
+
+    private static CacheInvalidationProperties.Transport detectTransport(DataSource dataSource) throws SQLException {
+        try (final var connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                    ? CacheInvalidationProperties.Transport.POSTGRES
+                    : CacheInvalidationProperties.Transport.IN_MEMORY;
+        }
+    }
+
+    private static PostgresCacheInvalidationTransport.ListenerConnectionFactory listenerConnectionFactory(JdbcConnectionDetails connectionDetails) {
+        final var connectionProperties = new Properties();
+        connectionProperties.setProperty("ApplicationName", PostgresCacheInvalidationTransport.APPLICATION_NAME);
+        if (connectionDetails.getUsername() != null) {
+            connectionProperties.setProperty("user", connectionDetails.getUsername());
+        }
+        if (connectionDetails.getPassword() != null) {
+            connectionProperties.setProperty("password", connectionDetails.getPassword());
+        }
+        return () -> DriverManager.getConnection(connectionDetails.getJdbcUrl(), connectionProperties);
+    }
+
+    private static JdbcConnectionDetails fromProperties(DataSourceProperties dataSourceProperties) {
+        return new JdbcConnectionDetails() {
+            @Override
+            public String getUsername() {
+                return dataSourceProperties.determineUsername();
+            }
+
+            @Override
+            public String getPassword() {
+                return dataSourceProperties.determinePassword();
+            }
+
+            @Override
+            public String getJdbcUrl() {
+                return dataSourceProperties.determineUrl();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.lab2.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("lab2.cache.invalidation")
+public record CacheInvalidationProperties(
+        @DefaultValue("AUTO") Transport transport,
+        @DefaultValue("PT10S") Duration maxStaleness) {
+
+    public enum Transport {
+        AUTO,
+        IN_MEMORY,
+        POSTGRES
+    }
+
+}
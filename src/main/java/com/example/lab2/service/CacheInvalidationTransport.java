@@ -0,0 +1,24 @@
+package com.example.lab2.service;
+
+/**
+ * Carries {@link CacheInvalidation}s between application nodes. Invalidations sent inside a transaction are delivered
+ * only if it commits.
+ */
+public interface CacheInvalidationTransport {
+
+    void send(CacheInvalidation invalidation);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onInvalidation(CacheInvalidation invalidation);
+
+        /**
+         * Called when invalidations may have been lost, so everything cached locally has to be dropped.
+         */
+        void onGap();
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CacheStatisticsDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.Category;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class CatalogCacheService {
+
+    private static final List<String> CACHE_REGIONS = List.of(
+            Brand.CACHE_REGION,
+            Category.CACHE_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
+    private final ProductSearchService productSearchService;
+    private final CatalogExecutor catalogExecutor;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        cacheInvalidationBus.subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidation(CacheInvalidation invalidation) {
+                evict(invalidation);
+            }
+
+            @Override
+            public void onGap() {
+                evictAllLocally();
+            }
+        });
+    }
+
+    /**
+     * Counts stay at zero unless {@code lab2.metrics.hibernate-statistics} is enabled.
+     */
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return CACHE_REGIONS.stream()
+                .flatMap(region -> Stream.ofNullable(statistics.getCacheRegionStatistics(region))
+                        .map(regionStatistics -> CacheStatisticsDto.builder()
+                                .region(region)
+                                .hitCount(regionStatistics.getHitCount())
+                                .missCount(regionStatistics.getMissCount())
+                                .putCount(regionStatistics.getPutCount())
+                                .elementCount(regionStatistics.getElementCountInMemory())
+                                .build()))
+                .toList();
+    }
+
+    public void warmUp() {
+        CompletableFuture.allOf(
+                catalogExecutor.supplyAsync(brandRepository::findAll),
+                catalogExecutor.supplyAsync(categoryRepository::findAll),
+                catalogExecutor.supplyAsync(categoryService::getCategoryTree),
+                catalogExecutor.supplyAsync(productSearchService::getSearchIndex)
+        ).join();
+    }
+
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    /**
+     * Drops what this node caches about entities changed on another node. Evicted entities are reloaded on demand from
+     * the replica when one is configured and expire with their region. The category tree and changed products have no
+     * expiry, so they are reloaded right away from the primary.
+     */
+    void evict(CacheInvalidation invalidation) {
+        final var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        switch (invalidation.aggregate()) {
+            case BRAND -> invalidation.ids().forEach(id -> cache.evictEntityData(Brand.class, id));
+            case CATEGORY -> {
+                invalidation.ids().forEach(id -> cache.evictEntityData(Category.class, id));
+                categoryService.reloadCategoryTree();
+            }
+            case PRODUCT -> productSearchService.refreshProducts(invalidation.ids());
+        }
+        cache.evictDefaultQueryRegion();
+    }
+
+    void evictAllLocally() {
+        evictAll();
+        categoryService.reloadCategoryTree();
+        productSearchService.reloadSearchIndex();
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.lab2.service;
+
+import com.example.lab2.datasource.ReplicaRoutingContext;
+import com.example.lab2.dto.ChangeMarkerDto;
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.CatalogEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pages through catalog rows by their {@code (updatedAt, id)} watermark. The feed is read from the primary, also in a
+ * read-only transaction, and rows changed within the settle window, measured on the database clock, are held back, so
+ * a transaction that stamped a row but has not committed yet cannot be overtaken by the returned watermark. Rows
+ * sharing one timestamp are paged by id, so a page never holds more than {@code limit} rows. Deletes are reported as
+ * tombstones read from the catalog event outbox, so a sync can only reach back as far as events are retained.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogChangeTracker {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final CatalogEventRepository catalogEventRepository;
+    private final CatalogSyncProperties properties;
+    private final CatalogSyncClock catalogSyncClock;
+
+    public <T> ChangesDto<T> getChangedSince(CatalogEvent.Aggregate aggregate, Instant watermark, Long watermarkId, int limit,
+                                             ChangeQuery changeQuery, Function<Collection<Long>, List<T>> loader,
+                                             Function<T, Long> idGetter) {
+        validateLimit(limit);
+        ReplicaRoutingContext.requirePrimary();
+        final var since = watermark == null ? Instant.EPOCH : watermark;
+        final var upTo = catalogSyncClock.getUpperBound(properties.settleWindow());
+        if (!since.isBefore(upTo)) {
+            return new ChangesDto<>(List.of(), List.of(), since, watermarkId, false);
+        }
+
+        final var sinceId = watermark == null || watermarkId == null ? Long.MAX_VALUE : watermarkId;
+        final var markers = changeQuery.findChangedAfter(since, sinceId, upTo, PageRequest.ofSize(limit + 1));
+        final var hasMore = markers.size() > limit;
+        final var page = hasMore ? markers.subList(0, limit) : markers;
+        final var last = hasMore ? page.get(page.size() - 1) : null;
+        final var nextWatermark = hasMore ? last.updatedAt() : upTo;
+
+        final var positions = new HashMap<Long, Integer>();
+        for (var position = 0; position < page.size(); position++) {
+            positions.put(page.get(position).id(), position);
+        }
+        final var changed = new ArrayList<>(loader.apply(positions.keySet()));
+        changed.sort(Comparator.comparing(item -> positions.get(idGetter.apply(item))));
+        final var deletedIds = catalogEventRepository.findAggregateIdsBetween(aggregate, CatalogEvent.Type.DELETED, since, nextWatermark);
+        return new ChangesDto<>(changed, deletedIds, nextWatermark, hasMore ? last.id() : null, hasMore);
+    }
+
+    private void validateLimit(int limit) {
+        if (limit <= 0 || limit > properties.maxLimit()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + properties.maxLimit() + ": " + limit);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChangeQuery {
+
+        List<ChangeMarkerDto> findChangedAfter(Instant after, long afterId, Instant upTo, Pageable pageable);
+
+    }
+
+}
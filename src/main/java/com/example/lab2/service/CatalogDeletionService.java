@@ -0,0 +1,162 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CatalogEventRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Deletes categories and brands with a handful of set-based statements, without loading entities. A category is
+ * deleted together with its whole subtree, found through the closure table. Products referencing the deleted rows are
+ * handled according to the {@link Mode}. Their events are inserted into the outbox straight from the affected rows,
+ * and only their ids are read back to update the search index.
+ */
+@Service
+@Timed("lab2.service")
+@Transactional
+@RequiredArgsConstructor
+public class CatalogDeletionService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final BrandRepository brandRepository;
+    private final ProductRepository productRepository;
+    private final CatalogEventRepository catalogEventRepository;
+    private final CategoryService categoryService;
+    private final ProductSearchService productSearchService;
+    private final CatalogEventPublisher catalogEventPublisher;
+
+    public void deleteCategory(Long id, Mode mode, Long fallbackCategoryId) {
+        final var categoryIds = categoryRepository.findSubtreeIds(id);
+        if (categoryIds.isEmpty()) {
+            throw new NoSuchElementException("Category does not exist: " + id);
+        }
+
+        switch (mode) {
+            case REJECT -> {
+                if (categoryIds.size() > 1 || productRepository.existsInCategorySubtree(id)) {
+                    throw new IllegalStateException("Category still has subcategories or products: " + id);
+                }
+            }
+            case REASSIGN -> {
+                validateFallbackId(fallbackCategoryId, "category");
+                if (new HashSet<>(categoryIds).contains(fallbackCategoryId) || !categoryRepository.existsById(fallbackCategoryId)) {
+                    throw new IllegalArgumentException("Fallback category must exist outside of the deleted subtree: " + fallbackCategoryId);
+                }
+                final var productIds = catalogEventPublisher.publishAll(CatalogEvent.Aggregate.PRODUCT, (firstOffset, occurredAt) ->
+                        catalogEventRepository.insertProductEventsInCategorySubtree(CatalogEvent.Type.UPDATED, id, firstOffset, occurredAt));
+                productRepository.reassignCategorySubtree(id, fallbackCategoryId);
+                productSearchService.reassignProducts(productIds, fallbackCategoryId, null);
+            }
+            case CASCADE -> {
+                final var productIds = catalogEventPublisher.publishAll(CatalogEvent.Aggregate.PRODUCT, (firstOffset, occurredAt) ->
+                        catalogEventRepository.insertProductEventsInCategorySubtree(CatalogEvent.Type.DELETED, id, firstOffset, occurredAt));
+                productRepository.deleteAllInCategorySubtree(id);
+                productSearchService.removeProducts(productIds);
+            }
+        }
+
+        catalogEventPublisher.publishAll(CatalogEvent.Aggregate.CATEGORY, (firstOffset, occurredAt) ->
+                catalogEventRepository.insertCategoryEventsOfSubtree(CatalogEvent.Type.DELETED, id, firstOffset, occurredAt));
+        categoryRepository.detachSubtree(id);
+        categoryRepository.deleteSubtree(id);
+        categoryClosureRepository.deleteAllPathsOfSubtree(id);
+        categoryService.removeFromCategoryTree(categoryIds);
+    }
+
+    public void deleteBrand(Long id, Mode mode, Long fallbackBrandId) {
+        if (!brandRepository.existsById(id)) {
+            throw new NoSuchElementException("Brand does not exist: " + id);
+        }
+
+        switch (mode) {
+            case REJECT -> {
+                if (productRepository.existsByBrandId(id)) {
+                    throw new IllegalStateException("Brand still has products: " + id);
+                }
+            }
+            case REASSIGN -> {
+                validateFallbackId(fallbackBrandId, "brand");
+                if (fallbackBrandId.equals(id) || !brandRepository.existsById(fallbackBrandId)) {
+                    throw new IllegalArgumentException("Fallback brand must be another existing brand: " + fallbackBrandId);
+                }
+                final var productIds = catalogEventPublisher.publishAll(CatalogEvent.Aggregate.PRODUCT, (firstOffset, occurredAt) ->
+                        catalogEventRepository.insertProductEventsOfBrand(CatalogEvent.Type.UPDATED, id, firstOffset, occurredAt));
+                productRepository.reassignBrand(id, fallbackBrandId);
+                productSearchService.reassignProducts(productIds, null, fallbackBrandId);
+            }
+            case CASCADE -> {
+                final var productIds = catalogEventPublisher.publishAll(CatalogEvent.Aggregate.PRODUCT, (firstOffset, occurredAt) ->
+                        catalogEventRepository.insertProductEventsOfBrand(CatalogEvent.Type.DELETED, id, firstOffset, occurredAt));
+                productRepository.deleteAllByBrand(id);
+                productSearchService.removeProducts(productIds);
+            }
+        }
+
+        brandRepository.deleteAllByIdInBatch(List.of(id));
+        catalogEventPublisher.publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.BRAND, id, null);
+    }
+
+    /**
+     * Deletes the existing categories among {@code ids} and skips the missing ones. Like {@link Mode#REJECT}, nothing
+     * is deleted when any of them still has products or subcategories outside of {@code ids}.
+     */
+    public void deleteAllCategoriesById(Collection<Long> ids) {
+        final var categoryIds = categoryRepository.findExistingIds(ids);
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        if (categoryClosureRepository.existsDescendantOutside(categoryIds) || productRepository.existsByCategoryIdIn(categoryIds)) {
+            throw new IllegalStateException("Categories still have subcategories or products: " + categoryIds);
+        }
+
+        catalogEventPublisher.publishAll(CatalogEvent.Aggregate.CATEGORY, (firstOffset, occurredAt) ->
+                catalogEventRepository.insertCategoryEvents(CatalogEvent.Type.DELETED, categoryIds, firstOffset, occurredAt));
+        categoryRepository.detachAll(categoryIds);
+        categoryRepository.deleteAllByIdInBatch(categoryIds);
+        categoryClosureRepository.deleteAllPathsOfAll(categoryIds);
+        categoryService.removeFromCategoryTree(categoryIds);
+    }
+
+    /**
+     * Deletes the existing brands among {@code ids} and skips the missing ones. Like {@link Mode#REJECT}, nothing is
+     * deleted when any of them still has products.
+     */
+    public void deleteAllBrandsById(Collection<Long> ids) {
+        final var brandIds = brandRepository.findExistingIds(ids);
+        if (brandIds.isEmpty()) {
+            return;
+        }
+        if (productRepository.existsByBrandIdIn(brandIds)) {
+            throw new IllegalStateException("Brands still have products: " + brandIds);
+        }
+
+        catalogEventPublisher.publishAll(CatalogEvent.Aggregate.BRAND, (firstOffset, occurredAt) ->
+                catalogEventRepository.insertBrandEvents(CatalogEvent.Type.DELETED, brandIds, firstOffset, occurredAt));
+        brandRepository.deleteAllByIdInBatch(brandIds);
+    }
+
+    private static void validateFallbackId(Long fallbackId, String entityName) {
+        if (fallbackId == null) {
+            throw new IllegalArgumentException("Fallback " + entityName + " is required to reassign products");
+        }
+    }
+
+    public enum Mode {
+        REJECT,
+        REASSIGN,
+        CASCADE
+    }
+
+}
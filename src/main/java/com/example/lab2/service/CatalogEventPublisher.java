@@ -0,0 +1,165 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.model.CatalogEventSequence;
+import com.example.lab2.repository.CatalogEventRepository;
+import com.example.lab2.repository.CatalogEventSequenceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transactional outbox of catalog changes. Events published during a transaction are buffered and written to the
+ * {@link CatalogEvent} table right before it commits, with consecutive offsets reserved by incrementing the
+ * {@link CatalogEventSequence} row. The row stays locked until the commit, and a rolled back transaction leaves no
+ * events behind. The ids of the changed entities are also broadcast on the {@link CacheInvalidationBus}, to be
+ * delivered to the other nodes with the commit. Set-based changes write their events with a single
+ * {@code insert ... select} through {@link #publishAll}, which locks the sequence row right away instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEventPublisher {
+
+    private final CatalogEventSequenceRepository catalogEventSequenceRepository;
+    private final CatalogEventRepository catalogEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void initializeSequence() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!catalogEventSequenceRepository.existsById(CatalogEventSequence.ID)) {
+                catalogEventSequenceRepository.saveAndFlush(new CatalogEventSequence(CatalogEventSequence.ID, 0));
+            }
+        });
+    }
+
+    public void publish(CatalogEvent.Type type, CatalogEvent.Aggregate aggregate, Long aggregateId, Object payload) {
+        getPendingEvents().add(new PendingEvent(type, aggregate, aggregateId, payload == null ? null : toJson(payload), Instant.now()));
+    }
+
+    /**
+     * Writes the events of a set-based change right away and returns the ids of their aggregates. The events carry no
+     * payload and come before the events buffered by the transaction.
+     */
+    public List<Long> publishAll(CatalogEvent.Aggregate aggregate, EventInsert eventInsert) {
+        getPendingEvents();
+        final var firstOffset = lockLastOffset() + 1;
+        final var count = eventInsert.insert(firstOffset, Instant.now());
+        if (count == 0) {
+            return List.of();
+        }
+        catalogEventSequenceRepository.incrementLastOffset(CatalogEventSequence.ID, count);
+        final var aggregateIds = catalogEventRepository.findAggregateIdsInOffsetRange(firstOffset, firstOffset + count - 1);
+        cacheInvalidationBus.broadcast(aggregate, aggregateIds);
+        return aggregateIds;
+    }
+
+    private List<PendingEvent> getPendingEvents() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Catalog events can only be published inside a transaction");
+        }
+        @SuppressWarnings("unchecked")
+        final var pendingEvents = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pendingEvents != null) {
+            return pendingEvents;
+        }
+
+        final var newPendingEvents = new ArrayList<PendingEvent>();
+        TransactionSynchronizationManager.bindResource(this, newPendingEvents);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(CatalogEventPublisher.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(CatalogEventPublisher.this, newPendingEvents);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writeEvents(newPendingEvents);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogEventPublisher.this);
+            }
+        });
+        return newPendingEvents;
+    }
+
+    private void writeEvents(List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (catalogEventSequenceRepository.incrementLastOffset(CatalogEventSequence.ID, events.size()) == 0) {
+            catalogEventSequenceRepository.saveAndFlush(new CatalogEventSequence(CatalogEventSequence.ID, events.size()));
+        }
+        var offset = catalogEventSequenceRepository.findLastOffsetById(CatalogEventSequence.ID).orElseThrow() - events.size();
+        for (final var event : events) {
+            entityManager.persist(CatalogEvent.builder()
+                    .offset(++offset)
+                    .type(event.type())
+                    .aggregate(event.aggregate())
+                    .aggregateId(event.aggregateId())
+                    .payload(event.payload())
+                    .occurredAt(event.occurredAt())
+                    .build());
+        }
+        entityManager.flush();
+        broadcastInvalidations(events);
+    }
+
+    private long lockLastOffset() {
+        if (catalogEventSequenceRepository.incrementLastOffset(CatalogEventSequence.ID, 0) == 0) {
+            catalogEventSequenceRepository.saveAndFlush(new CatalogEventSequence(CatalogEventSequence.ID, 0));
+        }
+        return catalogEventSequenceRepository.findLastOffsetById(CatalogEventSequence.ID).orElseThrow();
+    }
+
+    private void broadcastInvalidations(List<PendingEvent> events) {
+        final var ids = new EnumMap<CatalogEvent.Aggregate, Set<Long>>(CatalogEvent.Aggregate.class);
+        events.forEach(event -> ids.computeIfAbsent(event.aggregate(), aggregate -> new LinkedHashSet<>()).add(event.aggregateId()));
+        ids.forEach(cacheInvalidationBus::broadcast);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Catalog event payload cannot be serialized: " + payload, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EventInsert {
+
+        int insert(long firstOffset, Instant occurredAt);
+
+    }
+
+    private record PendingEvent(CatalogEvent.Type type, CatalogEvent.Aggregate aggregate, Long aggregateId, String payload,
+                                Instant occurredAt) {
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CatalogEventDto;
+import com.example.lab2.model.CatalogEventSequence;
+import com.example.lab2.repository.CatalogEventRepository;
+import com.example.lab2.repository.CatalogEventSequenceRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+@Service
+@Timed("lab2.service")
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CatalogEventService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final CatalogEventRepository catalogEventRepository;
+    private final CatalogEventSequenceRepository catalogEventSequenceRepository;
+
+    public long getLastOffset() {
+        return catalogEventSequenceRepository.findLastOffsetById(CatalogEventSequence.ID).orElse(0L);
+    }
+
+    public List<CatalogEventDto> getEvents(long afterOffset, int batchSize) {
+        validateBatchSize(batchSize);
+        return catalogEventRepository.findAfter(afterOffset, PageRequest.ofSize(batchSize));
+    }
+
+    /**
+     * Hands events after the given offset to the consumer one batch at a time. The next batch is only read once the
+     * consumer has returned, so a slow consumer is never sent more than one batch ahead. Stops when the consumer
+     * returns {@code false} or every committed event has been consumed, and returns the offset to resume from.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long consumeEvents(long afterOffset, int batchSize, Predicate<List<CatalogEventDto>> consumer) {
+        validateBatchSize(batchSize);
+        var offset = afterOffset;
+        while (true) {
+            final var events = catalogEventRepository.findAfter(offset, PageRequest.ofSize(batchSize));
+            if (events.isEmpty()) {
+                return offset;
+            }
+            final var proceed = consumer.test(events);
+            offset = events.get(events.size() - 1).offset();
+            if (!proceed || events.size() < batchSize) {
+                return offset;
+            }
+        }
+    }
+
+    @Transactional
+    public int deleteEventsUpTo(long offset) {
+        return catalogEventRepository.deleteUpTo(offset);
+    }
+
+    private static void validateBatchSize(int batchSize) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE + ": " + batchSize);
+        }
+    }
+
+}
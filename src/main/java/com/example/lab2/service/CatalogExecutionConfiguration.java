@@ -0,0 +1,70 @@
+package com.example.lab2.service;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves HTTP requests on virtual threads in the {@code VIRTUAL} execution mode, so the blocking JDBC calls of the
+ * catalog services and their batch variants no longer tie up Tomcat's platform worker pool. The application's
+ * {@code dataSource} is wrapped so that request threads take one of the {@link DatabasePermits} shared with the
+ * {@link CatalogExecutor} for as long as they hold a connection. The request executor is closed on shutdown.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "lab2.execution.mode", havingValue = "VIRTUAL", matchIfMissing = true)
+public class CatalogExecutionConfiguration {
+
+    static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    public VirtualThreadProtocolHandlerCustomizer virtualThreadProtocolHandlerCustomizer() {
+        return new VirtualThreadProtocolHandlerCustomizer();
+    }
+
+    @Bean
+    public static BeanPostProcessor databasePermitDataSourcePostProcessor(ObjectProvider<DatabasePermits> databasePermits) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && DATA_SOURCE_BEAN_NAME.equals(beanName)
+                        ? new DatabasePermitDataSource(dataSource, databasePermits.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Owns the request executor rather than exposing it as a bean, which would replace the auto-configured
+     * application task executor.
+     */
+    public static final class VirtualThreadProtocolHandlerCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+        private final ExecutorService executorService =
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory());
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executorService);
+        }
+
+        @Override
+        public void destroy() {
+            executorService.close();
+        }
+
+        boolean isShutdown() {
+            return executorService.isShutdown();
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.example.lab2.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lab2.execution")
+public record CatalogExecutionProperties(
+        @DefaultValue("VIRTUAL") Mode mode,
+        @DefaultValue("64") int platformThreads,
+        @DefaultValue("10") int databaseConcurrency) {
+
+    public enum Mode {
+        VIRTUAL,
+        PLATFORM
+    }
+
+}
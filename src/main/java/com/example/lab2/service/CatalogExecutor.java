@@ -0,0 +1,76 @@
+package com.example.lab2.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking catalog work either on virtual threads or on a fixed platform-thread pool. Every task holds one of
+ * the shared {@link DatabasePermits} while it runs, so thousands of virtual threads queue on the semaphore instead
+ * of timing out while waiting for a pooled connection. Tasks must not submit and wait for other tasks.
+ */
+@Component
+public class CatalogExecutor implements DisposableBean {
+
+    private final ExecutorService executorService;
+    private final DatabasePermits databasePermits;
+
+    public CatalogExecutor(CatalogExecutionProperties properties) {
+        this(properties, new DatabasePermits(properties));
+    }
+
+    @Autowired
+    public CatalogExecutor(CatalogExecutionProperties properties, DatabasePermits databasePermits) {
+        this.executorService = switch (properties.mode()) {
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("catalog-virtual-", 0).factory());
+            case PLATFORM -> Executors.newFixedThreadPool(properties.platformThreads(), Thread.ofPlatform().name("catalog-platform-", 0).factory());
+        };
+        this.databasePermits = databasePermits;
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            databasePermits.acquire();
+            try {
+                return task.get();
+            } finally {
+                databasePermits.release();
+            }
+        }, executorService);
+    }
+
+    public <T, R> List<R> mapAll(Collection<T> items, Function<T, R> task) {
+        final var results = items.stream()
+                .map(item -> supplyAsync(() -> task.apply(item)))
+                .toList();
+        return results.stream()
+                .map(CatalogExecutor::join)
+                .toList();
+    }
+
+    @Override
+    public void destroy() {
+        executorService.close();
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.example.lab2.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reads the change feed upper bound from the database clock rather than the clock of whichever node serves the sync.
+ * On PostgreSQL the bound is also held below the start of the oldest open transaction, since bulk updates stamp rows
+ * with their transaction start time and may still commit them. On other databases the settle window has to cover the
+ * longest transaction. Sessions of other roles are only visible with {@code pg_read_all_stats}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogSyncClock {
+
+    private static final String OLDEST_TRANSACTION_START = """
+            select cast(extract(epoch from min(xact_start)) * 1000000 as bigint)
+            from pg_stat_activity
+            where datname = current_database() and pid <> pg_backend_pid()""";
+
+    private final EntityManager entityManager;
+
+    public Instant getUpperBound(Duration settleWindow) {
+        final var upTo = entityManager.createQuery("select instant", Instant.class)
+                .getSingleResult()
+                .minus(settleWindow);
+        if (!isPostgres()) {
+            return upTo;
+        }
+
+        final var oldestStart = (Number) entityManager.createNativeQuery(OLDEST_TRANSACTION_START).getSingleResult();
+        if (oldestStart == null) {
+            return upTo;
+        }
+        final var bound = Instant.EPOCH.plus(oldestStart.longValue() - 1, ChronoUnit.MICROS);
+        return bound.isBefore(upTo) ? bound : upTo;
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.example.lab2.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param settleWindow how far behind the database clock the change feed stops; it has to cover the clock skew of the
+ *                     nodes stamping rows and, on databases other than PostgreSQL, the longest write transaction
+ * @param maxLimit     the largest page a sync may request
+ */
+@ConfigurationProperties("lab2.sync")
+public record CatalogSyncProperties(
+        @DefaultValue("PT2S") Duration settleWindow,
+        @DefaultValue("1000") int maxLimit) {
+
+}
@@ -1,59 +1,252 @@
 package com.example.lab2.service;
 
 import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.CategoryPatchDto;
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.model.CatalogEvent;
 import com.example.lab2.model.Category;
+import com.example.lab2.repository.CategoryClosureRepository;
 import com.example.lab2.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("lab2.service")
 @Transactional
 @RequiredArgsConstructor
 public class CategoryService {
 
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
     private final Validator validator;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogChangeTracker catalogChangeTracker;
+    private final ObjectProvider<CatalogDeletionService> catalogDeletionService;
+    private final AtomicReference<CategoryTreeSnapshot> categoryTree = new AtomicReference<>();
+    private final AtomicLong categoryTreeChanges = new AtomicLong();
 
+    @Transactional(readOnly = true)
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(this::mapCategoryToCategoryDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public CategoryDto getCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .map(this::mapCategoryToCategoryDto)
                 .orElseThrow();
     }
 
+    @Transactional(readOnly = true)
+    public long getCategoryVersion(Long id) {
+        return categoryRepository.findById(id)
+                .map(Category::getVersion)
+                .orElseThrow();
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getDescendants(Long id) {
+        return categoryRepository.findDescendants(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getAncestors(Long id) {
+        return categoryRepository.findAncestors(id);
+    }
+
+    @Transactional(readOnly = true)
+    public ChangesDto<CategoryDto> getChangedSince(Instant watermark, Long watermarkId, int limit) {
+        return catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.CATEGORY, watermark, watermarkId, limit,
+                categoryRepository::findChangedAfter, ids -> categoryRepository.findAllById(ids).stream()
+                        .map(this::mapCategoryToCategoryDto)
+                        .toList(), CategoryDto::id);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CategoryTreeSnapshot getCategoryTree() {
+        final var snapshot = categoryTree.get();
+        return snapshot != null ? snapshot : loadCategoryTree();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean isInSubtree(Long id, Long ancestorId) {
+        return getCategoryTree().isInSubtree(id, ancestorId);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Long> getAncestorPath(Long id) {
+        return Arrays.stream(getCategoryTree().getAncestorPath(id))
+                .boxed()
+                .toList();
+    }
+
     public void createCategory(CategoryDto categoryDto) {
         validateCategoryDto(categoryDto);
-        validateCategoryNameIsNotTaken(categoryDto.name());
         final var category = Category.builder()
                 .name(categoryDto.name())
                 .parentCategory(getParentCategoryById(categoryDto.parentCategoryId()))
                 .build();
-        categoryRepository.save(category);
+        saveCategoryWithUniqueName(category, CatalogEvent.Type.CREATED);
+        categoryClosureRepository.insertSelfPath(category.getId());
+        if (categoryDto.parentCategoryId() != null) {
+            categoryClosureRepository.insertAncestorPaths(category.getId(), categoryDto.parentCategoryId());
+        }
+        publishCategoryTreeChange(category.getId(), categoryDto.parentCategoryId());
     }
 
     public void updateCategory(Long id, CategoryDto categoryDto) {
         validateCategoryDto(categoryDto);
         final var category = categoryRepository.findById(id).orElseThrow();
-        category.setName(categoryDto.name());
-        category.setParentCategory(getParentCategoryById(categoryDto.parentCategoryId()));
-        categoryRepository.save(category);
+        EntityLookups.validateVersion(category, EntityLookups.requireVersion(categoryDto.version(), "Category"), "Category");
+        saveCategory(category, categoryDto.name(), categoryDto.parentCategoryId());
+    }
+
+    @RetryOnConflict
+    public void patchCategory(Long id, CategoryPatchDto categoryPatchDto) {
+        validateCategoryPatchDto(categoryPatchDto);
+        final var category = categoryRepository.findById(id).orElseThrow();
+        EntityLookups.validateVersion(category, categoryPatchDto.version(), "Category");
+        final var parentCategoryId = Boolean.TRUE.equals(categoryPatchDto.moveToRoot()) ? null
+                : categoryPatchDto.parentCategoryId() == null ? getParentCategoryId(category) : categoryPatchDto.parentCategoryId();
+        saveCategory(category, categoryPatchDto.name() == null ? category.getName() : categoryPatchDto.name(), parentCategoryId);
     }
 
     public void deleteCategory(Long id) {
-        categoryRepository.deleteById(id);
+        catalogDeletionService.getObject().deleteCategory(id, CatalogDeletionService.Mode.REJECT, null);
+    }
+
+    public void createAllCategories(Collection<CategoryDto> categoryDtos) {
+        validateCategoryDtos(categoryDtos);
+        final var parentCategories = getParentCategoriesByIds(categoryDtos);
+        final var categories = categoryDtos.stream()
+                .map(categoryDto -> Category.builder()
+                        .name(categoryDto.name())
+                        .parentCategory(parentCategories.get(categoryDto.parentCategoryId()))
+                        .build())
+                .toList();
+        saveCategoriesWithUniqueNames(categories, CatalogEvent.Type.CREATED);
+        final var categoryIds = categories.stream()
+                .map(Category::getId)
+                .toList();
+        categoryClosureRepository.insertSelfPaths(categoryIds);
+        categoryClosureRepository.insertAncestorPathsOfAll(categoryIds);
+        publishCategoryTreeChange(change -> categories.forEach(category -> change.put(category.getId(), getParentCategoryId(category))));
+    }
+
+    public void updateAllCategories(Collection<CategoryDto> categoryDtos) {
+        validateCategoryDtos(categoryDtos);
+        final var categories = EntityLookups.findAllByIdOrThrow(categoryRepository, getCategoryIds(categoryDtos), Category::getId);
+        final var parentCategories = getParentCategoriesByIds(categoryDtos);
+        categoryDtos.forEach(categoryDto -> {
+            final var category = categories.get(categoryDto.id());
+            EntityLookups.validateVersion(category, EntityLookups.requireVersion(categoryDto.version(), "Category"), "Category");
+            final var parentCategoryChanged = !Objects.equals(getParentCategoryId(category), categoryDto.parentCategoryId());
+            category.setName(categoryDto.name());
+            if (parentCategoryChanged) {
+                validateCategoryIsNotMovedIntoItsSubtree(category.getId(), categoryDto.parentCategoryId());
+                category.setParentCategory(parentCategories.get(categoryDto.parentCategoryId()));
+                categoryClosureRepository.deleteSubtreeAncestorPaths(category.getId());
+                if (categoryDto.parentCategoryId() != null) {
+                    categoryClosureRepository.insertSubtreeAncestorPaths(category.getId(), categoryDto.parentCategoryId());
+                }
+                publishCategoryTreeChange(category.getId(), categoryDto.parentCategoryId());
+            }
+        });
+        saveCategoriesWithUniqueNames(List.copyOf(categories.values()), CatalogEvent.Type.UPDATED);
+    }
+
+    public void deleteAllCategoriesById(Collection<Long> ids) {
+        catalogDeletionService.getObject().deleteAllCategoriesById(ids);
+    }
+
+    public void rebuildCategoryHierarchy() {
+        categoryClosureRepository.deleteAllInBatch();
+        categoryClosureRepository.insertAllSelfPaths();
+        var depth = 0;
+        while (categoryClosureRepository.insertPathsBelowDepth(depth) > 0) {
+            depth++;
+        }
+        publishCategoryTreeChange(CategoryTreeChange::reset);
+    }
+
+    void removeFromCategoryTree(Collection<Long> ids) {
+        publishCategoryTreeChange(change -> change.remove(ids));
+    }
+
+    /**
+     * Replaces the snapshot after the tree changed on another node. Runs in its own read-write transaction so it reads
+     * from the primary, and keeps serving the old snapshot meanwhile: a reset snapshot would be reloaded on demand from
+     * the replica, and a tree loaded from a lagging replica would stay stale until the next change. Reloads again when
+     * a local change is published during the load, and leaves the snapshot to be loaded on demand if that keeps
+     * happening.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void reloadCategoryTree() {
+        for (var attempt = 0; attempt < MAX_RELOAD_ATTEMPTS; attempt++) {
+            final var changes = categoryTreeChanges.incrementAndGet();
+            categoryTree.set(CategoryTreeSnapshot.of(categoryRepository.findAllLinks()));
+            if (categoryTreeChanges.get() == changes) {
+                return;
+            }
+        }
+        resetCategoryTree();
+    }
+
+    void resetCategoryTree() {
+        categoryTreeChanges.incrementAndGet();
+        categoryTree.set(null);
+    }
+
+    private CategoryTreeSnapshot loadCategoryTree() {
+        final var changes = categoryTreeChanges.get();
+        final var snapshot = CategoryTreeSnapshot.of(categoryRepository.findAllLinks());
+        if (categoryTreeChanges.get() == changes) {
+            categoryTree.compareAndSet(null, snapshot);
+        }
+        return snapshot;
+    }
+
+    private void publishCategoryTreeChange(Long id, Long parentCategoryId) {
+        publishCategoryTreeChange(change -> change.put(id, parentCategoryId));
+    }
+
+    private void publishCategoryTreeChange(Consumer<CategoryTreeChange> change) {
+        TransactionCallbacks.afterCommitBatched(categoryTree, CategoryTreeChange::new, change, committedChange -> {
+            categoryTreeChanges.incrementAndGet();
+            categoryTree.updateAndGet(tree -> tree == null ? null : committedChange.applyTo(tree));
+        });
     }
 
     private void validateCategoryDto(CategoryDto categoryDto) {
+        if (DtoValidators.isValid(categoryDto)) {
+            return;
+        }
+
         final var violations = validator.validate(categoryDto);
 
         if (!violations.isEmpty()) {
@@ -61,18 +254,109 @@ public class CategoryService {
         }
     }
 
+    private void validateCategoryPatchDto(CategoryPatchDto categoryPatchDto) {
+        final var violations = validator.validate(categoryPatchDto);
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        if (Boolean.TRUE.equals(categoryPatchDto.moveToRoot()) && categoryPatchDto.parentCategoryId() != null) {
+            throw new IllegalArgumentException("Category cannot be moved to the root and under a parent at once: " + categoryPatchDto);
+        }
+    }
+
+    private void validateCategoryDtos(Collection<CategoryDto> categoryDtos) {
+        final var violations = categoryDtos.stream()
+                .filter(categoryDto -> !DtoValidators.isValid(categoryDto))
+                .flatMap(categoryDto -> validator.validate(categoryDto).stream())
+                .collect(Collectors.toSet());
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        EntityLookups.validateNamesAreDistinct(categoryDtos.stream()
+                .map(CategoryDto::name)
+                .toList(), "Category");
+    }
+
+    private List<Long> getCategoryIds(Collection<CategoryDto> categoryDtos) {
+        return categoryDtos.stream()
+                .map(categoryDto -> {
+                    if (categoryDto.id() == null) {
+                        throw new IllegalArgumentException("Category id is required: " + categoryDto);
+                    }
+                    return categoryDto.id();
+                })
+                .toList();
+    }
+
     private CategoryDto mapCategoryToCategoryDto(Category category) {
         final var parentCategory = category.getParentCategory();
         return CategoryDto.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .parentCategoryId(parentCategory == null ? null : parentCategory.getId())
+                .version(category.getVersion())
                 .build();
     }
 
-    private void validateCategoryNameIsNotTaken(String name) {
-        if (categoryRepository.existsByName(name)) {
-            throw new IllegalStateException("Category name is already taken: " + name);
+    private void publishCategoryEvent(Category category, CatalogEvent.Type eventType) {
+        catalogEventPublisher.publish(eventType, CatalogEvent.Aggregate.CATEGORY, category.getId(), mapCategoryToCategoryDto(category));
+    }
+
+    private void saveCategoryWithUniqueName(Category category, CatalogEvent.Type eventType) {
+        try {
+            categoryRepository.saveAndFlush(category);
+            publishCategoryEvent(category, eventType);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Category.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("Category name is already taken: " + category.getName(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void saveCategory(Category category, String name, Long parentCategoryId) {
+        final var id = category.getId();
+        final var parentCategoryChanged = !Objects.equals(getParentCategoryId(category), parentCategoryId);
+        if (parentCategoryChanged) {
+            validateCategoryIsNotMovedIntoItsSubtree(id, parentCategoryId);
+        }
+        category.setName(name);
+        category.setParentCategory(getParentCategoryById(parentCategoryId));
+        saveCategoryWithUniqueName(category, CatalogEvent.Type.UPDATED);
+        if (parentCategoryChanged) {
+            categoryClosureRepository.deleteSubtreeAncestorPaths(id);
+            if (parentCategoryId != null) {
+                categoryClosureRepository.insertSubtreeAncestorPaths(id, parentCategoryId);
+            }
+            publishCategoryTreeChange(id, parentCategoryId);
+        }
+    }
+
+    private void saveCategoriesWithUniqueNames(List<Category> categories, CatalogEvent.Type eventType) {
+        try {
+            categoryRepository.saveAllAndFlush(categories);
+            categories.forEach(category -> publishCategoryEvent(category, eventType));
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Category.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("One of category names is already taken: " + categories.stream()
+                        .map(Category::getName)
+                        .toList(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void validateCategoryIsNotMovedIntoItsSubtree(Long id, Long parentCategoryId) {
+        if (parentCategoryId == null) {
+            return;
+        }
+        categoryRepository.lockForMove(id, parentCategoryId);
+        if (categoryClosureRepository.existsByAncestorIdAndDescendantId(id, parentCategoryId)) {
+            throw new IllegalStateException("Category cannot be moved into its own subtree: " + id);
         }
     }
 
@@ -80,4 +364,50 @@ public class CategoryService {
         return id == null ? null : categoryRepository.findById(id).orElseThrow();
     }
 
+    private Map<Long, Category> getParentCategoriesByIds(Collection<CategoryDto> categoryDtos) {
+        return EntityLookups.findAllByIdOrThrow(categoryRepository, categoryDtos.stream()
+                .map(CategoryDto::parentCategoryId)
+                .filter(Objects::nonNull)
+                .toList(), Category::getId);
+    }
+
+    private static Long getParentCategoryId(Category category) {
+        final var parentCategory = category.getParentCategory();
+        return parentCategory == null ? null : parentCategory.getId();
+    }
+
+    /**
+     * Tree changes of one transaction, applied to the snapshot in a single rebuild after commit.
+     */
+    private static final class CategoryTreeChange {
+
+        private final Map<Long, Long> parentIdsById = new HashMap<>();
+        private final Set<Long> removedIds = new HashSet<>();
+        private boolean reset;
+
+        void put(Long id, Long parentCategoryId) {
+            removedIds.remove(id);
+            parentIdsById.put(id, parentCategoryId == null ? CategoryTreeSnapshot.NO_PARENT : parentCategoryId);
+        }
+
+        void remove(Collection<Long> ids) {
+            ids.forEach(parentIdsById::remove);
+            removedIds.addAll(ids);
+        }
+
+        void reset() {
+            reset = true;
+        }
+
+        CategoryTreeSnapshot applyTo(CategoryTreeSnapshot tree) {
+            if (reset) {
+                return null;
+            }
+            return tree.withChanges(parentIdsById, removedIds.stream()
+                    .mapToLong(Long::longValue)
+                    .toArray());
+        }
+
+    }
+
 }
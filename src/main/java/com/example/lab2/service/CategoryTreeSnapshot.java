@@ -0,0 +1,231 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CategoryLinkDto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Immutable, array-backed view of the category tree. Categories are addressed by their index in the sorted
+ * {@code ids} array and laid out in pre-order, so every subtree occupies a contiguous range of {@code preorder}.
+ * Changes produce a new snapshot and never touch the arrays of an existing one.
+ */
+public final class CategoryTreeSnapshot {
+
+    public static final long NO_PARENT = 0L;
+
+    private static final int NO_INDEX = -1;
+
+    private final long[] ids;
+    private final int[] parentIndexes;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] preorder;
+    private final int[] preorderPositions;
+    private final int[] subtreeSizes;
+    private final int[] depths;
+
+    private CategoryTreeSnapshot(long[] ids, long[] parentIds) {
+        final var size = ids.length;
+        this.ids = ids;
+        this.parentIndexes = new int[size];
+        this.childOffsets = new int[size + 1];
+        this.children = new int[size];
+        this.preorder = new int[size];
+        this.preorderPositions = new int[size];
+        this.subtreeSizes = new int[size];
+        this.depths = new int[size];
+
+        for (var index = 0; index < size; index++) {
+            final var parentIndex = parentIds[index] == NO_PARENT ? NO_INDEX : Arrays.binarySearch(ids, parentIds[index]);
+            parentIndexes[index] = parentIndex < 0 ? NO_INDEX : parentIndex;
+            if (parentIndexes[index] != NO_INDEX) {
+                childOffsets[parentIndexes[index] + 1]++;
+            }
+        }
+        for (var index = 0; index < size; index++) {
+            childOffsets[index + 1] += childOffsets[index];
+        }
+        final var nextChildSlots = Arrays.copyOf(childOffsets, size);
+        for (var index = 0; index < size; index++) {
+            if (parentIndexes[index] != NO_INDEX) {
+                children[nextChildSlots[parentIndexes[index]]++] = index;
+            }
+        }
+
+        layOutPreorder();
+    }
+
+    public static CategoryTreeSnapshot empty() {
+        return new CategoryTreeSnapshot(new long[0], new long[0]);
+    }
+
+    public static CategoryTreeSnapshot of(Collection<CategoryLinkDto> categoryLinks) {
+        final var sortedLinks = categoryLinks.stream()
+                .sorted((first, second) -> Long.compare(first.id(), second.id()))
+                .toList();
+        final var ids = new long[sortedLinks.size()];
+        final var parentIds = new long[sortedLinks.size()];
+        for (var index = 0; index < ids.length; index++) {
+            final var categoryLink = sortedLinks.get(index);
+            ids[index] = categoryLink.id();
+            parentIds[index] = categoryLink.parentCategoryId() == null ? NO_PARENT : categoryLink.parentCategoryId();
+        }
+        return new CategoryTreeSnapshot(ids, parentIds);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public long getParentId(long id) {
+        final var parentIndex = parentIndexes[indexOf(id)];
+        return parentIndex == NO_INDEX ? NO_PARENT : ids[parentIndex];
+    }
+
+    public int getDepth(long id) {
+        return depths[indexOf(id)];
+    }
+
+    public boolean isInSubtree(long id, long ancestorId) {
+        final var index = Arrays.binarySearch(ids, id);
+        final var ancestorIndex = Arrays.binarySearch(ids, ancestorId);
+        if (index < 0 || ancestorIndex < 0) {
+            return false;
+        }
+        final var position = preorderPositions[index];
+        final var ancestorPosition = preorderPositions[ancestorIndex];
+        return position >= ancestorPosition && position < ancestorPosition + subtreeSizes[ancestorIndex];
+    }
+
+    public long[] getAncestorPath(long id) {
+        var index = indexOf(id);
+        final var path = new long[depths[index]];
+        for (var pathIndex = path.length - 1; pathIndex >= 0; pathIndex--) {
+            index = parentIndexes[index];
+            path[pathIndex] = ids[index];
+        }
+        return path;
+    }
+
+    public long[] getSubtreeIds(long id) {
+        final var index = indexOf(id);
+        final var subtreeIds = new long[subtreeSizes[index]];
+        final var position = preorderPositions[index];
+        for (var offset = 0; offset < subtreeIds.length; offset++) {
+            subtreeIds[offset] = ids[preorder[position + offset]];
+        }
+        return subtreeIds;
+    }
+
+    public long[] getChildIds(long id) {
+        final var index = indexOf(id);
+        final var childIds = new long[childOffsets[index + 1] - childOffsets[index]];
+        for (var offset = 0; offset < childIds.length; offset++) {
+            childIds[offset] = ids[children[childOffsets[index] + offset]];
+        }
+        return childIds;
+    }
+
+    public CategoryTreeSnapshot withCategory(long id, long parentId) {
+        return withChanges(Map.of(id, parentId));
+    }
+
+    public CategoryTreeSnapshot withoutCategories(long... removedIds) {
+        return withChanges(Map.of(), removedIds);
+    }
+
+    /**
+     * Applies a batch of changes with a single copy of the arrays. Categories are added or moved to the given parents,
+     * then the removed ones are dropped and their children become roots.
+     */
+    public CategoryTreeSnapshot withChanges(Map<Long, Long> parentIdsById, long... removedIds) {
+        final var sortedRemovedIds = Arrays.copyOf(removedIds, removedIds.length);
+        Arrays.sort(sortedRemovedIds);
+        final var parentIds = parentIds();
+        final var addedIds = new long[parentIdsById.size()];
+        var addedCount = 0;
+        for (final var entry : parentIdsById.entrySet()) {
+            final var index = Arrays.binarySearch(ids, entry.getKey());
+            if (index >= 0) {
+                parentIds[index] = entry.getValue();
+            } else {
+                addedIds[addedCount++] = entry.getKey();
+            }
+        }
+        Arrays.sort(addedIds, 0, addedCount);
+
+        final var newIds = new long[ids.length + addedCount];
+        final var newParentIds = new long[ids.length + addedCount];
+        var size = 0;
+        var index = 0;
+        var addedIndex = 0;
+        while (index < ids.length || addedIndex < addedCount) {
+            final long id;
+            final long parentId;
+            if (addedIndex == addedCount || index < ids.length && ids[index] < addedIds[addedIndex]) {
+                id = ids[index];
+                parentId = parentIds[index++];
+            } else {
+                id = addedIds[addedIndex++];
+                parentId = parentIdsById.get(id);
+            }
+            if (Arrays.binarySearch(sortedRemovedIds, id) < 0) {
+                newIds[size] = id;
+                newParentIds[size] = Arrays.binarySearch(sortedRemovedIds, parentId) < 0 ? parentId : NO_PARENT;
+                size++;
+            }
+        }
+        return new CategoryTreeSnapshot(Arrays.copyOf(newIds, size), Arrays.copyOf(newParentIds, size));
+    }
+
+    private int indexOf(long id) {
+        final var index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            throw new IllegalArgumentException("Category is not part of the tree: " + id);
+        }
+        return index;
+    }
+
+    private long[] parentIds() {
+        final var parentIds = new long[ids.length];
+        for (var index = 0; index < ids.length; index++) {
+            parentIds[index] = parentIndexes[index] == NO_INDEX ? NO_PARENT : ids[parentIndexes[index]];
+        }
+        return parentIds;
+    }
+
+    private void layOutPreorder() {
+        final var stack = new int[ids.length];
+        var position = 0;
+        for (var root = 0; root < ids.length; root++) {
+            if (parentIndexes[root] != NO_INDEX) {
+                continue;
+            }
+            var stackSize = 0;
+            stack[stackSize++] = root;
+            while (stackSize > 0) {
+                final var index = stack[--stackSize];
+                preorder[position] = index;
+                preorderPositions[index] = position++;
+                depths[index] = parentIndexes[index] == NO_INDEX ? 0 : depths[parentIndexes[index]] + 1;
+                for (var child = childOffsets[index + 1] - 1; child >= childOffsets[index]; child--) {
+                    stack[stackSize++] = children[child];
+                }
+            }
+        }
+        for (var offset = position - 1; offset >= 0; offset--) {
+            final var index = preorder[offset];
+            subtreeSizes[index]++;
+            if (parentIndexes[index] != NO_INDEX) {
+                subtreeSizes[parentIndexes[index]] += subtreeSizes[index];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.lab2.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the number of threads working against the database at {@code databaseConcurrency}. Both {@link CatalogExecutor}
+ * tasks and request threads opening a connection take a permit, so thousands of virtual threads queue on one fair
+ * semaphore instead of timing out in the connection pool. Permits are held per thread and are reentrant: nested
+ * acquisitions on a thread that already holds one do not take another.
+ */
+@Component
+public class DatabasePermits {
+
+    private final Semaphore semaphore;
+    private final ThreadLocal<int[]> holdCount = ThreadLocal.withInitial(() -> new int[1]);
+
+    public DatabasePermits(CatalogExecutionProperties properties) {
+        this.semaphore = new Semaphore(properties.databaseConcurrency(), true);
+    }
+
+    public void acquire() {
+        final var held = holdCount.get();
+        if (held[0] == 0) {
+            semaphore.acquireUninterruptibly();
+        }
+        held[0]++;
+    }
+
+    public void release() {
+        final var held = holdCount.get();
+        if (--held[0] == 0) {
+            holdCount.remove();
+            semaphore.release();
+        }
+    }
+
+    public int availablePermits() {
+        return semaphore.availablePermits();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.model.Prices;
+
+import java.math.BigDecimal;
+
+/**
+ * Hand-written equivalents of the Bean Validation constraints declared on the catalog DTOs. They run without
+ * reflection or allocation, so services only ask the {@link jakarta.validation.Validator} for violations once a check
+ * fails. A passing check must imply that the validator reports no violations; a failing one may be a false alarm,
+ * because the validator has the final word.
+ */
+public final class DtoValidators {
+
+    static final int MAX_NAME_LENGTH = 255;
+    static final int MAX_DESCRIPTION_LENGTH = 2000;
+
+    private DtoValidators() {
+    }
+
+    public static boolean isValid(ProductDto productDto) {
+        return productDto != null
+                && isNotBlank(productDto.name(), MAX_NAME_LENGTH)
+                && isNotBlank(productDto.description(), MAX_DESCRIPTION_LENGTH)
+                && isValidPrice(productDto.price())
+                && productDto.quantity() != null && productDto.quantity() >= 0
+                && productDto.categoryId() != null && productDto.categoryId() > 0
+                && productDto.brandId() != null && productDto.brandId() > 0;
+    }
+
+    public static boolean isValid(BrandDto brandDto) {
+        return brandDto != null && isNotBlank(brandDto.name(), MAX_NAME_LENGTH);
+    }
+
+    public static boolean isValid(CategoryDto categoryDto) {
+        return categoryDto != null
+                && isNotBlank(categoryDto.name(), MAX_NAME_LENGTH)
+                && (categoryDto.parentCategoryId() == null || categoryDto.parentCategoryId() > 0);
+    }
+
+    private static boolean isValidPrice(BigDecimal price) {
+        return price != null && price.signum() > 0 && price.scale() <= Prices.SCALE
+                && price.precision() - price.scale() <= Prices.MAX_INTEGER_DIGITS;
+    }
+
+    private static boolean isNotBlank(String value, int maxLength) {
+        if (value == null || value.length() > maxLength) {
+            return false;
+        }
+        for (var i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
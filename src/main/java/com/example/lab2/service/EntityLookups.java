@@ -0,0 +1,52 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class EntityLookups {
+
+    private EntityLookups() {
+    }
+
+    static <T> Map<Long, T> findAllByIdOrThrow(JpaRepository<T, Long> repository, Collection<Long> ids, Function<T, Long> idGetter) {
+        final var distinctIds = new HashSet<>(ids);
+        final var entities = repository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+        if (entities.size() != distinctIds.size()) {
+            distinctIds.removeAll(entities.keySet());
+            throw new NoSuchElementException("Entities not found: " + distinctIds);
+        }
+        return entities;
+    }
+
+    static void validateNamesAreDistinct(Collection<String> names, String entityName) {
+        final var distinctNames = new HashSet<String>();
+        for (final var name : names) {
+            if (!distinctNames.add(name)) {
+                throw new IllegalStateException(entityName + " name is duplicated: " + name);
+            }
+        }
+    }
+
+    static long requireVersion(Long expectedVersion, String entityName) {
+        if (expectedVersion == null) {
+            throw new IllegalArgumentException(entityName + " version is required for a full update");
+        }
+        return expectedVersion;
+    }
+
+    static void validateVersion(CatalogEntity entity, Long expectedVersion, String entityName) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new IllegalStateException(entityName + " was modified concurrently, expected version " + expectedVersion
+                    + " but found " + entity.getVersion());
+        }
+    }
+
+}
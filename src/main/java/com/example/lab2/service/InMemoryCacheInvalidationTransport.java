@@ -0,0 +1,28 @@
+package com.example.lab2.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations to listeners in the same JVM after the sending transaction commits. Stands in for a real
+ * transport in single-node deployments and tests.
+ */
+public class InMemoryCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        TransactionCallbacks.afterCommit(() -> listeners.forEach(listener -> listener.onInvalidation(invalidation)));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void reportGap() {
+        listeners.forEach(Listener::onGap);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.lab2.service;
+
+import com.example.lab2.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+    private final InventoryWriteBuffer inventoryWriteBuffer;
+
+    public boolean reserve(Long productId, int quantity) {
+        validateQuantityIsPositive(quantity);
+        return adjustQuantity(productId, -quantity);
+    }
+
+    public boolean release(Long productId, int quantity) {
+        validateQuantityIsPositive(quantity);
+        return adjustQuantity(productId, quantity);
+    }
+
+    public boolean adjustQuantity(Long productId, int delta) {
+        if (inventoryWriteBuffer.isEnabled()) {
+            return inventoryWriteBuffer.adjustQuantity(productId, delta);
+        }
+        return productRepository.adjustQuantity(productId, delta) == 1;
+    }
+
+    private static void validateQuantityIsPositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+}
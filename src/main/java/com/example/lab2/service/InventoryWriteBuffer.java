@@ -0,0 +1,230 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductQuantityDto;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces quantity changes of hot products in memory and writes the net delta per product in transactions of at
+ * most {@value #FLUSH_BATCH_SIZE} products, either on a fixed delay or once enough changes are buffered. Every flush
+ * re-reads the stored quantity of each product it wrote, so restocks and changes made by other nodes are picked up.
+ * Products without changes since the previous flush are dropped from the buffer and loaded again on their next
+ * change. Decrements are accepted against the stock known at the last flush plus the changes buffered since, and may
+ * overshoot it by at most {@code oversellGuard} units.
+ */
+@Slf4j
+@Component
+public class InventoryWriteBuffer {
+
+    static final int FLUSH_BATCH_SIZE = 1_000;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryWriteBufferProperties properties;
+    private final ConcurrentMap<Long, PendingStock> pendingStocks = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public InventoryWriteBuffer(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                InventoryWriteBufferProperties properties) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public boolean adjustQuantity(Long productId, int delta) {
+        PendingStock.Adjustment adjustment;
+        do {
+            final var pendingStock = getPendingStock(productId);
+            if (pendingStock == null) {
+                return false;
+            }
+            adjustment = pendingStock.tryAdjust(delta, properties.oversellGuard());
+            if (adjustment == PendingStock.Adjustment.RETIRED) {
+                pendingStocks.remove(productId, pendingStock);
+            }
+        } while (adjustment == PendingStock.Adjustment.RETIRED);
+        if (adjustment == PendingStock.Adjustment.REJECTED) {
+            return false;
+        }
+        if (pendingChanges.incrementAndGet() >= properties.flushThreshold() && flushLock.tryLock()) {
+            try {
+                flushUnderLock();
+            } catch (RuntimeException e) {
+                log.warn("Inventory flush failed, buffered changes are kept for the next flush", e);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${lab2.inventory.write-buffer.flush-interval:PT0.1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushUnderLock();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private PendingStock getPendingStock(Long productId) {
+        final var pendingStock = pendingStocks.get(productId);
+        if (pendingStock != null) {
+            return pendingStock;
+        }
+        return productRepository.findQuantityById(productId)
+                .map(quantity -> pendingStocks.computeIfAbsent(productId, id -> new PendingStock(quantity)))
+                .orElse(null);
+    }
+
+    private void flushUnderLock() {
+        pendingChanges.set(0);
+        final var flushedDeltas = new ArrayList<FlushedDelta>();
+        pendingStocks.forEach((productId, pendingStock) -> {
+            final var delta = pendingStock.takeDelta();
+            if (delta != 0) {
+                flushedDeltas.add(new FlushedDelta(productId, pendingStock, delta));
+            } else if (pendingStock.retire()) {
+                pendingStocks.remove(productId, pendingStock);
+            }
+        });
+
+        for (var from = 0; from < flushedDeltas.size(); from += FLUSH_BATCH_SIZE) {
+            final var batch = flushedDeltas.subList(from, Math.min(from + FLUSH_BATCH_SIZE, flushedDeltas.size()));
+            try {
+                final var quantities = transactionTemplate.execute(status -> {
+                    batch.forEach(flushedDelta -> writeDelta(flushedDelta.productId(), flushedDelta.delta()));
+                    return productRepository.findQuantitiesByIdIn(batch.stream()
+                            .map(FlushedDelta::productId)
+                            .toList());
+                });
+                resynchronize(batch, quantities);
+            } catch (RuntimeException e) {
+                flushedDeltas.subList(from, flushedDeltas.size())
+                        .forEach(flushedDelta -> flushedDelta.pendingStock().restoreDelta(flushedDelta.delta()));
+                throw e;
+            }
+        }
+    }
+
+    private void writeDelta(Long productId, Long delta) {
+        if (delta == 0 || productRepository.adjustQuantity(productId, Math.toIntExact(delta)) == 1) {
+            return;
+        }
+        if (delta < 0 && productRepository.clearQuantity(productId) == 1) {
+            log.warn("Buffered decrement of {} exceeded stock of product {}, quantity was cleared", -delta, productId);
+        }
+    }
+
+    private void resynchronize(List<FlushedDelta> flushedDeltas, List<ProductQuantityDto> quantities) {
+        final var storedQuantities = quantities.stream()
+                .collect(Collectors.toMap(ProductQuantityDto::id, ProductQuantityDto::quantity));
+        flushedDeltas.forEach(flushedDelta -> {
+            final var storedQuantity = storedQuantities.get(flushedDelta.productId());
+            if (storedQuantity == null) {
+                pendingStocks.remove(flushedDelta.productId(), flushedDelta.pendingStock());
+            } else {
+                flushedDelta.pendingStock().resynchronize(storedQuantity, flushedDelta.delta());
+            }
+        });
+    }
+
+    private record FlushedDelta(Long productId, PendingStock pendingStock, long delta) {
+
+    }
+
+    /**
+     * Buffered stock of one product. The pending delta is the distance of {@code available} from its value at the
+     * last flush, so an entry without pending changes can be retired atomically: once {@code available} holds
+     * {@link #RETIRED}, adjustments fail and the caller loads a fresh entry.
+     */
+    private static final class PendingStock {
+
+        private static final long RETIRED = Long.MIN_VALUE;
+
+        private final AtomicLong available;
+        private long flushedAvailable;
+        private long storedQuantity;
+
+        PendingStock(int quantity) {
+            this.available = new AtomicLong(quantity);
+            this.flushedAvailable = quantity;
+            this.storedQuantity = quantity;
+        }
+
+        long takeDelta() {
+            final var current = available.get();
+            final var delta = current - flushedAvailable;
+            flushedAvailable = current;
+            return delta;
+        }
+
+        void restoreDelta(long delta) {
+            flushedAvailable -= delta;
+        }
+
+        boolean retire() {
+            return available.compareAndSet(flushedAvailable, RETIRED);
+        }
+
+        /**
+         * Shifts {@code available} by the difference between the stored quantity and the one this buffer expected
+         * after writing {@code flushedDelta}, which keeps changes buffered concurrently with the flush.
+         */
+        void resynchronize(int quantity, long flushedDelta) {
+            final var drift = quantity - (storedQuantity + flushedDelta);
+            available.addAndGet(drift);
+            flushedAvailable += drift;
+            storedQuantity = quantity;
+        }
+
+        Adjustment tryAdjust(int change, int oversellGuard) {
+            long current;
+            do {
+                current = available.get();
+                if (current == RETIRED) {
+                    return Adjustment.RETIRED;
+                }
+                if (change < 0 && current + change < -oversellGuard) {
+                    return Adjustment.REJECTED;
+                }
+            } while (!available.compareAndSet(current, current + change));
+            return Adjustment.APPLIED;
+        }
+
+        enum Adjustment {
+            APPLIED,
+            REJECTED,
+            RETIRED
+        }
+
+    }
+
+}
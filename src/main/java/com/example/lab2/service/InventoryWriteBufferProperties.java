@@ -0,0 +1,15 @@
+package com.example.lab2.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("lab2.inventory.write-buffer")
+public record InventoryWriteBufferProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("PT0.1S") Duration flushInterval,
+        @DefaultValue("1000") int flushThreshold,
+        @DefaultValue("0") int oversellGuard) {
+
+}
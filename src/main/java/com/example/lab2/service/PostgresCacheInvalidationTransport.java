@@ -0,0 +1,128 @@
+package com.example.lab2.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sends invalidations with {@code NOTIFY}, which PostgreSQL delivers only when the sending transaction commits, and
+ * receives them on a dedicated connection that {@code LISTEN}s on a background thread. That connection is opened
+ * outside of the connection pool, so it does not take a permit sized to the pool away from the rest of the
+ * application. It is validated every {@code maxStaleness}; whenever it is lost or re-established, listeners are told
+ * about a gap, so a node that cannot hear other nodes drops its local caches at least that often.
+ */
+@Slf4j
+public class PostgresCacheInvalidationTransport implements CacheInvalidationTransport, AutoCloseable {
+
+    static final String CHANNEL = "lab2_cache_invalidation";
+    static final String APPLICATION_NAME = "lab2-cache-invalidation";
+
+    private final ListenerConnectionFactory listenerConnectionFactory;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Duration maxStaleness;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationTransport(ListenerConnectionFactory listenerConnectionFactory, EntityManager entityManager,
+                                              ObjectMapper objectMapper, Duration maxStaleness) {
+        this.listenerConnectionFactory = listenerConnectionFactory;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.maxStaleness = maxStaleness;
+        this.listenerThread = Thread.ofPlatform()
+                .name("cache-invalidation-listener")
+                .daemon()
+                .unstarted(this::listen);
+    }
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        entityManager.createNativeQuery("select pg_notify(:channel, :payload)")
+                .setParameter("channel", CHANNEL)
+                .setParameter("payload", toJson(invalidation))
+                .getSingleResult();
+    }
+
+    @Override
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (listenerThread.getState() == Thread.State.NEW) {
+            listenerThread.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (final var connection = listenerConnectionFactory.open()) {
+                try (final var statement = connection.createStatement()) {
+                    statement.execute("listen " + CHANNEL);
+                }
+                final var pgConnection = connection.unwrap(PGConnection.class);
+                listeners.forEach(Listener::onGap);
+                while (running) {
+                    final var notifications = pgConnection.getNotifications(Math.toIntExact(maxStaleness.toMillis()));
+                    if (notifications != null) {
+                        for (final var notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                    if (!connection.isValid(Math.toIntExact(Math.max(1, maxStaleness.toSeconds())))) {
+                        throw new SQLException("Cache invalidation connection is no longer valid");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener failed, local caches are dropped until it reconnects", e);
+                listeners.forEach(Listener::onGap);
+                try {
+                    Thread.sleep(maxStaleness);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            final var invalidation = objectMapper.readValue(payload, CacheInvalidation.class);
+            listeners.forEach(listener -> listener.onInvalidation(invalidation));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload, e);
+        }
+    }
+
+    private String toJson(CacheInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cache invalidation cannot be serialized: " + invalidation, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ListenerConnectionFactory {
+
+        Connection open() throws SQLException;
+
+    }
+
+}
@@ -0,0 +1,269 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductImportFailureDto;
+import com.example.lab2.dto.ProductImportReportDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.model.Category;
+import com.example.lab2.model.Prices;
+import com.example.lab2.model.Product;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final int COLUMN_COUNT = 6;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandRepository brandRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductSearchService productSearchService;
+    private final CatalogExecutor catalogExecutor;
+    private final CatalogEventPublisher catalogEventPublisher;
+
+    public ProductImportReportDto importProducts(Reader csv) {
+        return importProducts(csv, DEFAULT_CHUNK_SIZE);
+    }
+
+    public List<ProductImportReportDto> importAllProducts(Collection<Reader> csvFeeds) {
+        return catalogExecutor.mapAll(csvFeeds, this::importProducts);
+    }
+
+    public ProductImportReportDto importProducts(Reader csv, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        final var failures = new ArrayList<ProductImportFailureDto>();
+        var importedCount = 0L;
+
+        try (final var reader = new BufferedReader(csv)) {
+            var lineNumber = 1L;
+            reader.readLine();
+            var chunk = new ArrayList<CsvLine>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new CsvLine(lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    importedCount += importChunk(chunk, failures);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importedCount += importChunk(chunk, failures);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return ProductImportReportDto.builder()
+                .importedCount(importedCount)
+                .failures(failures)
+                .build();
+    }
+
+    /**
+     * Imports the rows of a chunk in one transaction. Names taken by earlier chunks are found by the existing-name
+     * lookup, and row failures are reported only once the transaction outcome is known.
+     */
+    private int importChunk(List<CsvLine> chunk, List<ProductImportFailureDto> failures) {
+        final var rows = chunk.parallelStream()
+                .map(this::parseAndValidate)
+                .toList();
+
+        final var acceptedRows = new ArrayList<ParsedRow>(rows.size());
+        final var chunkNames = new HashSet<String>();
+        for (final var row : rows) {
+            if (row.failureReason() != null) {
+                failures.add(row.toFailure());
+            } else if (!chunkNames.add(row.productDto().name())) {
+                failures.add(row.toFailure("Product name is duplicated in the feed: " + row.productDto().name()));
+            } else {
+                acceptedRows.add(row);
+            }
+        }
+
+        if (acceptedRows.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            final var result = transactionTemplate.execute(status -> saveRows(acceptedRows));
+            failures.addAll(result.failures());
+            return result.savedCount();
+        } catch (RuntimeException e) {
+            acceptedRows.forEach(row -> failures.add(row.toFailure("Chunk write failed: " + e.getMessage())));
+            return 0;
+        }
+    }
+
+    private ChunkResult saveRows(List<ParsedRow> rows) {
+        final var productDtos = rows.stream()
+                .map(ParsedRow::productDto)
+                .toList();
+        final var existingNames = productRepository.findExistingNames(productDtos.stream()
+                .map(ProductDto::name)
+                .collect(Collectors.toSet()));
+        final Map<Long, Category> categories = categoryRepository.findAllById(productDtos.stream()
+                        .map(ProductDto::categoryId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        final Map<Long, Brand> brands = brandRepository.findAllById(productDtos.stream()
+                        .map(ProductDto::brandId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Brand::getId, Function.identity()));
+
+        final var rowFailures = new ArrayList<ProductImportFailureDto>();
+        final var products = new ArrayList<Product>(rows.size());
+        for (final var row : rows) {
+            final var productDto = row.productDto();
+            final var category = categories.get(productDto.categoryId());
+            final var brand = brands.get(productDto.brandId());
+            if (existingNames.contains(productDto.name())) {
+                rowFailures.add(row.toFailure("Product name is already taken: " + productDto.name()));
+            } else if (category == null) {
+                rowFailures.add(row.toFailure("Category does not exist: " + productDto.categoryId()));
+            } else if (brand == null) {
+                rowFailures.add(row.toFailure("Brand does not exist: " + productDto.brandId()));
+            } else {
+                products.add(Product.builder()
+                        .name(productDto.name())
+                        .description(productDto.description())
+                        .priceInCents(Prices.toCents(productDto.price()))
+                        .quantity(productDto.quantity())
+                        .category(category)
+                        .brand(brand)
+                        .build());
+            }
+        }
+
+        productRepository.saveAll(products);
+        productRepository.flush();
+        final var savedProductDtos = products.stream()
+                .map(ProductService::mapProductToProductDto)
+                .toList();
+        productSearchService.indexProducts(savedProductDtos);
+        savedProductDtos.forEach(productDto -> catalogEventPublisher.publish(CatalogEvent.Type.CREATED, CatalogEvent.Aggregate.PRODUCT, productDto.id(), productDto));
+        return new ChunkResult(products.size(), rowFailures);
+    }
+
+    private ParsedRow parseAndValidate(CsvLine line) {
+        final var columns = parseCsvLine(line.content());
+        if (columns.size() != COLUMN_COUNT) {
+            return ParsedRow.failed(line.number(), "Expected " + COLUMN_COUNT + " columns but found " + columns.size());
+        }
+
+        final ProductDto productDto;
+        try {
+            productDto = ProductDto.builder()
+                    .name(columns.get(0))
+                    .description(columns.get(1))
+                    .price(new BigDecimal(columns.get(2)))
+                    .quantity(Integer.valueOf(columns.get(3)))
+                    .categoryId(Long.valueOf(columns.get(4)))
+                    .brandId(Long.valueOf(columns.get(5)))
+                    .build();
+        } catch (NumberFormatException e) {
+            return ParsedRow.failed(line.number(), "Invalid number: " + e.getMessage());
+        }
+
+        if (DtoValidators.isValid(productDto)) {
+            return new ParsedRow(line.number(), productDto, null);
+        }
+
+        final var violations = validator.validate(productDto);
+        if (!violations.isEmpty()) {
+            return ParsedRow.failed(line.number(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        return new ParsedRow(line.number(), productDto, null);
+    }
+
+    static List<String> parseCsvLine(String line) {
+        final var columns = new ArrayList<String>(COLUMN_COUNT);
+        final var column = new StringBuilder();
+        var quoted = false;
+        for (var i = 0; i < line.length(); i++) {
+            final var character = line.charAt(i);
+            if (quoted) {
+                if (character == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (character == '"') {
+                    quoted = false;
+                } else {
+                    column.append(character);
+                }
+            } else if (character == '"') {
+                quoted = true;
+            } else if (character == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(character);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private record CsvLine(long number, String content) {
+
+    }
+
+    private record ChunkResult(int savedCount, List<ProductImportFailureDto> failures) {
+
+    }
+
+    private record ParsedRow(long lineNumber, ProductDto productDto, String failureReason) {
+
+        static ParsedRow failed(long lineNumber, String failureReason) {
+            return new ParsedRow(lineNumber, null, failureReason);
+        }
+
+        ProductImportFailureDto toFailure() {
+            return toFailure(failureReason);
+        }
+
+        ProductImportFailureDto toFailure(String reason) {
+            return ProductImportFailureDto.builder()
+                    .lineNumber(lineNumber)
+                    .reason(reason)
+                    .build();
+        }
+
+    }
+
+}
@@ -0,0 +1,515 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.model.Prices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory inverted index over product names and descriptions. Every term maps to postings sorted by product id,
+ * so multi-term queries are answered by walking the shortest match in id order and probing the others. All query
+ * terms must match; the last one also matches as a prefix, expanded to the exact term and its
+ * {@value #MAX_PREFIX_EXPANSIONS} most frequent completions. Hits are ranked by TF-IDF with name terms weighted above
+ * description terms. Postings refer to the indexed products they list, so filters are checked without a lookup, and keep
+ * the highest frequency of every block of {@value #BLOCK_SIZE} entries, so once the top hits are known, blocks that
+ * cannot beat them are skipped. Reads share a lock and writes take it exclusively.
+ */
+public final class ProductSearchIndex {
+
+    static final int NAME_TERM_WEIGHT = 3;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    static final float PREFIX_MATCH_FACTOR = 0.5f;
+    static final int BLOCK_SIZE = 128;
+    private static final int BLOCK_SHIFT = Integer.numberOfTrailingZeros(BLOCK_SIZE);
+    private static final float SCORE_BOUND_TOLERANCE = 1.0001f;
+    private static final float[] FREQUENCY_FACTORS = new float[256];
+
+    static {
+        for (var frequency = 1; frequency < FREQUENCY_FACTORS.length; frequency++) {
+            FREQUENCY_FACTORS[frequency] = 1 + (float) Math.log(frequency);
+        }
+    }
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(ProductDto productDto) {
+        final var termFrequencies = new LinkedHashMap<String, Integer>();
+        tokenize(productDto.name()).forEach(term -> termFrequencies.merge(term, NAME_TERM_WEIGHT, Integer::sum));
+        tokenize(productDto.description()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        final var indexedProduct = new IndexedProduct(termFrequencies.keySet().toArray(String[]::new),
+                productDto.categoryId(), productDto.brandId(), Prices.toCents(productDto.price()));
+
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(productDto.id());
+            termFrequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, key -> new Postings())
+                    .add(productDto.id(), frequency, indexedProduct));
+            products.put(productDto.id(), indexedProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnderLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an indexed product to another category or brand, keeping the current one where {@code null} is given.
+     */
+    public void reassign(long id, Long categoryId, Long brandId) {
+        lock.writeLock().lock();
+        try {
+            final var product = products.get(id);
+            if (product == null) {
+                return;
+            }
+            final var reassignedProduct = new IndexedProduct(product.terms(),
+                    categoryId == null ? product.categoryId() : categoryId,
+                    brandId == null ? product.brandId() : brandId,
+                    product.priceInCents());
+            products.put(id, reassignedProduct);
+            for (final var term : product.terms()) {
+                terms.get(term).replace(id, reassignedProduct);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] search(String query, Filter filter, int limit) {
+        final var queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            final var matches = new TermMatch[queryTerms.size()];
+            for (var index = 0; index < matches.length; index++) {
+                matches[index] = match(queryTerms.get(index), index == matches.length - 1);
+                if (matches[index].isEmpty()) {
+                    return new long[0];
+                }
+            }
+            final var driver = Arrays.stream(matches)
+                    .min(Comparator.comparingInt(TermMatch::size))
+                    .orElseThrow();
+
+            final var productCount = products.size();
+            final var topHits = new PriorityQueue<Hit>(limit + 1, Hit.RANKING.reversed());
+            final var cursor = new MatchCursor(driver, productCount, maxScoreOfOthers(matches, driver, productCount));
+            while (cursor.next()) {
+                final var id = cursor.id();
+                final var score = score(matches, driver, id, cursor.score(), productCount);
+                // ids ascend, so a hit that does not beat the worst kept one on score cannot displace it
+                if (score == 0 || topHits.size() == limit && score <= topHits.peek().score()
+                        || !filter.accepts(cursor.product())) {
+                    continue;
+                }
+                topHits.add(new Hit(id, score));
+                if (topHits.size() > limit) {
+                    topHits.poll();
+                }
+                if (topHits.size() == limit) {
+                    cursor.raiseThreshold(topHits.peek().score());
+                }
+            }
+
+            return topHits.stream()
+                    .sorted(Hit.RANKING)
+                    .mapToLong(Hit::id)
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        final var tokens = new ArrayList<String>();
+        if (text == null) {
+            return tokens;
+        }
+        final var token = new StringBuilder();
+        for (var i = 0; i < text.length(); i++) {
+            final var character = text.charAt(i);
+            if (Character.isLetterOrDigit(character)) {
+                token.append(character);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString().toLowerCase(Locale.ROOT));
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    private TermMatch match(String term, boolean prefix) {
+        if (!prefix) {
+            final var postings = terms.get(term);
+            return postings == null ? TermMatch.EMPTY : new TermMatch(new Postings[]{postings}, new boolean[]{true});
+        }
+
+        final var exactPostings = terms.get(term);
+        final var completions = new PriorityQueue<Postings>(MAX_PREFIX_EXPANSIONS + 1, Comparator.comparingInt(postings -> postings.size));
+        for (final var entry : terms.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            completions.add(entry.getValue());
+            if (completions.size() > MAX_PREFIX_EXPANSIONS) {
+                completions.poll();
+            }
+        }
+        final var offset = exactPostings == null ? 0 : 1;
+        final var postings = new Postings[completions.size() + offset];
+        final var exact = new boolean[postings.length];
+        if (exactPostings != null) {
+            postings[0] = exactPostings;
+            exact[0] = true;
+        }
+        for (var index = offset; index < postings.length; index++) {
+            postings[index] = completions.poll();
+        }
+        return new TermMatch(postings, exact);
+    }
+
+    private float score(TermMatch[] matches, TermMatch driver, long id, float driverScore, int productCount) {
+        var score = 0f;
+        for (final var match : matches) {
+            final var termScore = match == driver ? driverScore : match.score(id, productCount);
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    private static float maxScoreOfOthers(TermMatch[] matches, TermMatch driver, int productCount) {
+        var maxScore = 0f;
+        for (final var match : matches) {
+            if (match != driver) {
+                maxScore += match.maxScore(productCount);
+            }
+        }
+        return maxScore;
+    }
+
+    private void removeUnderLock(long id) {
+        final var indexedProduct = products.remove(id);
+        if (indexedProduct == null) {
+            return;
+        }
+        for (final var term : indexedProduct.terms()) {
+            final var postings = terms.get(term);
+            postings.remove(id);
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    public record Filter(LongPredicate categoryFilter, Long brandId, Long minPriceInCents, Long maxPriceInCents) {
+
+        public static final Filter NONE = new Filter(null, null, null, null);
+
+        boolean accepts(IndexedProduct product) {
+            return (categoryFilter == null || categoryFilter.test(product.categoryId()))
+                    && (brandId == null || brandId == product.brandId())
+                    && (minPriceInCents == null || product.priceInCents() >= minPriceInCents)
+                    && (maxPriceInCents == null || product.priceInCents() <= maxPriceInCents);
+        }
+
+    }
+
+    private record IndexedProduct(String[] terms, long categoryId, long brandId, long priceInCents) {
+
+    }
+
+    private record Hit(long id, float score) {
+
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::id);
+
+    }
+
+    private record TermMatch(Postings[] postings, boolean[] exact) {
+
+        static final TermMatch EMPTY = new TermMatch(new Postings[0], new boolean[0]);
+
+        boolean isEmpty() {
+            return postings.length == 0;
+        }
+
+        int size() {
+            var size = 0;
+            for (final var postingsList : postings) {
+                size += postingsList.size;
+            }
+            return size;
+        }
+
+        float score(long id, int productCount) {
+            var score = 0f;
+            for (var index = 0; index < postings.length; index++) {
+                final var frequency = postings[index].frequencyOf(id);
+                if (frequency > 0) {
+                    score = Math.max(score, termScore(frequency, weight(index, productCount)));
+                }
+            }
+            return score;
+        }
+
+        float maxScore(int productCount) {
+            var maxScore = 0f;
+            for (var index = 0; index < postings.length; index++) {
+                maxScore = Math.max(maxScore, termScore(postings[index].maxFrequency(), weight(index, productCount)));
+            }
+            return maxScore;
+        }
+
+        float weight(int index, int productCount) {
+            final var inverseDocumentFrequency = (float) Math.log(1 + (double) productCount / postings[index].size);
+            return exact[index] ? inverseDocumentFrequency : inverseDocumentFrequency * PREFIX_MATCH_FACTOR;
+        }
+
+        static float termScore(int frequency, float weight) {
+            return (frequency < FREQUENCY_FACTORS.length ? FREQUENCY_FACTORS[frequency] : 1 + (float) Math.log(frequency)) * weight;
+        }
+
+    }
+
+    /**
+     * Merges the postings of a term match in ascending id order, visiting every product once with its best term score,
+     * so the driving match is scored without probing its own postings. Blocks whose best score plus the best scores of
+     * the other query terms stay below the threshold are skipped.
+     */
+    private static final class MatchCursor {
+
+        private final Postings[] postings;
+        private final float[] weights;
+        private final int[] offsets;
+        private final int[] heap;
+        private final float maxScoreOfOthers;
+        private int heapSize;
+        private float threshold;
+        private long id;
+        private IndexedProduct product;
+        private float score;
+
+        MatchCursor(TermMatch match, int productCount, float maxScoreOfOthers) {
+            this.maxScoreOfOthers = maxScoreOfOthers;
+            postings = match.postings();
+            weights = new float[postings.length];
+            offsets = new int[postings.length];
+            heap = new int[postings.length];
+            for (var index = 0; index < postings.length; index++) {
+                weights[index] = match.weight(index, productCount);
+                if (postings[index].size > 0) {
+                    heap[heapSize] = index;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        long id() {
+            return id;
+        }
+
+        IndexedProduct product() {
+            return product;
+        }
+
+        float score() {
+            return score;
+        }
+
+        void raiseThreshold(float threshold) {
+            this.threshold = threshold;
+        }
+
+        boolean next() {
+            while (heapSize > 0 && skipHeadBlock()) {
+                siftDown(0);
+            }
+            if (heapSize == 0) {
+                return false;
+            }
+            id = headId(0);
+            product = postings[heap[0]].products[offsets[heap[0]]];
+            score = 0;
+            while (heapSize > 0 && headId(0) == id) {
+                final var index = heap[0];
+                score = Math.max(score, TermMatch.termScore(postings[index].frequencies[offsets[index]], weights[index]));
+                if (++offsets[index] == postings[index].size) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(0);
+            }
+            return true;
+        }
+
+        private boolean skipHeadBlock() {
+            final var index = heap[0];
+            final var block = offsets[index] >> BLOCK_SHIFT;
+            final var bound = TermMatch.termScore(postings[index].blockMaxFrequencies[block], weights[index]) + maxScoreOfOthers;
+            if (bound * SCORE_BOUND_TOLERANCE >= threshold) {
+                return false;
+            }
+            offsets[index] = Math.min((block + 1) << BLOCK_SHIFT, postings[index].size);
+            if (offsets[index] == postings[index].size) {
+                heap[0] = heap[--heapSize];
+            }
+            return true;
+        }
+
+        private long headId(int position) {
+            final var index = heap[position];
+            return postings[index].ids[offsets[index]];
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                final var parent = (position - 1) / 2;
+                if (headId(parent) <= headId(position)) {
+                    return;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                final var left = 2 * position + 1;
+                if (left >= heapSize) {
+                    return;
+                }
+                final var child = left + 1 < heapSize && headId(left + 1) < headId(left) ? left + 1 : left;
+                if (headId(position) <= headId(child)) {
+                    return;
+                }
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        private void swap(int first, int second) {
+            final var index = heap[first];
+            heap[first] = heap[second];
+            heap[second] = index;
+        }
+
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private IndexedProduct[] products = new IndexedProduct[4];
+        private int[] blockMaxFrequencies = new int[1];
+        private int size;
+
+        void add(long id, int frequency, IndexedProduct product) {
+            var index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                products[index] = product;
+                refreshBlockMaxima(index, index);
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                products = Arrays.copyOf(products, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            System.arraycopy(products, index, products, index + 1, size - index);
+            ids[index] = id;
+            frequencies[index] = frequency;
+            products[index] = product;
+            size++;
+            if (index == size - 1 && (index & (BLOCK_SIZE - 1)) != 0) {
+                blockMaxFrequencies[index >> BLOCK_SHIFT] = Math.max(blockMaxFrequencies[index >> BLOCK_SHIFT], frequency);
+            } else {
+                refreshBlockMaxima(index, size - 1);
+            }
+        }
+
+        void remove(long id) {
+            final var index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+                System.arraycopy(products, index + 1, products, index, size - index - 1);
+                products[--size] = null;
+                refreshBlockMaxima(index, size - 1);
+            }
+        }
+
+        void replace(long id, IndexedProduct product) {
+            final var index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                products[index] = product;
+            }
+        }
+
+        int maxFrequency() {
+            var maxFrequency = 0;
+            for (var block = 0; block << BLOCK_SHIFT < size; block++) {
+                maxFrequency = Math.max(maxFrequency, blockMaxFrequencies[block]);
+            }
+            return maxFrequency;
+        }
+
+        int frequencyOf(long id) {
+            final var index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? frequencies[index] : 0;
+        }
+
+        private void refreshBlockMaxima(int fromIndex, int toIndex) {
+            final var blockCount = (size + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+            if (blockMaxFrequencies.length < blockCount) {
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, Math.max(blockCount, blockMaxFrequencies.length * 2));
+            }
+            for (var block = fromIndex >> BLOCK_SHIFT; block < blockCount && block <= toIndex >> BLOCK_SHIFT; block++) {
+                var maxFrequency = 0;
+                for (var offset = block << BLOCK_SHIFT; offset < Math.min(size, (block + 1) << BLOCK_SHIFT); offset++) {
+                    maxFrequency = Math.max(maxFrequency, frequencies[offset]);
+                }
+                blockMaxFrequencies[block] = maxFrequency;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.model.Prices;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final CategoryService categoryService;
+    private final Validator validator;
+    private final AtomicReference<ProductSearchIndex> searchIndex = new AtomicReference<>();
+    private final AtomicLong searchIndexChanges = new AtomicLong();
+
+    public List<ProductDto> searchProducts(ProductSearchDto productSearchDto) {
+        validateProductSearchDto(productSearchDto);
+        final var categoryTree = productSearchDto.categoryId() == null ? null : categoryService.getCategoryTree();
+        final var filter = new ProductSearchIndex.Filter(
+                categoryTree == null ? null : categoryId -> categoryTree.isInSubtree(categoryId, productSearchDto.categoryId()),
+                productSearchDto.brandId(),
+                productSearchDto.minPrice() == null ? null : Prices.toCents(productSearchDto.minPrice()),
+                productSearchDto.maxPrice() == null ? null : Prices.toCents(productSearchDto.maxPrice()));
+        final var ids = getSearchIndex().search(productSearchDto.query(), filter,
+                productSearchDto.limit() == null ? DEFAULT_LIMIT : productSearchDto.limit());
+        if (ids.length == 0) {
+            return List.of();
+        }
+
+        final var ranks = new HashMap<Long, Integer>();
+        for (var rank = 0; rank < ids.length; rank++) {
+            ranks.put(ids[rank], rank);
+        }
+        return productRepository.findAllDtosById(ranks.keySet()).stream()
+                .sorted(Comparator.comparing(productDto -> ranks.get(productDto.id())))
+                .toList();
+    }
+
+    public ProductSearchIndex getSearchIndex() {
+        final var index = searchIndex.get();
+        return index != null ? index : loadSearchIndex();
+    }
+
+    void indexProducts(Collection<ProductDto> productDtos) {
+        publishSearchIndexChange(index -> productDtos.forEach(index::put));
+    }
+
+    void removeProducts(Collection<Long> ids) {
+        publishSearchIndexChange(index -> ids.forEach(index::remove));
+    }
+
+    void reassignProducts(Collection<Long> ids, Long categoryId, Long brandId) {
+        publishSearchIndexChange(index -> ids.forEach(id -> index.reassign(id, categoryId, brandId)));
+    }
+
+    /**
+     * Re-indexes products changed on another node. Runs in its own read-write transaction so it reads from the
+     * primary: an entry re-indexed from a lagging replica would stay stale until the product changes again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void refreshProducts(Collection<Long> ids) {
+        searchIndexChanges.incrementAndGet();
+        final var index = searchIndex.get();
+        if (index == null) {
+            return;
+        }
+        final var removedIds = new HashSet<>(ids);
+        productRepository.findAllDtosById(ids).forEach(productDto -> {
+            index.put(productDto);
+            removedIds.remove(productDto.id());
+        });
+        removedIds.forEach(index::remove);
+    }
+
+    /**
+     * Replaces the index after invalidations may have been lost. Like {@link #refreshProducts}, runs in its own
+     * read-write transaction so it reads from the primary, and keeps serving the old index meanwhile. Reloads again
+     * when a local change is applied during the load, and leaves the index to be loaded on demand if that keeps
+     * happening.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void reloadSearchIndex() {
+        for (var attempt = 0; attempt < MAX_RELOAD_ATTEMPTS; attempt++) {
+            final var changes = searchIndexChanges.incrementAndGet();
+            final var index = new ProductSearchIndex();
+            try (final var products = productRepository.streamAll()) {
+                products.forEach(index::put);
+            }
+            searchIndex.set(index);
+            if (searchIndexChanges.get() == changes) {
+                return;
+            }
+        }
+        resetSearchIndex();
+    }
+
+    void resetSearchIndex() {
+        searchIndexChanges.incrementAndGet();
+        searchIndex.set(null);
+    }
+
+    private ProductSearchIndex loadSearchIndex() {
+        final var changes = searchIndexChanges.get();
+        final var index = new ProductSearchIndex();
+        try (final var products = productRepository.streamAll()) {
+            products.forEach(index::put);
+        }
+        if (searchIndexChanges.get() == changes && searchIndex.compareAndSet(null, index)) {
+            return index;
+        }
+        final var publishedIndex = searchIndex.get();
+        return publishedIndex != null ? publishedIndex : index;
+    }
+
+    private void publishSearchIndexChange(Consumer<ProductSearchIndex> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            searchIndexChanges.incrementAndGet();
+            final var index = searchIndex.get();
+            if (index != null) {
+                change.accept(index);
+            }
+        });
+    }
+
+    private void validateProductSearchDto(ProductSearchDto productSearchDto) {
+        final var violations = validator.validate(productSearchDto);
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        if (productSearchDto.minPrice() != null && productSearchDto.maxPrice() != null
+                && productSearchDto.minPrice().compareTo(productSearchDto.maxPrice()) > 0) {
+            throw new IllegalArgumentException("Minimum price is greater than maximum price: " + productSearchDto);
+        }
+    }
+
+}
@@ -1,21 +1,40 @@
 package com.example.lab2.service;
 
+import com.example.lab2.dto.ChangesDto;
+import com.example.lab2.dto.PriceStatisticsDto;
 import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductFacetsDto;
+import com.example.lab2.dto.ProductFilterDto;
+import com.example.lab2.dto.ProductPatchDto;
 import com.example.lab2.model.Brand;
+import com.example.lab2.model.CatalogEvent;
 import com.example.lab2.model.Category;
+import com.example.lab2.model.Prices;
 import com.example.lab2.model.Product;
 import com.example.lab2.repository.BrandRepository;
 import com.example.lab2.repository.CategoryRepository;
 import com.example.lab2.repository.ProductRepository;
+import com.example.lab2.repository.ProductSpecifications;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("lab2.service")
 @Transactional
 @RequiredArgsConstructor
 public class ProductService {
@@ -24,62 +43,205 @@ public class ProductService {
     private final Validator validator;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
+    private final ProductSearchService productSearchService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogChangeTracker catalogChangeTracker;
 
+    @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapProductToProductDto)
-                .toList();
+        return productRepository.findAllDtos();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsPage(Long afterId, int size) {
+        return productRepository.findPageAfter(afterId == null ? 0L : afterId, PageRequest.ofSize(size));
+    }
+
+    @Transactional(readOnly = true)
+    public <T> T streamAllProducts(Function<Stream<ProductDto>, T> action) {
+        try (final var products = productRepository.streamAll()) {
+            return action.apply(products);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ChangesDto<ProductDto> getChangedSince(Instant watermark, Long watermarkId, int limit) {
+        return catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.PRODUCT, watermark, watermarkId, limit,
+                productRepository::findChangedAfter, productRepository::findAllDtosById, ProductDto::id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDto> findProductsInSubtree(Long categoryId) {
+        return productRepository.findAllInCategorySubtree(categoryId);
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductDto> filterProducts(ProductFilterDto productFilterDto, Long afterId, int size) {
+        validateProductFilterDto(productFilterDto);
+        final var specification = ProductSpecifications.inCategorySubtree(productFilterDto.categoryId())
+                .and(ProductSpecifications.hasBrandIn(productFilterDto.brandIds()))
+                .and(getPriceAndStockSpecification(productFilterDto));
+        return productRepository.findDtosAfter(specification, afterId == null ? 0L : afterId, size);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductFacetsDto getProductFacets(ProductFilterDto productFilterDto) {
+        validateProductFilterDto(productFilterDto);
+        final var categorySpecification = ProductSpecifications.inCategorySubtree(productFilterDto.categoryId());
+        final var brandSpecification = ProductSpecifications.hasBrandIn(productFilterDto.brandIds());
+        final var priceAndStockSpecification = getPriceAndStockSpecification(productFilterDto);
+        return ProductFacetsDto.builder()
+                .totalCount(productRepository.count(priceAndStockSpecification.and(categorySpecification).and(brandSpecification)))
+                .categoryCounts(productRepository.countByCategory(priceAndStockSpecification.and(brandSpecification)))
+                .brandCounts(productRepository.countByBrand(priceAndStockSpecification.and(categorySpecification)))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
     public ProductDto getProductById(Long id) {
         return productRepository.findById(id)
-                .map(this::mapProductToProductDto)
+                .map(ProductService::mapProductToProductDto)
                 .orElseThrow();
     }
 
+    @Transactional(readOnly = true)
+    public List<PriceStatisticsDto> getPriceStatisticsByCategory() {
+        return productRepository.findPriceStatisticsByCategory();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriceStatisticsDto> getPriceStatisticsByBrand() {
+        return productRepository.findPriceStatisticsByBrand();
+    }
+
+    @Transactional(readOnly = true)
+    public long getProductVersion(Long id) {
+        return productRepository.findVersionById(id).orElseThrow();
+    }
+
     public void createProduct(ProductDto productDto) {
         validateProductDto(productDto);
-        validateProductNameIsNotTaken(productDto.name());
         final var product = Product.builder()
                 .name(productDto.name())
                 .description(productDto.description())
-                .price(productDto.price())
+                .priceInCents(Prices.toCents(productDto.price()))
                 .quantity(productDto.quantity())
                 .category(getCategoryById(productDto.categoryId()))
                 .brand(getBrandById(productDto.brandId()))
                 .build();
-        productRepository.save(product);
+        saveProductWithUniqueName(product, CatalogEvent.Type.CREATED);
     }
 
     public void updateProduct(Long id, ProductDto productDto) {
         validateProductDto(productDto);
         final var product = productRepository.findById(id).orElseThrow();
+        EntityLookups.validateVersion(product, EntityLookups.requireVersion(productDto.version(), "Product"), "Product");
         product.setName(productDto.name());
         product.setDescription(productDto.description());
-        product.setPrice(productDto.price());
+        product.setPriceInCents(Prices.toCents(productDto.price()));
         product.setQuantity(productDto.quantity());
         product.setCategory(getCategoryById(productDto.categoryId()));
         product.setBrand(getBrandById(productDto.brandId()));
-        productRepository.save(product);
+        saveProductWithUniqueName(product, CatalogEvent.Type.UPDATED);
+    }
+
+    @RetryOnConflict
+    public void patchProduct(Long id, ProductPatchDto productPatchDto) {
+        validateProductPatchDto(productPatchDto);
+        final var product = productRepository.findById(id).orElseThrow();
+        EntityLookups.validateVersion(product, productPatchDto.version(), "Product");
+        if (productPatchDto.name() != null) {
+            product.setName(productPatchDto.name());
+        }
+        if (productPatchDto.description() != null) {
+            product.setDescription(productPatchDto.description());
+        }
+        if (productPatchDto.price() != null) {
+            product.setPriceInCents(Prices.toCents(productPatchDto.price()));
+        }
+        if (productPatchDto.quantity() != null) {
+            product.setQuantity(productPatchDto.quantity());
+        }
+        if (productPatchDto.categoryId() != null) {
+            product.setCategory(getCategoryById(productPatchDto.categoryId()));
+        }
+        if (productPatchDto.brandId() != null) {
+            product.setBrand(getBrandById(productPatchDto.brandId()));
+        }
+        saveProductWithUniqueName(product, CatalogEvent.Type.UPDATED);
     }
 
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        if (productRepository.deleteIfExists(id) == 0) {
+            return;
+        }
+        productSearchService.removeProducts(List.of(id));
+        catalogEventPublisher.publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.PRODUCT, id, null);
+    }
+
+    public void createAllProducts(Collection<ProductDto> productDtos) {
+        validateProductDtos(productDtos);
+        final var categories = getCategoriesByIds(productDtos);
+        final var brands = getBrandsByIds(productDtos);
+        final var products = productDtos.stream()
+                .map(productDto -> Product.builder()
+                        .name(productDto.name())
+                        .description(productDto.description())
+                        .priceInCents(Prices.toCents(productDto.price()))
+                        .quantity(productDto.quantity())
+                        .category(categories.get(productDto.categoryId()))
+                        .brand(brands.get(productDto.brandId()))
+                        .build())
+                .toList();
+        saveProductsWithUniqueNames(products, CatalogEvent.Type.CREATED);
+    }
+
+    public void updateAllProducts(Collection<ProductDto> productDtos) {
+        validateProductDtos(productDtos);
+        final var products = EntityLookups.findAllByIdOrThrow(productRepository, getProductIds(productDtos), Product::getId);
+        final var categories = getCategoriesByIds(productDtos);
+        final var brands = getBrandsByIds(productDtos);
+        productDtos.forEach(productDto -> {
+            final var product = products.get(productDto.id());
+            EntityLookups.validateVersion(product, EntityLookups.requireVersion(productDto.version(), "Product"), "Product");
+            product.setName(productDto.name());
+            product.setDescription(productDto.description());
+            product.setPriceInCents(Prices.toCents(productDto.price()));
+            product.setQuantity(productDto.quantity());
+            product.setCategory(categories.get(productDto.categoryId()));
+            product.setBrand(brands.get(productDto.brandId()));
+        });
+        saveProductsWithUniqueNames(List.copyOf(products.values()), CatalogEvent.Type.UPDATED);
+    }
+
+    public void deleteAllProductsById(Collection<Long> ids) {
+        final var existingIds = productRepository.findExistingIds(ids);
+        if (existingIds.isEmpty()) {
+            return;
+        }
+        productRepository.deleteAllByIdInBatch(existingIds);
+        productSearchService.removeProducts(existingIds);
+        existingIds.forEach(id -> catalogEventPublisher.publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.PRODUCT, id, null));
     }
 
-    private ProductDto mapProductToProductDto(Product product) {
+    static ProductDto mapProductToProductDto(Product product) {
         return ProductDto.builder()
                 .id(product.getId())
                 .name(product.getName())
                 .description(product.getDescription())
-                .price(product.getPrice())
+                .price(Prices.fromCents(product.getPriceInCents()))
                 .quantity(product.getQuantity())
                 .brandId(product.getBrand().getId())
                 .categoryId(product.getCategory().getId())
+                .version(product.getVersion())
                 .build();
     }
 
     private void validateProductDto(ProductDto productDto) {
+        if (DtoValidators.isValid(productDto)) {
+            return;
+        }
+
         final var violations = validator.validate(productDto);
 
         if (!violations.isEmpty()) {
@@ -87,9 +249,88 @@ public class ProductService {
         }
     }
 
-    private void validateProductNameIsNotTaken(String name) {
-        if (productRepository.existsByName(name)) {
-            throw new IllegalStateException("Product name is already taken: " + name);
+    private void validateProductPatchDto(ProductPatchDto productPatchDto) {
+        final var violations = validator.validate(productPatchDto);
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private void validateProductDtos(Collection<ProductDto> productDtos) {
+        final var violations = productDtos.stream()
+                .filter(productDto -> !DtoValidators.isValid(productDto))
+                .flatMap(productDto -> validator.validate(productDto).stream())
+                .collect(Collectors.toSet());
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        EntityLookups.validateNamesAreDistinct(productDtos.stream()
+                .map(ProductDto::name)
+                .toList(), "Product");
+    }
+
+    private void validateProductFilterDto(ProductFilterDto productFilterDto) {
+        final var violations = validator.validate(productFilterDto);
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        if (productFilterDto.minPrice() != null && productFilterDto.maxPrice() != null
+                && productFilterDto.minPrice().compareTo(productFilterDto.maxPrice()) > 0) {
+            throw new IllegalArgumentException("Minimum price is greater than maximum price: " + productFilterDto);
+        }
+    }
+
+    private static Specification<Product> getPriceAndStockSpecification(ProductFilterDto productFilterDto) {
+        return ProductSpecifications.hasPriceBetween(productFilterDto.minPrice(), productFilterDto.maxPrice())
+                .and(ProductSpecifications.isInStock(productFilterDto.inStock()));
+    }
+
+    private List<Long> getProductIds(Collection<ProductDto> productDtos) {
+        return productDtos.stream()
+                .map(productDto -> {
+                    if (productDto.id() == null) {
+                        throw new IllegalArgumentException("Product id is required: " + productDto);
+                    }
+                    return productDto.id();
+                })
+                .toList();
+    }
+
+    private void publishProductChanges(List<ProductDto> productDtos, CatalogEvent.Type eventType) {
+        productSearchService.indexProducts(productDtos);
+        productDtos.forEach(productDto -> catalogEventPublisher.publish(eventType, CatalogEvent.Aggregate.PRODUCT, productDto.id(), productDto));
+    }
+
+    private void saveProductsWithUniqueNames(List<Product> products, CatalogEvent.Type eventType) {
+        try {
+            productRepository.saveAllAndFlush(products);
+            publishProductChanges(products.stream()
+                    .map(ProductService::mapProductToProductDto)
+                    .toList(), eventType);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Product.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("One of product names is already taken: " + products.stream()
+                        .map(Product::getName)
+                        .toList(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void saveProductWithUniqueName(Product product, CatalogEvent.Type eventType) {
+        try {
+            productRepository.saveAndFlush(product);
+            publishProductChanges(List.of(mapProductToProductDto(product)), eventType);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, Product.NAME_CONSTRAINT)) {
+                throw new IllegalStateException("Product name is already taken: " + product.getName(), e);
+            }
+            throw e;
         }
     }
 
@@ -101,4 +342,16 @@ public class ProductService {
         return brandRepository.findById(id).orElseThrow();
     }
 
+    private Map<Long, Category> getCategoriesByIds(Collection<ProductDto> productDtos) {
+        return EntityLookups.findAllByIdOrThrow(categoryRepository, productDtos.stream()
+                .map(ProductDto::categoryId)
+                .toList(), Category::getId);
+    }
+
+    private Map<Long, Brand> getBrandsByIds(Collection<ProductDto> productDtos) {
+        return EntityLookups.findAllByIdOrThrow(brandRepository, productDtos.stream()
+                .map(ProductDto::brandId)
+                .toList(), Brand::getId);
+    }
+
 }
@@ -0,0 +1,27 @@
+package com.example.lab2.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a partial update in a new transaction when a concurrent writer bumped the entity version between our read
+ * and our flush. Only meant for updates that re-apply their changes on top of freshly read state.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ObjectOptimisticLockingFailureException.class,
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 20, maxDelay = 200, multiplier = 2, random = true)
+)
+@interface RetryOnConflict {
+
+}
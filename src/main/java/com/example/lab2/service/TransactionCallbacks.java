@@ -0,0 +1,61 @@
+package com.example.lab2.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Collects changes into one batch per transaction, bound under {@code key}, and hands the batch to {@code action}
+     * once after commit. Without an active transaction every change is its own batch and runs immediately.
+     */
+    static <T> void afterCommitBatched(Object key, Supplier<T> batchFactory, Consumer<T> change, Consumer<T> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            final var batch = batchFactory.get();
+            change.accept(batch);
+            action.accept(batch);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        var batch = (T) TransactionSynchronizationManager.getResource(key);
+        if (batch == null) {
+            final var newBatch = batchFactory.get();
+            TransactionSynchronizationManager.bindResource(key, newBatch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.accept(newBatch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            batch = newBatch;
+        }
+        change.accept(batch);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.service.CatalogCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BrandControllerIntegrationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiClient apiClient;
+
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(port);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenNewBrand_whenCreateBrand_thenBrandIsListed() throws IOException {
+        System.out.println("Testing POST /brands");
+        assertThat(apiClient.post("/brands", "{\"name\": \"Brand\"}").statusCode()).isEqualTo(201);
+        final var brands = objectMapper.readValue(apiClient.get("/brands").body(), BrandDto[].class);
+        assertThat(brands).extracting(BrandDto::name).containsExactly("Brand");
+    }
+
+    @Test
+    void givenNewBrand_whenGetEvents_thenReturnsCreatedEventWithPayload() throws IOException {
+        System.out.println("Testing GET /events");
+        final var afterOffset = apiClient.get("/events/last-offset").body();
+        apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        final var events = objectMapper.readTree(apiClient.get("/events?afterOffset=" + afterOffset).body());
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).get("type").asText()).isEqualTo("CREATED");
+        assertThat(events.get(0).get("aggregate").asText()).isEqualTo("BRAND");
+        assertThat(events.get(0).get("payload").get("name").asText()).isEqualTo("Brand");
+    }
+
+    @Test
+    void givenTakenName_whenCreateBrand_thenReturnsConflict() {
+        System.out.println("Testing POST /brands with taken name");
+        apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        assertThat(apiClient.post("/brands", "{\"name\": \"Brand\"}").statusCode()).isEqualTo(409);
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchBrand_thenReturnsConflict() throws IOException {
+        System.out.println("Testing PATCH /brands/{id} with stale version");
+        apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        final var brandId = objectMapper.readValue(apiClient.get("/brands").body(), BrandDto[].class)[0].id();
+        assertThat(apiClient.patch("/brands/" + brandId, "{\"version\": 0, \"name\": \"Renamed brand\"}").statusCode()).isEqualTo(204);
+        assertThat(apiClient.patch("/brands/" + brandId, "{\"version\": 0, \"name\": \"Stale brand\"}").statusCode()).isEqualTo(409);
+        final var response = apiClient.get("/brands/" + brandId);
+        assertThat(response.headers().firstValue("ETag")).hasValue("W/\"1\"");
+        assertThat(objectMapper.readValue(response.body(), BrandDto.class).name()).isEqualTo("Renamed brand");
+    }
+
+    @Test
+    void givenNoVersion_whenUpdateBrand_thenReturnsBadRequest() throws IOException {
+        System.out.println("Testing PUT /brands/{id} without version");
+        apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        final var brandId = objectMapper.readValue(apiClient.get("/brands").body(), BrandDto[].class)[0].id();
+        assertThat(apiClient.put("/brands/" + brandId, "{\"id\": " + brandId + ", \"name\": \"Renamed brand\"}").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void givenStaleIfMatch_whenUpdateBrand_thenReturnsConflict() throws IOException {
+        System.out.println("Testing PUT /brands/{id} with stale If-Match");
+        apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        final var brandId = objectMapper.readValue(apiClient.get("/brands").body(), BrandDto[].class)[0].id();
+        final var eTag = apiClient.get("/brands/" + brandId).headers().firstValue("ETag").orElseThrow();
+        final var body = "{\"id\": " + brandId + ", \"name\": \"Renamed brand\"}";
+        assertThat(apiClient.put("/brands/" + brandId, body, "If-Match", eTag).statusCode()).isEqualTo(204);
+        assertThat(apiClient.put("/brands/" + brandId, body, "If-Match", eTag).statusCode()).isEqualTo(409);
+        assertThat(apiClient.put("/brands/" + brandId, body, "If-Match", "*").statusCode()).isEqualTo(400);
+    }
+
+}
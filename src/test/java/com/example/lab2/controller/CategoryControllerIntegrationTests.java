@@ -0,0 +1,109 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.service.CatalogCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CategoryControllerIntegrationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiClient apiClient;
+
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(port);
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenCategoryTree_whenGetDescendantsAndAncestors_thenReturnsSubtreeAndPath() throws IOException {
+        System.out.println("Testing GET /categories/{id}/descendants and ancestors");
+        apiClient.post("/categories", "{\"name\": \"Root\"}");
+        final var rootId = categoryId("Root");
+        apiClient.post("/categories", "{\"name\": \"Child\", \"parentCategoryId\": " + rootId + "}");
+        final var childId = categoryId("Child");
+        apiClient.post("/categories", "{\"name\": \"Grandchild\", \"parentCategoryId\": " + childId + "}");
+        final var grandchildId = categoryId("Grandchild");
+
+        assertThat(objectMapper.readValue(apiClient.get("/categories/" + rootId + "/descendants").body(), CategoryDto[].class))
+                .extracting(CategoryDto::name)
+                .containsExactlyInAnyOrder("Child", "Grandchild");
+        assertThat(objectMapper.readValue(apiClient.get("/categories/" + grandchildId + "/ancestors").body(), CategoryDto[].class))
+                .extracting(CategoryDto::name)
+                .contains("Root", "Child");
+    }
+
+    @Test
+    void givenMoveIntoOwnSubtree_whenUpdateCategory_thenReturnsConflict() throws IOException {
+        System.out.println("Testing PUT /categories/{id} moving into own subtree");
+        apiClient.post("/categories", "{\"name\": \"Root\"}");
+        final var rootId = categoryId("Root");
+        apiClient.post("/categories", "{\"name\": \"Child\", \"parentCategoryId\": " + rootId + "}");
+        final var childId = categoryId("Child");
+        final var response = apiClient.put("/categories/" + rootId, "{\"id\": " + rootId + ", \"name\": \"Root\", \"parentCategoryId\": " + childId + ", \"version\": 0}");
+        assertThat(response.statusCode()).isEqualTo(409);
+    }
+
+    @Test
+    void givenInvalidCategory_whenCreateCategory_thenReturnsBadRequest() {
+        System.out.println("Testing POST /categories with invalid category");
+        assertThat(apiClient.post("/categories", "{\"name\": \"\", \"parentCategoryId\": -1}").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void givenCategoryWithSubcategories_whenDeleteCategory_thenRejectsUnlessCascading() throws IOException {
+        System.out.println("Testing DELETE /categories/{id} with delete modes");
+        apiClient.post("/categories", "{\"name\": \"Root\"}");
+        final var rootId = categoryId("Root");
+        apiClient.post("/categories", "{\"name\": \"Child\", \"parentCategoryId\": " + rootId + "}");
+        assertThat(apiClient.delete("/categories/" + rootId).statusCode()).isEqualTo(409);
+        assertThat(apiClient.delete("/categories/" + rootId + "?mode=REASSIGN").statusCode()).isEqualTo(400);
+        assertThat(apiClient.delete("/categories/" + rootId + "?mode=CASCADE").statusCode()).isEqualTo(204);
+        assertThat(objectMapper.readValue(apiClient.get("/categories").body(), CategoryDto[].class)).isEmpty();
+        assertThat(apiClient.delete("/categories/" + rootId).statusCode()).isEqualTo(404);
+    }
+
+    private Long categoryId(String name) throws IOException {
+        final var categories = objectMapper.readValue(apiClient.get("/categories").body(), CategoryDto[].class);
+        for (final var category : categories) {
+            if (category.name().equals(name)) {
+                return category.id();
+            }
+        }
+        throw new IllegalStateException("Category not found: " + name);
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import com.example.lab2.service.BrandService;
+import com.example.lab2.service.CatalogCacheService;
+import com.example.lab2.service.CategoryService;
+import com.example.lab2.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ProductControllerIntegrationTests {
+
+    private static final int PRODUCT_COUNT = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiClient apiClient;
+    private List<ProductDto> products;
+
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(port);
+        categoryService.createCategory(new CategoryDto(null, "Category", null));
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        final var categoryId = categoryRepository.findAll().get(0).getId();
+        final var brandId = brandRepository.findAll().get(0).getId();
+        productService.createAllProducts(IntStream.rangeClosed(1, PRODUCT_COUNT)
+                .mapToObj(index -> new ProductDto(null, "Product " + index, "Description of product " + index, new BigDecimal("9.99"), index, categoryId, brandId))
+                .toList());
+        products = productService.getAllProducts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenProducts_whenGetAllProducts_thenStreamsJsonArray() throws IOException {
+        System.out.println("Testing GET /products as JSON");
+        final var response = apiClient.get("/products", "Accept", "application/json");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Transfer-Encoding")).hasValue("chunked");
+        assertThat(objectMapper.readValue(response.body(), ProductDto[].class)).containsExactlyElementsOf(products);
+    }
+
+    @Test
+    void givenProducts_whenGetAllProductsAsNdjson_thenStreamsOneProductPerLine() throws IOException {
+        System.out.println("Testing GET /products as NDJSON");
+        final var response = apiClient.get("/products", "Accept", "application/x-ndjson");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/x-ndjson");
+        assertThat(response.body()).endsWith("\n");
+        final var lines = response.body().lines().toList();
+        assertThat(lines).hasSize(PRODUCT_COUNT);
+        assertThat(objectMapper.readValue(lines.get(0), ProductDto.class)).isEqualTo(products.get(0));
+    }
+
+    @Test
+    void givenGzipAccepted_whenGetAllProducts_thenCompressesResponse() throws IOException {
+        System.out.println("Testing GET /products with gzip");
+        final var response = apiClient.getBytes("/products", "Accept", "application/json", "Accept-Encoding", "gzip");
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        try (final var body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(objectMapper.readValue(body, ProductDto[].class)).hasSize(PRODUCT_COUNT);
+        }
+    }
+
+    @Test
+    void givenETag_whenGetProductById_thenAnswersNotModifiedUntilProductChanges() throws IOException {
+        System.out.println("Testing conditional GET /products/{id}");
+        final var product = products.get(0);
+        final var response = apiClient.get("/products/" + product.id());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readValue(response.body(), ProductDto.class)).isEqualTo(product);
+        final var eTag = response.headers().firstValue("ETag").orElseThrow();
+        assertThat(eTag).isEqualTo("W/\"0\"");
+
+        final var notModified = apiClient.get("/products/" + product.id(), "If-None-Match", eTag);
+        assertThat(notModified.statusCode()).isEqualTo(304);
+        assertThat(notModified.body()).isEmpty();
+
+        apiClient.patch("/products/" + product.id(), "{\"version\": 0, \"quantity\": 42}");
+        final var modified = apiClient.get("/products/" + product.id(), "If-None-Match", eTag);
+        assertThat(modified.statusCode()).isEqualTo(200);
+        assertThat(modified.headers().firstValue("ETag")).hasValue("W/\"1\"");
+        assertThat(objectMapper.readValue(modified.body(), ProductDto.class).quantity()).isEqualTo(42);
+    }
+
+    @Test
+    void givenKeyset_whenGetProductsPage_thenReturnsNextProducts() throws IOException {
+        System.out.println("Testing GET /products/page");
+        final var response = apiClient.get("/products/page?afterId=" + products.get(9).id() + "&size=5");
+        assertThat(objectMapper.readValue(response.body(), ProductDto[].class)).containsExactlyElementsOf(products.subList(10, 15));
+    }
+
+    @Test
+    void givenMissingProduct_whenGetProductById_thenReturnsNotFound() {
+        System.out.println("Testing GET /products/{id} for missing product");
+        final var response = apiClient.get("/products/0");
+        assertThat(response.statusCode()).isEqualTo(404);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/problem+json");
+    }
+
+    @Test
+    void givenInvalidProduct_whenCreateProduct_thenReturnsBadRequest() {
+        System.out.println("Testing POST /products with invalid product");
+        final var response = apiClient.post("/products", "{\"name\": \" \", \"description\": \"Description\", \"price\": -1, \"quantity\": 1, \"categoryId\": 1, \"brandId\": 1}");
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).contains("name", "price");
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.service.CatalogCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two separate in-memory databases. The replica gets a copy of the empty primary and none of its writes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:rywprimary;DB_CLOSE_DELAY=-1",
+        "lab2.datasource.replica.url=jdbc:h2:mem:rywreplica;DB_CLOSE_DELAY=-1",
+        "lab2.datasource.replica.read-your-writes-window=PT1M"
+})
+public class ReadYourWritesIntegrationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private ApiClient apiClient;
+
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(port);
+        final var script = new JdbcTemplate(primaryDataSource).queryForList("script", String.class);
+        final var replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primaryDataSource).update("delete from brand");
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenCookieOfCommittedWrite_whenGetBrands_thenReadsOwnWriteFromPrimary() throws IOException {
+        System.out.println("Testing read-your-writes across requests");
+        final var response = apiClient.post("/brands", "{\"name\": \"Brand\"}");
+        final var cookie = response.headers().firstValue("Set-Cookie").orElseThrow();
+        assertThat(cookie).startsWith(ReadYourWritesFilter.READ_YOUR_WRITES_COOKIE + "=");
+        catalogCacheService.evictAll();
+
+        final var ownBrands = objectMapper.readValue(apiClient.get("/brands", "Cookie", cookie.substring(0, cookie.indexOf(';'))).body(), BrandDto[].class);
+        assertThat(ownBrands).extracting(BrandDto::name).containsExactly("Brand");
+        catalogCacheService.evictAll();
+        assertThat(objectMapper.readValue(apiClient.get("/brands").body(), BrandDto[].class)).isEmpty();
+    }
+
+    @Test
+    void givenChangeFeedRequest_whenGetChangedBrands_thenSetsNoCookie() {
+        System.out.println("Testing read-your-writes cookie of a change feed request");
+        final var response = apiClient.get("/brands/changes");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Set-Cookie")).isEmpty();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.example.lab2.controller;
+
+import com.example.lab2.service.BrandService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.willAnswer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=250"
+})
+public class RequestExecutionIntegrationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private BrandService brandService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final int CONCURRENT_REQUESTS = 1_000;
+    private static final Duration CONNECTION_HOLD_TIME = Duration.ofMillis(10);
+
+    private final List<Thread> serviceThreads = new CopyOnWriteArrayList<>();
+    private ApiClient apiClient;
+
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(port);
+        willAnswer(invocation -> {
+            serviceThreads.add(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).given(brandService).getAllBrands();
+    }
+
+    @Test
+    void givenVirtualExecutionMode_whenGetBrands_thenServiceRunsOnVirtualThread() {
+        System.out.println("Testing GET /brands on a virtual request thread");
+        assertThat(apiClient.get("/brands").statusCode()).isEqualTo(200);
+        assertThat(serviceThreads).singleElement().matches(Thread::isVirtual);
+    }
+
+    @Test
+    void givenMoreConcurrentRequestsThanPooledConnections_whenGetBrands_thenRequestsQueueWithoutConnectionTimeouts() throws Exception {
+        System.out.println("Testing 1k concurrent GET /brands requests against a pool of four connections");
+        final var transactionTemplate = new TransactionTemplate(transactionManager);
+        willAnswer(invocation -> {
+            serviceThreads.add(Thread.currentThread());
+            return transactionTemplate.execute(status -> {
+                try {
+                    Thread.sleep(CONNECTION_HOLD_TIME);
+                    return invocation.callRealMethod();
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }).given(brandService).getAllBrands();
+        final List<HttpResponse<String>> responses;
+        try (final var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var futures = IntStream.range(0, CONCURRENT_REQUESTS)
+                    .mapToObj(i -> clients.submit(() -> apiClient.get("/brands")))
+                    .toList();
+            responses = new ArrayList<>();
+            for (final var future : futures) {
+                responses.add(future.get());
+            }
+        }
+        assertThat(responses).hasSize(CONCURRENT_REQUESTS).allSatisfy(response -> assertThat(response.statusCode()).isEqualTo(200));
+        assertThat(serviceThreads).hasSize(CONCURRENT_REQUESTS);
+    }
+
+}
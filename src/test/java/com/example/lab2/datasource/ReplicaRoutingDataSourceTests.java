@@ -0,0 +1,153 @@
+package com.example.lab2.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaRoutingDataSourceTests {
+
+    private static final String UPDATE = "update brand set name = ? where id = ?";
+
+    private final DataSource primaryDataSource = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final List<Long> recordedWrites = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        given(primaryDataSource.getConnection()).willReturn(primaryConnection);
+        given(primaryConnection.prepareStatement(UPDATE)).willReturn(statement);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingContext.close();
+    }
+
+    @Test
+    void givenReadOnlyTransaction_whenDetermineRoute_thenRoutesToReplica() {
+        System.out.println("Testing routing of read-only transactions");
+        final var routingDataSource = routingDataSource(Duration.ZERO);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void givenWriteTransaction_whenDetermineRoute_thenRoutesToPrimary() {
+        System.out.println("Testing routing of write transactions");
+        final var routingDataSource = routingDataSource(Duration.ZERO);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void givenReadOnlyTransactionRequiringPrimary_whenDetermineRoute_thenRoutesToPrimaryUntilCompletion() {
+        System.out.println("Testing routing of read-only transactions that require the primary");
+        final var routingDataSource = routingDataSource(Duration.ZERO);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingContext.requirePrimary();
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void givenCommittedWriteInContext_whenDetermineRoute_thenRoutesReadsToPrimaryAndNotifiesListener() throws SQLException {
+        System.out.println("Testing read-your-writes window after a committed write");
+        final var routingDataSource = routingDataSource(Duration.ofMinutes(1));
+        ReplicaRoutingContext.open(0, recordedWrites::add);
+        given(statement.executeUpdate()).willReturn(1);
+        executeUpdates(routingDataSource, 2);
+        assertThat(recordedWrites).isEmpty();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(recordedWrites).singleElement().satisfies(primaryUntil ->
+                assertThat(primaryUntil).isGreaterThan(System.currentTimeMillis() + Duration.ofSeconds(50).toMillis()));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void givenWriteTransactionWithoutChangedRows_whenCommit_thenDoesNotRecordWrite() throws SQLException {
+        System.out.println("Testing write transaction that changed no rows");
+        final var routingDataSource = routingDataSource(Duration.ofMinutes(1));
+        ReplicaRoutingContext.open(0, recordedWrites::add);
+        given(statement.executeUpdate()).willReturn(0);
+        executeUpdates(routingDataSource, 1);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(recordedWrites).isEmpty();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void givenRolledBackWrite_whenComplete_thenDoesNotRecordWrite() throws SQLException {
+        System.out.println("Testing rolled back write transaction");
+        final var routingDataSource = routingDataSource(Duration.ofMinutes(1));
+        ReplicaRoutingContext.open(0, recordedWrites::add);
+        given(statement.executeUpdate()).willReturn(1);
+        executeUpdates(routingDataSource, 1);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(recordedWrites).isEmpty();
+    }
+
+    @Test
+    void givenOpenOrExpiredWindowInContext_whenDetermineRoute_thenRoutesReadsAccordingly() {
+        System.out.println("Testing read-your-writes window carried by the context");
+        final var routingDataSource = routingDataSource(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingContext.open(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis(), recordedWrites::add);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        ReplicaRoutingContext.open(System.currentTimeMillis() - 1, recordedWrites::add);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void givenWriteOutsideContext_whenGetConnection_thenDoesNotTrackIt() throws SQLException {
+        System.out.println("Testing write outside of a routing context");
+        final var routingDataSource = routingDataSource(Duration.ofMinutes(1));
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private ReplicaRoutingDataSource routingDataSource(Duration readYourWritesWindow) {
+        return new ReplicaRoutingDataSource(primaryDataSource, mock(DataSource.class), readYourWritesWindow);
+    }
+
+    private static void executeUpdates(ReplicaRoutingDataSource routingDataSource, int count) throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        try (final var connection = routingDataSource.getConnection()) {
+            for (var i = 0; i < count; i++) {
+                try (final var update = connection.prepareStatement(UPDATE)) {
+                    update.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static void complete(int status) {
+        final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+}
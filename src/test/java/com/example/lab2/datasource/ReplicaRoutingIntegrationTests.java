@@ -0,0 +1,182 @@
+package com.example.lab2.datasource;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.service.BrandService;
+import com.example.lab2.service.CacheInvalidation;
+import com.example.lab2.service.CacheInvalidationTransport;
+import com.example.lab2.service.CatalogCacheService;
+import com.example.lab2.service.CategoryService;
+import com.example.lab2.service.InMemoryCacheInvalidationTransport;
+import com.example.lab2.service.ProductSearchIndex;
+import com.example.lab2.service.ProductSearchService;
+import com.example.lab2.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against two separate in-memory databases. Replication is simulated by copying the primary into the replica
+ * with H2's {@code SCRIPT} command.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "lab2.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "lab2.datasource.replica.read-your-writes-window=PT0S",
+        "lab2.sync.settle-window=PT0S"
+})
+public class ReplicaRoutingIntegrationTests {
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CacheInvalidationTransport cacheInvalidationTransport;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        replicate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        final var primary = new JdbcTemplate(primaryDataSource);
+        primary.update("delete from product");
+        primary.update("delete from category_closure");
+        primary.update("delete from category");
+        primary.update("delete from brand");
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenUnreplicatedWrite_whenGetAllBrands_thenReadsFromReplica() {
+        System.out.println("Testing read-only service calls on replica");
+        brandService.createBrand(new BrandDto(null, "Replicated brand"));
+        catalogCacheService.evictAll();
+        assertThat(brandService.getAllBrands()).isEmpty();
+        replicate();
+        catalogCacheService.evictAll();
+        assertThat(brandService.getAllBrands()).extracting(BrandDto::name).containsExactly("Replicated brand");
+    }
+
+    @Test
+    void givenUnreplicatedWrite_whenUpdateBrand_thenReadsAndWritesPrimary() {
+        System.out.println("Testing write service calls on primary");
+        brandService.createBrand(new BrandDto(null, "Primary brand"));
+        final var brandId = new JdbcTemplate(primaryDataSource).queryForObject("select id from brand", Long.class);
+        catalogCacheService.evictAll();
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand", 0L));
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject("select name from brand", String.class)).isEqualTo("Renamed brand");
+        catalogCacheService.evictAll();
+        assertThatThrownBy(() -> brandService.getBrandById(brandId)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void givenUnreplicatedWrite_whenGetChangedSince_thenReadsFromPrimary() {
+        System.out.println("Testing change feed reads on primary");
+        brandService.createBrand(new BrandDto(null, "Primary brand"));
+        assertThat(brandService.getChangedSince(null, null, 10).changed()).extracting(BrandDto::name).containsExactly("Primary brand");
+    }
+
+    @Test
+    void givenUnreplicatedProductChange_whenReceiveInvalidation_thenReindexesFromPrimary() {
+        System.out.println("Testing search index refresh on primary");
+        final var primary = new JdbcTemplate(primaryDataSource);
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        categoryService.createCategory(new CategoryDto(null, "Category", null));
+        final var brandId = primary.queryForObject("select id from brand", Long.class);
+        final var categoryId = primary.queryForObject("select id from category", Long.class);
+        productService.createProduct(new ProductDto(null, "Kettle", "Description", new BigDecimal("10.00"), 1, categoryId, brandId));
+        final var productId = primary.queryForObject("select id from product", Long.class);
+        replicate();
+        assertThat(search("kettle")).hasSize(1);
+
+        primary.update("update product set name = 'Teapot' where id = ?", productId);
+        cacheInvalidationTransport.send(new CacheInvalidation("remote-node", CatalogEvent.Aggregate.PRODUCT, List.of(productId)));
+        assertThat(search("kettle")).isEmpty();
+        assertThat(search("teapot")).extracting(ProductDto::id).containsExactly(productId);
+    }
+
+    @Test
+    void givenUnreplicatedCategoryChange_whenReceiveInvalidation_thenReloadsCategoryTreeFromPrimary() {
+        System.out.println("Testing category tree reload on primary");
+        final var primary = new JdbcTemplate(primaryDataSource);
+        categoryService.createCategory(new CategoryDto(null, "Root", null));
+        categoryService.createCategory(new CategoryDto(null, "Other root", null));
+        final var rootId = primary.queryForObject("select id from category where name = 'Root'", Long.class);
+        final var otherRootId = primary.queryForObject("select id from category where name = 'Other root'", Long.class);
+        replicate();
+        assertThat(categoryService.isInSubtree(otherRootId, rootId)).isFalse();
+
+        primary.update("update category set parent_category_id = ? where id = ?", rootId, otherRootId);
+        cacheInvalidationTransport.send(new CacheInvalidation("remote-node", CatalogEvent.Aggregate.CATEGORY, List.of(otherRootId)));
+        assertThat(categoryService.isInSubtree(otherRootId, rootId)).isTrue();
+        assertThat(categoryService.getAncestorPath(otherRootId)).containsExactly(rootId);
+    }
+
+    @Test
+    void givenUnreplicatedProductChange_whenInvalidationsAreLost_thenReloadsSearchIndexFromPrimary() {
+        System.out.println("Testing search index reload on primary after a gap");
+        final var primary = new JdbcTemplate(primaryDataSource);
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        categoryService.createCategory(new CategoryDto(null, "Category", null));
+        final var brandId = primary.queryForObject("select id from brand", Long.class);
+        final var categoryId = primary.queryForObject("select id from category", Long.class);
+        productService.createProduct(new ProductDto(null, "Kettle", "Description", new BigDecimal("10.00"), 1, categoryId, brandId));
+        final var productId = primary.queryForObject("select id from product", Long.class);
+        replicate();
+        assertThat(search("kettle")).hasSize(1);
+
+        primary.update("update product set name = 'Teapot' where id = ?", productId);
+        ((InMemoryCacheInvalidationTransport) cacheInvalidationTransport).reportGap();
+        assertThat(productSearchService.getSearchIndex().search("kettle", ProductSearchIndex.Filter.NONE, 10)).isEmpty();
+        assertThat(productSearchService.getSearchIndex().search("teapot", ProductSearchIndex.Filter.NONE, 10)).containsExactly(productId);
+    }
+
+    private List<ProductDto> search(String query) {
+        return productSearchService.searchProducts(ProductSearchDto.builder().query(query).build());
+    }
+
+    private void replicate() {
+        final var script = new JdbcTemplate(primaryDataSource).queryForList("script", String.class);
+        final var replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+
+}
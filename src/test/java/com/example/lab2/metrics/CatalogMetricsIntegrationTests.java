@@ -0,0 +1,127 @@
+package com.example.lab2.metrics;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.service.BrandService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "lab2.metrics.slow-query-threshold=PT0S")
+@AutoConfigureObservability(tracing = false)
+public class CatalogMetricsIntegrationTests {
+
+    @TempDir
+    static Path exportDirectory;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusFileExporter prometheusFileExporter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void metricsProperties(DynamicPropertyRegistry registry) {
+        registry.add("lab2.metrics.export-file", () -> exportDirectory.resolve("metrics.prom").toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        brandService.createBrand(new BrandDto(null, "Measured brand 1"));
+        brandService.createBrand(new BrandDto(null, "Measured brand 2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        brandRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenServiceCall_whenGetAllBrands_thenRecordsServiceTimer() {
+        System.out.println("Testing service method timer");
+        final var callsBefore = serviceCalls("getAllBrands");
+        brandService.getAllBrands();
+        brandService.getAllBrands();
+        assertThat(serviceCalls("getAllBrands")).isEqualTo(callsBefore + 2);
+    }
+
+    @Test
+    void givenRepositoryCall_whenFindAllByName_thenRecordsQueriesAndRows() {
+        System.out.println("Testing repository query and row metrics");
+        final var rowsBefore = repositorySummaryTotal("lab2.repository.rows", "findExistingNames");
+        final var queriesBefore = repositorySummaryTotal("lab2.repository.queries", "findExistingNames");
+        brandRepository.findExistingNames(List.of("Measured brand 1", "Measured brand 2", "Missing brand"));
+        assertThat(repositorySummaryTotal("lab2.repository.rows", "findExistingNames")).isEqualTo(rowsBefore + 2);
+        assertThat(repositorySummaryTotal("lab2.repository.queries", "findExistingNames")).isEqualTo(queriesBefore + 1);
+    }
+
+    @Test
+    void givenZeroThreshold_whenCallingRepository_thenCountsSlowCall() {
+        System.out.println("Testing slow repository call counter");
+        final var slowCallsBefore = slowCalls();
+        brandRepository.count();
+        assertThat(slowCalls()).isEqualTo(slowCallsBefore + 1);
+    }
+
+    @Test
+    void givenExportFile_whenExport_thenWritesPrometheusScrape() throws IOException {
+        System.out.println("Testing Prometheus file export");
+        brandService.getAllBrands();
+        prometheusFileExporter.export();
+        assertThat(Files.readString(exportDirectory.resolve("metrics.prom")))
+                .contains("lab2_service_seconds_bucket")
+                .contains("lab2_repository_queries_count")
+                .contains("spring_data_repository_invocations_seconds_count");
+    }
+
+    private double serviceCalls(String method) {
+        final var timer = meterRegistry.find("lab2.service").tag("method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double repositorySummaryTotal(String name, String method) {
+        final var summary = meterRegistry.find(name)
+                .tags("repository", BrandRepository.class.getSimpleName(), "method", method)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private double slowCalls() {
+        final var counter = meterRegistry.find("lab2.repository.slow")
+                .tags("repository", BrandRepository.class.getSimpleName(), "method", "count")
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void givenDefaultProperties_whenStartApplication_thenHibernateStatisticsAreDisabled() {
+        System.out.println("Testing Hibernate statistics default");
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled()).isFalse();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.lab2.model;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PricesTests {
+
+    @ParameterizedTest
+    @CsvSource({"0.01, 1", "0.3, 30", "19.99, 1999", "1E+2, 10000", "999999999999999.99, 99999999999999999"})
+    void givenPrice_whenToCentsAndBack_thenKeepsExactValue(String price, long cents) {
+        System.out.println("Testing toCents and fromCents methods with price = " + price);
+        assertThat(Prices.toCents(new BigDecimal(price))).isEqualTo(cents);
+        assertThat(Prices.fromCents(cents)).isEqualByComparingTo(price);
+        assertThat(Prices.fromCents(cents).scale()).isEqualTo(Prices.SCALE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.001", "99999999999999999999"})
+    void givenPriceNotRepresentableInCents_whenToCents_thenThrowsException(String price) {
+        System.out.println("Testing toCents method with price = " + price);
+        assertThatThrownBy(() -> Prices.toCents(new BigDecimal(price))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1000.0, 10.00", "6500.5, 65.00", "6501.5, 65.02", "33.333, 0.33"})
+    void givenAverageInCents_whenFromCents_thenRoundsHalfEven(double cents, String price) {
+        System.out.println("Testing fromCents method with average = " + cents);
+        assertThat(Prices.fromCents(cents)).isEqualTo(new BigDecimal(price));
+    }
+
+}
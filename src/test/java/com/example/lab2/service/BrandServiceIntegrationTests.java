@@ -0,0 +1,132 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.BrandPatchDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.repository.BrandRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+public class BrandServiceIntegrationTests {
+
+    @Autowired
+    private BrandService brandService;
+
+    @SpyBean
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long brandId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        brandService.createBrand(new BrandDto(null, "Versioned brand"));
+        brandId = brandRepository.findAll().get(0).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        brandRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenBrand_whenUpdateBrand_thenIncrementsVersion() {
+        System.out.println("Testing version increments on updateBrand");
+        assertThat(versionOfBrand()).isZero();
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand", 0L));
+        brandService.patchBrand(brandId, new BrandPatchDto(1L, "Patched brand"));
+        assertThat(versionOfBrand()).isEqualTo(2);
+    }
+
+    @Test
+    void givenConcurrentUpdate_whenStaleBrandIsFlushed_thenThrowsOptimisticLockingFailure() {
+        System.out.println("Testing concurrent brand updates");
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            final var staleBrand = brandRepository.findById(brandId).orElseThrow();
+            renameBrandInNewTransaction("Concurrent brand");
+            staleBrand.setName("Stale brand");
+            brandRepository.saveAndFlush(staleBrand);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Concurrent brand");
+    }
+
+    @Test
+    void givenConcurrentUpdateDuringPatch_whenPatchBrand_thenRetriesOnFreshState() {
+        System.out.println("Testing patchBrand retry on conflict");
+        clearInvocations(brandRepository);
+        willAnswer(invocation -> {
+            renameBrandInNewTransaction("Concurrent brand");
+            return flush(invocation.getArgument(0));
+        }).willAnswer(invocation -> flush(invocation.getArgument(0))).given(brandRepository).saveAndFlush(ArgumentMatchers.any());
+
+        brandService.patchBrand(brandId, new BrandPatchDto(null, "Patched brand"));
+
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Patched brand");
+        assertThat(versionOfBrand()).isEqualTo(2);
+        verify(brandRepository, times(2)).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenLoadedBrandIsModified_whenGetAllBrands_thenRunsInReadOnlySessionWithoutFlush() {
+        System.out.println("Testing read-only session in getAllBrands");
+        final var sessionStates = new ArrayList<>();
+        willAnswer(invocation -> {
+            final var session = entityManager.unwrap(Session.class);
+            sessionStates.add(session.isDefaultReadOnly());
+            sessionStates.add(session.getHibernateFlushMode());
+            final var brands = entityManager.createQuery("select b from Brand b", Brand.class).getResultList();
+            brands.forEach(brand -> brand.setName("Modified brand"));
+            return brands;
+        }).given(brandRepository).findAll();
+
+        brandService.getAllBrands();
+
+        assertThat(sessionStates).containsExactly(true, FlushMode.MANUAL);
+        final String name = transactionTemplate.execute(status -> brandRepository.findById(brandId).map(Brand::getName).orElseThrow());
+        assertThat(name).isEqualTo("Versioned brand");
+    }
+
+    private Brand flush(Brand brand) {
+        entityManager.flush();
+        return brand;
+    }
+
+    private void renameBrandInNewTransaction(String name) {
+        transactionTemplate.executeWithoutResult(status -> brandRepository.findById(brandId).orElseThrow().setName(name));
+    }
+
+    private Long versionOfBrand() {
+        return transactionTemplate.execute(status -> brandRepository.findById(brandId).map(Brand::getVersion).orElseThrow());
+    }
+
+}
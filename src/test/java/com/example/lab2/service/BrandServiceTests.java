@@ -1,7 +1,9 @@
 package com.example.lab2.service;
 
 import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.BrandPatchDto;
 import com.example.lab2.model.Brand;
+import com.example.lab2.model.CatalogEvent;
 import com.example.lab2.repository.BrandRepository;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validation;
@@ -14,22 +16,37 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 public class BrandServiceTests {
 
     @Mock
     private BrandRepository brandRepository;
+
+    @Mock
+    private CatalogEventPublisher catalogEventPublisher;
+
+    @Mock
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @Mock
+    private CatalogDeletionService catalogDeletionService;
     private BrandService brandService;
 
     static Stream<BrandDto> createBrandArgs() {
@@ -61,7 +78,7 @@ public class BrandServiceTests {
     void setUp() {
         final var validatorFactory = Validation.buildDefaultValidatorFactory();
         final var validator = validatorFactory.getValidator();
-        brandService = new BrandService(brandRepository, validator);
+        brandService = new BrandService(brandRepository, validator, catalogEventPublisher, catalogChangeTracker, catalogDeletionService);
     }
 
     @Test
@@ -101,7 +118,7 @@ public class BrandServiceTests {
     void givenBrandData_whenCreateBrand_thenSavesNewBrand(BrandDto brandDto) {
         System.out.println("Testing createBrand method with " + brandDto);
         brandService.createBrand(brandDto);
-        verify(brandRepository).save(ArgumentMatchers.eq(new Brand(null, brandDto.name())));
+        verify(brandRepository).saveAndFlush(ArgumentMatchers.eq(new Brand(null, brandDto.name())));
     }
 
     @ParameterizedTest
@@ -115,8 +132,9 @@ public class BrandServiceTests {
     void givenBrandNameIsTaken_whenCreateBrand_thenThrowsException() {
         System.out.println("Testing createBrand method with taken brand name");
         final var brandName = "Brand 1";
-        given(brandRepository.existsByName(brandName)).willReturn(true);
+        given(brandRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Brand.NAME_CONSTRAINT));
         assertThatThrownBy(() -> brandService.createBrand(new BrandDto(null, brandName))).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(catalogEventPublisher);
     }
 
     @Test
@@ -124,10 +142,27 @@ public class BrandServiceTests {
         System.out.println("Testing updateBrand method");
         final var id = 1L;
         final var brandName = "Brand 1";
-        given(brandRepository.findById(id)).willReturn(Optional.of(new Brand(id, brandName)));
+        given(brandRepository.findById(id)).willReturn(Optional.of(versioned(new Brand(id, brandName), 0L)));
         final var newBrandName = "Brand 2";
-        brandService.updateBrand(id, new BrandDto(id, newBrandName));
-        verify(brandRepository).save(ArgumentMatchers.eq(new Brand(id, newBrandName)));
+        brandService.updateBrand(id, new BrandDto(id, newBrandName, 0L));
+        verify(brandRepository).saveAndFlush(ArgumentMatchers.eq(new Brand(id, newBrandName)));
+        verify(catalogEventPublisher).publish(CatalogEvent.Type.UPDATED, CatalogEvent.Aggregate.BRAND, id, new BrandDto(id, newBrandName, 0L));
+    }
+
+    @Test
+    void givenNoVersion_whenUpdateBrand_thenThrowsException() {
+        System.out.println("Testing updateBrand method without version");
+        given(brandRepository.findById(1L)).willReturn(Optional.of(versioned(new Brand(1L, "Brand 1"), 0L)));
+        assertThatThrownBy(() -> brandService.updateBrand(1L, new BrandDto(1L, "Brand 2"))).isInstanceOf(IllegalArgumentException.class);
+        verify(brandRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateBrand_thenThrowsException() {
+        System.out.println("Testing updateBrand method with stale version");
+        given(brandRepository.findById(1L)).willReturn(Optional.of(versioned(new Brand(1L, "Brand 1"), 3L)));
+        assertThatThrownBy(() -> brandService.updateBrand(1L, new BrandDto(1L, "Brand 2", 2L))).isInstanceOf(IllegalStateException.class);
+        verify(brandRepository, never()).saveAndFlush(ArgumentMatchers.any());
     }
 
     @ParameterizedTest
@@ -151,7 +186,128 @@ public class BrandServiceTests {
     void givenBrandId_whenDeleteBrand_thenDeletesBrand(Long id) {
         System.out.println("Testing deleteBrand method with id = " + id);
         brandService.deleteBrand(id);
-        verify(brandRepository).deleteById(id);
+        verify(catalogDeletionService).deleteBrand(id, CatalogDeletionService.Mode.REJECT, null);
+    }
+
+    @Test
+    void givenOtherDataIntegrityViolation_whenCreateBrand_thenRethrowsException() {
+        System.out.println("Testing createBrand method with other data integrity violation");
+        given(brandRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation("fk_other"));
+        assertThatThrownBy(() -> brandService.createBrand(new BrandDto(null, "Brand 1"))).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void givenBrandsData_whenCreateAllBrands_thenSavesAllBrandsAtOnce() {
+        System.out.println("Testing createAllBrands method");
+        brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1"), new BrandDto(null, "Brand 2")));
+        verify(brandRepository).saveAllAndFlush(List.of(new Brand(null, "Brand 1"), new Brand(null, "Brand 2")));
+    }
+
+    @Test
+    void givenDuplicatedBrandNames_whenCreateAllBrands_thenThrowsException() {
+        System.out.println("Testing createAllBrands method with duplicated names");
+        assertThatThrownBy(() -> brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1"), new BrandDto(null, "Brand 1"))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(brandRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenOneInvalidBrand_whenCreateAllBrands_thenThrowsExceptionWithoutSaving() {
+        System.out.println("Testing createAllBrands method with one invalid brand");
+        assertThatThrownBy(() -> brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1"), new BrandDto(null, " "))))
+                .isInstanceOf(ConstraintViolationException.class);
+        verify(brandRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenBrandNameIsTaken_whenCreateAllBrands_thenThrowsException() {
+        System.out.println("Testing createAllBrands method with taken name");
+        given(brandRepository.saveAllAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Brand.NAME_CONSTRAINT));
+        assertThatThrownBy(() -> brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1")))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void givenBrandsData_whenUpdateAllBrands_thenLoadsAllBrandsWithSingleQuery() {
+        System.out.println("Testing updateAllBrands method");
+        given(brandRepository.findAllById(Set.of(1L, 2L)))
+                .willReturn(List.of(versioned(new Brand(1L, "Brand 1"), 0L), versioned(new Brand(2L, "Brand 2"), 1L)));
+        brandService.updateAllBrands(List.of(new BrandDto(1L, "Brand 3", 0L), new BrandDto(2L, "Brand 4", 1L)));
+        verify(brandRepository).saveAllAndFlush(ArgumentMatchers.argThat(brands -> Set.copyOf((Collection<?>) brands)
+                .equals(Set.of(new Brand(1L, "Brand 3"), new Brand(2L, "Brand 4")))));
+    }
+
+    @Test
+    void givenOneStaleVersion_whenUpdateAllBrands_thenThrowsExceptionWithoutSaving() {
+        System.out.println("Testing updateAllBrands method with stale version");
+        given(brandRepository.findAllById(Set.of(1L, 2L)))
+                .willReturn(List.of(versioned(new Brand(1L, "Brand 1"), 0L), versioned(new Brand(2L, "Brand 2"), 1L)));
+        assertThatThrownBy(() -> brandService.updateAllBrands(List.of(new BrandDto(1L, "Brand 3", 0L), new BrandDto(2L, "Brand 4", 0L))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(brandRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenOneBrandDoesNotExist_whenUpdateAllBrands_thenThrowsException() {
+        System.out.println("Testing updateAllBrands method with missing brand");
+        given(brandRepository.findAllById(Set.of(1L, 2L))).willReturn(List.of(new Brand(1L, "Brand 1")));
+        assertThatThrownBy(() -> brandService.updateAllBrands(List.of(new BrandDto(1L, "Brand 3"), new BrandDto(2L, "Brand 4"))))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("2");
+    }
+
+    @Test
+    void givenBrandWithoutId_whenUpdateAllBrands_thenThrowsException() {
+        System.out.println("Testing updateAllBrands method with missing id");
+        assertThatThrownBy(() -> brandService.updateAllBrands(List.of(new BrandDto(null, "Brand 3"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenBrandIds_whenDeleteAllBrandsById_thenDeletesThroughDeletionService() {
+        System.out.println("Testing deleteAllBrandsById method");
+        brandService.deleteAllBrandsById(List.of(1L, 2L));
+        verify(catalogDeletionService).deleteAllBrandsById(List.of(1L, 2L));
+    }
+
+    @Test
+    void givenBrandPatch_whenPatchBrand_thenSavesPatchedBrand() {
+        System.out.println("Testing patchBrand method");
+        given(brandRepository.findById(1L)).willReturn(Optional.of(new Brand(1L, "Brand 1")));
+        brandService.patchBrand(1L, new BrandPatchDto(null, "Brand 2"));
+        verify(brandRepository).saveAndFlush(ArgumentMatchers.eq(new Brand(1L, "Brand 2")));
+    }
+
+    @Test
+    void givenEmptyBrandPatch_whenPatchBrand_thenKeepsBrandUnchanged() {
+        System.out.println("Testing patchBrand method without changes");
+        given(brandRepository.findById(1L)).willReturn(Optional.of(new Brand(1L, "Brand 1")));
+        brandService.patchBrand(1L, new BrandPatchDto(null, null));
+        verify(brandRepository).saveAndFlush(ArgumentMatchers.eq(new Brand(1L, "Brand 1")));
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchBrand_thenThrowsException() {
+        System.out.println("Testing patchBrand method with stale version");
+        given(brandRepository.findById(1L)).willReturn(Optional.of(versioned(new Brand(1L, "Brand 1"), 3L)));
+        assertThatThrownBy(() -> brandService.patchBrand(1L, new BrandPatchDto(2L, "Brand 2"))).isInstanceOf(IllegalStateException.class);
+        verify(brandRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "\t"})
+    void givenBlankBrandName_whenPatchBrand_thenThrowsException(String name) {
+        System.out.println("Testing patchBrand method with blank name");
+        assertThatThrownBy(() -> brandService.patchBrand(1L, new BrandPatchDto(null, name))).isInstanceOf(ConstraintViolationException.class);
+    }
+
+    private static Brand versioned(Brand brand, Long version) {
+        ReflectionTestUtils.setField(brand, "version", version);
+        return brand;
+    }
+
+    private static DataIntegrityViolationException nameConstraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("Unique index or primary key violation",
+                new org.hibernate.exception.ConstraintViolationException("Unique index or primary key violation", null, constraintName.toUpperCase()));
     }
 
 }
@@ -0,0 +1,202 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class CacheInvalidationBusIntegrationTests {
+
+    private static final String REMOTE_NODE = "remote-node";
+
+    @Autowired
+    private CacheInvalidationTransport cacheInvalidationTransport;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<CacheInvalidation> sentInvalidations = new CopyOnWriteArrayList<>();
+    private Long brandId;
+
+    @BeforeEach
+    void setUp() {
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        brandId = brandRepository.findAll().get(0).getId();
+        cacheInvalidationTransport.subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidation(CacheInvalidation invalidation) {
+                sentInvalidations.add(invalidation);
+            }
+
+            @Override
+            public void onGap() {
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAllLocally();
+    }
+
+    @Test
+    void givenInMemoryDatabase_whenStartApplication_thenUsesInMemoryTransport() {
+        System.out.println("Testing cache invalidation transport selection");
+        assertThat(cacheInvalidationTransport).isInstanceOf(InMemoryCacheInvalidationTransport.class);
+    }
+
+    @Test
+    void givenCommittedUpdate_whenUpdateBrand_thenBroadcastsInvalidationFromThisNode() {
+        System.out.println("Testing invalidation broadcast on updateBrand");
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand", 0L));
+        assertThat(sentInvalidations).containsExactly(new CacheInvalidation(cacheInvalidationBus.getNodeId(), CatalogEvent.Aggregate.BRAND, List.of(brandId)));
+    }
+
+    @Test
+    void givenRolledBackUpdate_whenUpdateBrand_thenBroadcastsNothing() {
+        System.out.println("Testing invalidation broadcast on rolled back updateBrand");
+        transactionTemplate.executeWithoutResult(status -> {
+            brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand", 0L));
+            status.setRollbackOnly();
+        });
+        assertThat(sentInvalidations).isEmpty();
+    }
+
+    @Test
+    void givenManyIds_whenBroadcast_thenSplitsIntoBoundedInvalidations() {
+        System.out.println("Testing broadcast method with many ids");
+        final var ids = LongStream.rangeClosed(1, CacheInvalidationBus.MAX_IDS_PER_INVALIDATION + 1).boxed().toList();
+        cacheInvalidationBus.broadcast(CatalogEvent.Aggregate.PRODUCT, ids);
+        assertThat(sentInvalidations).extracting(invalidation -> invalidation.ids().size())
+                .containsExactly(CacheInvalidationBus.MAX_IDS_PER_INVALIDATION, 1);
+    }
+
+    @Test
+    void givenRemoteBrandChange_whenReceiveInvalidation_thenReadsChangedBrand() {
+        System.out.println("Testing brand cache invalidation from another node");
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Brand");
+        jdbcTemplate.update("update brand set name = 'Remote brand' where id = ?", brandId);
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Brand");
+
+        cacheInvalidationTransport.send(new CacheInvalidation(REMOTE_NODE, CatalogEvent.Aggregate.BRAND, List.of(brandId)));
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Remote brand");
+    }
+
+    @Test
+    void givenOwnInvalidation_whenReceiveInvalidation_thenKeepsCachedBrand() {
+        System.out.println("Testing invalidation sent by this node");
+        brandService.getBrandById(brandId);
+        jdbcTemplate.update("update brand set name = 'Remote brand' where id = ?", brandId);
+        cacheInvalidationTransport.send(new CacheInvalidation(cacheInvalidationBus.getNodeId(), CatalogEvent.Aggregate.BRAND, List.of(brandId)));
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Brand");
+    }
+
+    @Test
+    void givenRemoteCategoryMove_whenReceiveInvalidation_thenReloadsCategoryTree() {
+        System.out.println("Testing category tree invalidation from another node");
+        categoryService.createCategory(new CategoryDto(null, "Parent", null));
+        categoryService.createCategory(new CategoryDto(null, "Child", null));
+        final var parentId = categoryRepository.findAll().stream().filter(category -> category.getName().equals("Parent")).findFirst().orElseThrow().getId();
+        final var childId = categoryRepository.findAll().stream().filter(category -> category.getName().equals("Child")).findFirst().orElseThrow().getId();
+        assertThat(categoryService.isInSubtree(childId, parentId)).isFalse();
+        jdbcTemplate.update("update category set parent_category_id = ? where id = ?", parentId, childId);
+        assertThat(categoryService.isInSubtree(childId, parentId)).isFalse();
+
+        cacheInvalidationTransport.send(new CacheInvalidation(REMOTE_NODE, CatalogEvent.Aggregate.CATEGORY, List.of(childId)));
+        assertThat(categoryService.isInSubtree(childId, parentId)).isTrue();
+        jdbcTemplate.update("update category set parent_category_id = null where id = ?", childId);
+    }
+
+    @Test
+    void givenRemoteProductChanges_whenReceiveInvalidation_thenRefreshesSearchIndex() {
+        System.out.println("Testing search index invalidation from another node");
+        categoryService.createCategory(new CategoryDto(null, "Category", null));
+        final var categoryId = categoryRepository.findAll().get(0).getId();
+        productService.createProduct(new ProductDto(null, "Kettle", "Description", new BigDecimal("10.00"), 1, categoryId, brandId));
+        productService.createProduct(new ProductDto(null, "Toaster", "Description", new BigDecimal("10.00"), 1, categoryId, brandId));
+        final var kettleId = productRepository.findAll().stream().filter(product -> product.getName().equals("Kettle")).findFirst().orElseThrow().getId();
+        final var toasterId = productRepository.findAll().stream().filter(product -> product.getName().equals("Toaster")).findFirst().orElseThrow().getId();
+        assertThat(search("kettle")).hasSize(1);
+        jdbcTemplate.update("update product set name = 'Teapot' where id = ?", kettleId);
+        jdbcTemplate.update("delete from product where id = ?", toasterId);
+
+        cacheInvalidationTransport.send(new CacheInvalidation(REMOTE_NODE, CatalogEvent.Aggregate.PRODUCT, List.of(kettleId, toasterId)));
+        assertThat(search("kettle")).isEmpty();
+        assertThat(search("teapot")).extracting(ProductDto::id).containsExactly(kettleId);
+        assertThat(search("toaster")).isEmpty();
+    }
+
+    @Test
+    void givenGap_whenReportGap_thenDropsAllLocalCaches() {
+        System.out.println("Testing gap in cache invalidations");
+        brandService.getBrandById(brandId);
+        final var searchIndex = productSearchService.getSearchIndex();
+        jdbcTemplate.update("update brand set name = 'Remote brand' where id = ?", brandId);
+
+        ((InMemoryCacheInvalidationTransport) cacheInvalidationTransport).reportGap();
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Remote brand");
+        assertThat(productSearchService.getSearchIndex()).isNotSameAs(searchIndex);
+    }
+
+    private List<ProductDto> search(String query) {
+        return productSearchService.searchProducts(ProductSearchDto.builder().query(query).build());
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CacheStatisticsDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.Category;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "lab2.metrics.hibernate-statistics=true")
+public class CatalogCacheServiceIntegrationTests {
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CatalogDeletionService catalogDeletionService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoryId;
+    private Long brandId;
+
+    @BeforeEach
+    void setUp() {
+        categoryService.createCategory(new CategoryDto(null, "Cached category", null));
+        brandService.createBrand(new BrandDto(null, "Cached brand"));
+        categoryId = categoryRepository.findAll().get(0).getId();
+        brandId = brandRepository.findAll().get(0).getId();
+        catalogCacheService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAll();
+    }
+
+    @Test
+    void givenWarmCache_whenCreateProducts_thenReadsReferenceDataFromCache() {
+        System.out.println("Testing reference data reads per product write");
+        final var productCount = 10;
+        IntStream.rangeClosed(1, productCount).forEach(index -> productService.createProduct(productDto("Product " + index)));
+        assertThat(regionStatistics(Brand.CACHE_REGION).missCount()).isEqualTo(1);
+        assertThat(regionStatistics(Brand.CACHE_REGION).hitCount()).isEqualTo(productCount - 1);
+        assertThat(regionStatistics(Category.CACHE_REGION).missCount()).isEqualTo(1);
+        assertThat(regionStatistics(Category.CACHE_REGION).hitCount()).isEqualTo(productCount - 1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCachedBrand_whenUpdateBrand_thenReadsUpdatedBrand() {
+        System.out.println("Testing cache invalidation on updateBrand");
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Cached brand");
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand", 0L));
+        assertThat(brandService.getBrandById(brandId).name()).isEqualTo("Renamed brand");
+        assertThat(brandService.getAllBrands()).containsExactly(new BrandDto(brandId, "Renamed brand", 1L));
+    }
+
+    @Test
+    void givenCachedCategory_whenDeleteCategory_thenCategoryIsNoLongerServed() {
+        System.out.println("Testing cache invalidation on deleteCategory");
+        assertThat(categoryService.getAllCategories()).hasSize(1);
+        assertThat(categoryService.getCategoryById(categoryId).name()).isEqualTo("Cached category");
+        catalogDeletionService.deleteCategory(categoryId, CatalogDeletionService.Mode.REJECT, null);
+        assertThat(categoryRepository.findById(categoryId)).isEmpty();
+        assertThat(categoryService.getAllCategories()).isEmpty();
+    }
+
+    @Test
+    void givenCachedCategories_whenGetAllCategoriesRepeatedly_thenServesQueryFromCache() {
+        System.out.println("Testing query cache for getAllCategories");
+        categoryService.getAllCategories();
+        statistics.clear();
+        categoryService.getAllCategories();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void givenColdCache_whenWarmUp_thenCreatesProductsWithoutLoadingReferenceData() {
+        System.out.println("Testing cache warm up");
+        catalogCacheService.warmUp();
+        statistics.clear();
+        productService.createProduct(productDto("Product 1"));
+        assertThat(regionStatistics(Brand.CACHE_REGION).missCount()).isZero();
+        assertThat(regionStatistics(Category.CACHE_REGION).missCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private CacheStatisticsDto regionStatistics(String region) {
+        return catalogCacheService.getCacheStatistics().stream()
+                .filter(cacheStatistics -> cacheStatistics.region().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private ProductDto productDto(String name) {
+        return ProductDto.builder()
+                .name(name)
+                .description("Description")
+                .price(new BigDecimal("1.0"))
+                .quantity(1)
+                .categoryId(categoryId)
+                .brandId(brandId)
+                .build();
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "lab2.sync.settle-window=PT0S")
+public class CatalogChangeTrackerIntegrationTests {
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CatalogDeletionService catalogDeletionService;
+
+    @Autowired
+    private CatalogEventService catalogEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAllLocally();
+        catalogEventService.deleteEventsUpTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void givenWatermark_whenGetChangedSince_thenReturnsOnlyLaterChanges() {
+        System.out.println("Testing getChangedSince method with watermark");
+        brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1"), new BrandDto(null, "Brand 2")));
+        final var changes = brandService.getChangedSince(null, null, 10);
+        assertThat(changes.changed()).extracting(BrandDto::name).containsExactlyInAnyOrder("Brand 1", "Brand 2");
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(brandService.getChangedSince(changes.watermark(), null, 10).changed()).isEmpty();
+
+        final var brand = changes.changed().get(0);
+        brandService.updateBrand(brand.id(), new BrandDto(brand.id(), "Renamed brand", brand.version()));
+        assertThat(brandService.getChangedSince(changes.watermark(), null, 10).changed())
+                .containsExactly(new BrandDto(brand.id(), "Renamed brand", brand.version() + 1));
+    }
+
+    @Test
+    void givenDeletedBrand_whenGetChangedSince_thenReturnsTombstone() {
+        System.out.println("Testing getChangedSince method with deleted brand");
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        final var watermark = brandService.getChangedSince(null, null, 10).watermark();
+        final var id = brandRepository.findAll().get(0).getId();
+        catalogDeletionService.deleteBrand(id, CatalogDeletionService.Mode.REJECT, null);
+
+        final var changes = brandService.getChangedSince(watermark, null, 10);
+        assertThat(changes.changed()).isEmpty();
+        assertThat(changes.deletedIds()).containsExactly(id);
+    }
+
+    @Test
+    void givenRowsSharingTimestamp_whenGetChangedSinceWithSmallLimit_thenPagesThroughGroupById() {
+        System.out.println("Testing getChangedSince method with rows sharing one timestamp");
+        brandService.createAllBrands(List.of(new BrandDto(null, "Brand 1"), new BrandDto(null, "Brand 2"), new BrandDto(null, "Brand 3")));
+        jdbcTemplate.update("update brand set updated_at = ?", Timestamp.from(Instant.now().minusSeconds(1)));
+        catalogCacheService.evictAll();
+
+        final var names = new ArrayList<String>();
+        var page = brandService.getChangedSince(null, null, 1);
+        names.addAll(page.changed().stream().map(BrandDto::name).toList());
+        while (page.hasMore()) {
+            assertThat(page.changed()).hasSize(1);
+            page = brandService.getChangedSince(page.watermark(), page.watermarkId(), 1);
+            names.addAll(page.changed().stream().map(BrandDto::name).toList());
+        }
+        assertThat(names).containsExactlyInAnyOrder("Brand 1", "Brand 2", "Brand 3");
+    }
+
+    @Test
+    void givenQuantityAdjustment_whenGetChangedSince_thenReturnsAdjustedProduct() {
+        System.out.println("Testing getChangedSince method after bulk quantity update");
+        categoryService.createCategory(new CategoryDto(null, "Category", null));
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        final var categoryId = categoryRepository.findAll().get(0).getId();
+        final var brandId = brandRepository.findAll().get(0).getId();
+        productService.createProduct(new ProductDto(null, "Product", "Description", new BigDecimal("10.00"), 5, categoryId, brandId));
+        final var watermark = productService.getChangedSince(null, null, 10).watermark();
+        final var productId = productRepository.findAll().get(0).getId();
+
+        inventoryService.adjustQuantity(productId, -2);
+        final var changes = productService.getChangedSince(watermark, null, 10);
+        assertThat(changes.changed()).extracting(ProductDto::quantity).containsExactly(3);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.example.lab2.service;
+
+import com.example.lab2.datasource.ReplicaRoutingContext;
+import com.example.lab2.dto.ChangeMarkerDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.CatalogEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogChangeTrackerTests {
+
+    private static final Instant SINCE = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant FIRST_UPDATE = SINCE.plusSeconds(1);
+    private static final Instant SECOND_UPDATE = SINCE.plusSeconds(2);
+    private static final Instant UP_TO = SINCE.plusSeconds(60);
+    private static final Duration SETTLE_WINDOW = Duration.ofSeconds(2);
+
+    @Mock
+    private CatalogEventRepository catalogEventRepository;
+
+    @Mock
+    private CatalogSyncClock catalogSyncClock;
+
+    @Mock
+    private CatalogChangeTracker.ChangeQuery changeQuery;
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @BeforeEach
+    void setUp() {
+        catalogChangeTracker = new CatalogChangeTracker(catalogEventRepository, new CatalogSyncProperties(SETTLE_WINDOW, 10), catalogSyncClock);
+    }
+
+    @Test
+    void givenMoreChangesThanLimit_whenGetChangedSince_thenEndsPageAtLastRow() {
+        System.out.println("Testing getChangedSince method with more changes than limit");
+        given(catalogSyncClock.getUpperBound(SETTLE_WINDOW)).willReturn(UP_TO);
+        given(changeQuery.findChangedAfter(SINCE, Long.MAX_VALUE, UP_TO, PageRequest.ofSize(3)))
+                .willReturn(List.of(new ChangeMarkerDto(3L, FIRST_UPDATE), new ChangeMarkerDto(1L, SECOND_UPDATE), new ChangeMarkerDto(2L, SECOND_UPDATE)));
+        given(catalogEventRepository.findAggregateIdsBetween(CatalogEvent.Aggregate.BRAND, CatalogEvent.Type.DELETED, SINCE, SECOND_UPDATE))
+                .willReturn(List.of(7L));
+
+        final var changes = catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, SINCE, null, 2, changeQuery, this::load, id -> id);
+        assertThat(changes.changed()).containsExactly(3L, 1L);
+        assertThat(changes.deletedIds()).containsExactly(7L);
+        assertThat(changes.watermark()).isEqualTo(SECOND_UPDATE);
+        assertThat(changes.watermarkId()).isEqualTo(1L);
+        assertThat(changes.hasMore()).isTrue();
+    }
+
+    @Test
+    void givenWatermarkWithinTimestampGroup_whenGetChangedSince_thenContinuesAfterWatermarkId() {
+        System.out.println("Testing getChangedSince method continuing within a timestamp group");
+        given(catalogSyncClock.getUpperBound(SETTLE_WINDOW)).willReturn(UP_TO);
+        given(changeQuery.findChangedAfter(SECOND_UPDATE, 1L, UP_TO, PageRequest.ofSize(2)))
+                .willReturn(List.of(new ChangeMarkerDto(2L, SECOND_UPDATE)));
+
+        final var changes = catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, SECOND_UPDATE, 1L, 1, changeQuery, this::load, id -> id);
+        assertThat(changes.changed()).containsExactly(2L);
+        assertThat(changes.watermark()).isEqualTo(UP_TO);
+        assertThat(changes.watermarkId()).isNull();
+        assertThat(changes.hasMore()).isFalse();
+        verify(changeQuery, times(1)).findChangedAfter(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenWatermarkWithinSettleWindow_whenGetChangedSince_thenReturnsNoChanges() {
+        System.out.println("Testing getChangedSince method with watermark within settle window");
+        given(catalogSyncClock.getUpperBound(SETTLE_WINDOW)).willReturn(UP_TO);
+        final var changes = catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, UP_TO, null, 10, changeQuery, this::load, id -> id);
+        assertThat(changes.changed()).isEmpty();
+        assertThat(changes.watermark()).isEqualTo(UP_TO);
+        verifyNoInteractions(changeQuery, catalogEventRepository);
+    }
+
+    @Test
+    void givenReadOnlyTransaction_whenGetChangedSince_thenKeepsTransactionOnPrimary() {
+        System.out.println("Testing getChangedSince method in a read-only transaction");
+        given(catalogSyncClock.getUpperBound(SETTLE_WINDOW)).willAnswer(invocation -> {
+            assertThat(ReplicaRoutingContext.isPrimaryRequired()).isTrue();
+            return SINCE;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, SINCE, null, 10, changeQuery, this::load, id -> id);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+        assertThat(ReplicaRoutingContext.isPrimaryRequired()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 11})
+    void givenInvalidLimit_whenGetChangedSince_thenThrowsException(int limit) {
+        System.out.println("Testing getChangedSince method with invalid limit = " + limit);
+        assertThatThrownBy(() -> catalogChangeTracker.getChangedSince(CatalogEvent.Aggregate.BRAND, SINCE, null, limit, changeQuery, this::load, id -> id))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> load(Collection<Long> ids) {
+        return ids.stream()
+                .sorted()
+                .toList();
+    }
+
+}
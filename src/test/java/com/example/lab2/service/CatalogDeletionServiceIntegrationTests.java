@@ -0,0 +1,338 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CatalogEventDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.model.Category;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "lab2.metrics.hibernate-statistics=true")
+public class CatalogDeletionServiceIntegrationTests {
+
+    @Autowired
+    private CatalogDeletionService catalogDeletionService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CatalogEventService catalogEventService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rootId;
+    private Long childId;
+    private Long grandchildId;
+    private Long fallbackCategoryId;
+    private Long brandId;
+    private Long fallbackBrandId;
+
+    @BeforeEach
+    void setUp() {
+        brandService.createAllBrands(List.of(new BrandDto(null, "Brand"), new BrandDto(null, "Fallback brand")));
+        brandId = brandId("Brand");
+        fallbackBrandId = brandId("Fallback brand");
+        categoryService.createCategory(new CategoryDto(null, "Fallback", null));
+        categoryService.createCategory(new CategoryDto(null, "Root", null));
+        fallbackCategoryId = categoryId("Fallback");
+        rootId = categoryId("Root");
+        categoryService.createCategory(new CategoryDto(null, "Child", rootId));
+        childId = categoryId("Child");
+        categoryService.createCategory(new CategoryDto(null, "Grandchild", childId));
+        grandchildId = categoryId("Grandchild");
+        productService.createProduct(productDto("Kettle", childId));
+        productService.createProduct(productDto("Toaster", grandchildId));
+        productService.createProduct(productDto("Blender", fallbackCategoryId));
+        productSearchService.getSearchIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        jdbcTemplate.update("update category set parent_category_id = null");
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAllLocally();
+        catalogEventService.deleteEventsUpTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void givenCategoryWithSubcategories_whenDeleteCategoryWithReject_thenThrowsException() {
+        System.out.println("Testing deleteCategory method with REJECT mode");
+        assertThatThrownBy(() -> catalogDeletionService.deleteCategory(rootId, CatalogDeletionService.Mode.REJECT, null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> catalogDeletionService.deleteCategory(grandchildId, CatalogDeletionService.Mode.REJECT, null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(categoryRepository.count()).isEqualTo(4);
+        assertThat(productRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void givenEmptyLeafCategory_whenDeleteCategoryWithReject_thenDeletesCategory() {
+        System.out.println("Testing deleteCategory method with REJECT mode on empty leaf");
+        categoryService.createCategory(new CategoryDto(null, "Leaf", childId));
+        final var leafId = categoryId("Leaf");
+        catalogDeletionService.deleteCategory(leafId, CatalogDeletionService.Mode.REJECT, null);
+        assertThat(categoryRepository.existsById(leafId)).isFalse();
+        assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(rootId, leafId)).isFalse();
+        assertThat(categoryService.getDescendants(rootId)).extracting(CategoryDto::id).containsExactlyInAnyOrder(childId, grandchildId);
+    }
+
+    @Test
+    void givenEmptyLeafAndCategoryWithProducts_whenDeleteCategoryThroughCategoryService_thenRejectsReferencedCategory() {
+        System.out.println("Testing CategoryService deleteCategory method");
+        categoryService.createCategory(new CategoryDto(null, "Leaf", childId));
+        final var leafId = categoryId("Leaf");
+        categoryService.deleteCategory(leafId);
+        assertThat(categoryRepository.existsById(leafId)).isFalse();
+        assertThatThrownBy(() -> categoryService.deleteCategory(grandchildId)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> brandService.deleteBrand(brandId)).isInstanceOf(IllegalStateException.class);
+        assertThat(categoryRepository.count()).isEqualTo(4);
+        assertThat(brandRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCategorySubtree_whenDeleteCategoryWithReassign_thenMovesProductsToFallback() {
+        System.out.println("Testing deleteCategory method with REASSIGN mode");
+        final var startOffset = catalogEventService.getLastOffset();
+        catalogDeletionService.deleteCategory(childId, CatalogDeletionService.Mode.REASSIGN, fallbackCategoryId);
+
+        assertThat(categoryRepository.findAll()).extracting(Category::getId).containsExactlyInAnyOrder(rootId, fallbackCategoryId);
+        assertThat(categoryClosureRepository.findAll()).allMatch(path -> path.getDescendantId() != childId && path.getDescendantId() != grandchildId);
+        assertThat(productService.findProductsInSubtree(fallbackCategoryId)).extracting(ProductDto::name)
+                .containsExactlyInAnyOrder("Kettle", "Toaster", "Blender");
+        assertThat(categoryService.getCategoryTree().contains(childId)).isFalse();
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("kettle").categoryId(fallbackCategoryId).build()))
+                .extracting(ProductDto::name)
+                .containsExactly("Kettle");
+        assertThat(catalogEventService.getEvents(startOffset, 10)).extracting(CatalogEventDto::aggregate, CatalogEventDto::type)
+                .containsExactlyInAnyOrder(
+                        tuple(CatalogEvent.Aggregate.PRODUCT, CatalogEvent.Type.UPDATED),
+                        tuple(CatalogEvent.Aggregate.PRODUCT, CatalogEvent.Type.UPDATED),
+                        tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED),
+                        tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED));
+    }
+
+    @Test
+    void givenFallbackInsideSubtree_whenDeleteCategoryWithReassign_thenThrowsException() {
+        System.out.println("Testing deleteCategory method with REASSIGN mode and fallback inside subtree");
+        assertThatThrownBy(() -> catalogDeletionService.deleteCategory(rootId, CatalogDeletionService.Mode.REASSIGN, grandchildId))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogDeletionService.deleteCategory(rootId, CatalogDeletionService.Mode.REASSIGN, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(categoryRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void givenCategorySubtree_whenDeleteCategoryWithCascade_thenDeletesSubtreeWithProducts() {
+        System.out.println("Testing deleteCategory method with CASCADE mode");
+        final var startOffset = catalogEventService.getLastOffset();
+        catalogDeletionService.deleteCategory(rootId, CatalogDeletionService.Mode.CASCADE, null);
+        final var survivor = productRepository.findAllDtos().get(0);
+        productService.updateProduct(survivor.id(), productDto("Blender", fallbackCategoryId).toBuilder().version(survivor.version()).build());
+
+        final var events = catalogEventService.getEvents(startOffset, 10);
+        assertThat(events).extracting(CatalogEventDto::offset).containsExactly(startOffset + 1, startOffset + 2, startOffset + 3, startOffset + 4, startOffset + 5, startOffset + 6);
+        assertThat(events).extracting(CatalogEventDto::aggregate, CatalogEventDto::type, CatalogEventDto::payload).startsWith(
+                tuple(CatalogEvent.Aggregate.PRODUCT, CatalogEvent.Type.DELETED, null),
+                tuple(CatalogEvent.Aggregate.PRODUCT, CatalogEvent.Type.DELETED, null),
+                tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED, null),
+                tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED, null),
+                tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED, null));
+        assertThat(events.subList(2, 5)).extracting(CatalogEventDto::aggregateId).containsExactlyInAnyOrder(rootId, childId, grandchildId);
+        assertThat(events.get(5).type()).isEqualTo(CatalogEvent.Type.UPDATED);
+        assertThat(categoryRepository.findAll()).extracting(Category::getId).containsExactly(fallbackCategoryId);
+        assertThat(categoryClosureRepository.count()).isEqualTo(1);
+        assertThat(productRepository.findAll()).extracting(product -> product.getName()).containsExactly("Blender");
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("toaster").build())).isEmpty();
+    }
+
+    @Test
+    void givenMissingCategory_whenDeleteCategory_thenThrowsException() {
+        System.out.println("Testing deleteCategory method with non-existent id");
+        assertThatThrownBy(() -> catalogDeletionService.deleteCategory(Long.MAX_VALUE, CatalogDeletionService.Mode.CASCADE, null))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void givenLargeSubtree_whenDeleteCategoryWithCascade_thenRunsConstantNumberOfQueries() {
+        System.out.println("Testing deleteCategory method with CASCADE mode on a large subtree");
+        final var categoryCount = 200;
+        categoryService.createAllCategories(IntStream.range(0, categoryCount)
+                .mapToObj(index -> new CategoryDto(null, "Large " + index, grandchildId))
+                .toList());
+        productService.createAllProducts(categoryRepository.findAll().stream()
+                .filter(category -> category.getName().startsWith("Large "))
+                .map(category -> productDto("Product of " + category.getName(), category.getId()))
+                .toList());
+        final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        catalogDeletionService.deleteCategory(rootId, CatalogDeletionService.Mode.CASCADE, null);
+        assertThat(categoryRepository.count()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(categoryCount / 4);
+    }
+
+    @Test
+    void givenBrandWithProducts_whenDeleteBrandWithReject_thenThrowsException() {
+        System.out.println("Testing deleteBrand method with REJECT mode");
+        assertThatThrownBy(() -> catalogDeletionService.deleteBrand(brandId, CatalogDeletionService.Mode.REJECT, null))
+                .isInstanceOf(IllegalStateException.class);
+        catalogDeletionService.deleteBrand(fallbackBrandId, CatalogDeletionService.Mode.REJECT, null);
+        assertThat(brandRepository.findAll()).extracting(brand -> brand.getId()).containsExactly(brandId);
+    }
+
+    @Test
+    void givenBrandWithProducts_whenDeleteBrandWithReassign_thenMovesProductsToFallback() {
+        System.out.println("Testing deleteBrand method with REASSIGN mode");
+        assertThatThrownBy(() -> catalogDeletionService.deleteBrand(brandId, CatalogDeletionService.Mode.REASSIGN, brandId))
+                .isInstanceOf(IllegalArgumentException.class);
+        catalogDeletionService.deleteBrand(brandId, CatalogDeletionService.Mode.REASSIGN, fallbackBrandId);
+        assertThat(brandRepository.existsById(brandId)).isFalse();
+        assertThat(productRepository.findAllDtos()).extracting(ProductDto::brandId).containsOnly(fallbackBrandId);
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("kettle").brandId(fallbackBrandId).build()))
+                .extracting(ProductDto::name)
+                .containsExactly("Kettle");
+    }
+
+    @Test
+    void givenBrandWithProducts_whenDeleteBrandWithCascade_thenDeletesProducts() {
+        System.out.println("Testing deleteBrand method with CASCADE mode");
+        catalogDeletionService.deleteBrand(brandId, CatalogDeletionService.Mode.CASCADE, null);
+        assertThat(brandRepository.existsById(brandId)).isFalse();
+        assertThat(productRepository.count()).isZero();
+        assertThatThrownBy(() -> catalogDeletionService.deleteBrand(brandId, CatalogDeletionService.Mode.CASCADE, null))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void givenExistingAndMissingCategoryIds_whenDeleteAllCategoriesById_thenDeletesExistingCategories() {
+        System.out.println("Testing deleteAllCategoriesById method with existing and missing ids");
+        categoryService.createCategory(new CategoryDto(null, "Leaf", grandchildId));
+        final var leafId = categoryId("Leaf");
+        categoryService.createCategory(new CategoryDto(null, "Leaf child", leafId));
+        final var leafChildId = categoryId("Leaf child");
+        final var startOffset = catalogEventService.getLastOffset();
+        categoryService.deleteAllCategoriesById(List.of(leafChildId, Long.MAX_VALUE, leafId));
+
+        assertThat(categoryRepository.findAll()).extracting(Category::getId).containsExactlyInAnyOrder(rootId, childId, grandchildId, fallbackCategoryId);
+        assertThat(categoryClosureRepository.findAll()).allMatch(path -> path.getDescendantId() != leafId && path.getDescendantId() != leafChildId);
+        assertThat(categoryService.getCategoryTree().contains(leafId)).isFalse();
+        assertThat(catalogEventService.getEvents(startOffset, 10)).extracting(CatalogEventDto::aggregate, CatalogEventDto::type, CatalogEventDto::aggregateId)
+                .containsExactly(
+                        tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED, leafId),
+                        tuple(CatalogEvent.Aggregate.CATEGORY, CatalogEvent.Type.DELETED, leafChildId));
+    }
+
+    @Test
+    void givenReferencedCategories_whenDeleteAllCategoriesById_thenThrowsException() {
+        System.out.println("Testing deleteAllCategoriesById method with referenced categories");
+        final var startOffset = catalogEventService.getLastOffset();
+        assertThatThrownBy(() -> categoryService.deleteAllCategoriesById(List.of(childId)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> categoryService.deleteAllCategoriesById(List.of(fallbackCategoryId, Long.MAX_VALUE)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(categoryRepository.count()).isEqualTo(4);
+        assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(rootId, grandchildId)).isTrue();
+        assertThat(catalogEventService.getEvents(startOffset, 10)).isEmpty();
+    }
+
+    @Test
+    void givenExistingAndMissingBrandIds_whenDeleteAllBrandsById_thenDeletesExistingBrands() {
+        System.out.println("Testing deleteAllBrandsById method with existing and missing ids");
+        final var startOffset = catalogEventService.getLastOffset();
+        brandService.deleteAllBrandsById(List.of(fallbackBrandId, Long.MAX_VALUE));
+        assertThat(brandRepository.findAll()).extracting(brand -> brand.getId()).containsExactly(brandId);
+        assertThat(catalogEventService.getEvents(startOffset, 10)).extracting(CatalogEventDto::aggregate, CatalogEventDto::type, CatalogEventDto::aggregateId)
+                .containsExactly(tuple(CatalogEvent.Aggregate.BRAND, CatalogEvent.Type.DELETED, fallbackBrandId));
+    }
+
+    @Test
+    void givenReferencedBrands_whenDeleteAllBrandsById_thenThrowsException() {
+        System.out.println("Testing deleteAllBrandsById method with referenced brands");
+        assertThatThrownBy(() -> brandService.deleteAllBrandsById(List.of(fallbackBrandId, brandId)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(brandRepository.count()).isEqualTo(2);
+    }
+
+    private Long categoryId(String name) {
+        return categoryRepository.findAll().stream()
+                .filter(category -> category.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private Long brandId(String name) {
+        return brandRepository.findAll().stream()
+                .filter(brand -> brand.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private ProductDto productDto(String name, Long categoryId) {
+        return ProductDto.builder()
+                .name(name)
+                .description("Description")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .categoryId(categoryId)
+                .brandId(brandId)
+                .build();
+    }
+
+}
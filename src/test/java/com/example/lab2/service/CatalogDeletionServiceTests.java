@@ -0,0 +1,166 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CatalogEventRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogDeletionServiceTests {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogEventRepository catalogEventRepository;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private CatalogEventPublisher catalogEventPublisher;
+    private CatalogDeletionService catalogDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        catalogDeletionService = new CatalogDeletionService(categoryRepository, categoryClosureRepository, brandRepository,
+                productRepository, catalogEventRepository, categoryService, productSearchService, catalogEventPublisher);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 2L, 3L, Long.MAX_VALUE})
+    void givenBrandId_whenDeleteBrand_thenDeletesBrand(Long id) {
+        System.out.println("Testing deleteBrand method with id = " + id);
+        given(brandRepository.existsById(id)).willReturn(true);
+        catalogDeletionService.deleteBrand(id, CatalogDeletionService.Mode.REJECT, null);
+        verify(brandRepository).deleteAllByIdInBatch(List.of(id));
+        verify(catalogEventPublisher).publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.BRAND, id, null);
+    }
+
+    @Test
+    void givenMissingBrand_whenDeleteBrand_thenThrowsException() {
+        System.out.println("Testing deleteBrand method with non-existent id");
+        assertThatThrownBy(() -> catalogDeletionService.deleteBrand(1L, CatalogDeletionService.Mode.CASCADE, null))
+                .isInstanceOf(NoSuchElementException.class);
+        verify(brandRepository, never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        verifyNoInteractions(catalogEventPublisher);
+    }
+
+    @Test
+    void givenBrandWithProducts_whenDeleteBrandWithCascade_thenRemovesPublishedProducts() {
+        System.out.println("Testing deleteBrand method with CASCADE mode");
+        given(brandRepository.existsById(1L)).willReturn(true);
+        given(catalogEventPublisher.publishAll(ArgumentMatchers.eq(CatalogEvent.Aggregate.PRODUCT), ArgumentMatchers.any()))
+                .willReturn(List.of(5L, 6L));
+        catalogDeletionService.deleteBrand(1L, CatalogDeletionService.Mode.CASCADE, null);
+        verify(productRepository).deleteAllByBrand(1L);
+        verify(productSearchService).removeProducts(List.of(5L, 6L));
+        verify(brandRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 2L, 3L, Long.MAX_VALUE})
+    void givenCategoryId_whenDeleteCategory_thenDeletesCategory(Long id) {
+        System.out.println("Testing deleteCategory method with id = " + id);
+        given(categoryRepository.findSubtreeIds(id)).willReturn(List.of(id));
+        catalogDeletionService.deleteCategory(id, CatalogDeletionService.Mode.REJECT, null);
+        verify(catalogEventPublisher).publishAll(ArgumentMatchers.eq(CatalogEvent.Aggregate.CATEGORY), ArgumentMatchers.any());
+        verify(categoryRepository).deleteSubtree(id);
+        verify(categoryClosureRepository).deleteAllPathsOfSubtree(id);
+        verify(categoryService).removeFromCategoryTree(List.of(id));
+    }
+
+    @Test
+    void givenExistingAndMissingCategoryIds_whenDeleteAllCategoriesById_thenDeletesOnlyExistingCategories() {
+        System.out.println("Testing deleteAllCategoriesById method with missing ids");
+        given(categoryRepository.findExistingIds(List.of(1L, 2L, 3L))).willReturn(List.of(1L, 3L));
+        catalogDeletionService.deleteAllCategoriesById(List.of(1L, 2L, 3L));
+        verify(catalogEventPublisher).publishAll(ArgumentMatchers.eq(CatalogEvent.Aggregate.CATEGORY), ArgumentMatchers.any());
+        verify(categoryRepository).detachAll(List.of(1L, 3L));
+        verify(categoryRepository).deleteAllByIdInBatch(List.of(1L, 3L));
+        verify(categoryClosureRepository).deleteAllPathsOfAll(List.of(1L, 3L));
+        verify(categoryService).removeFromCategoryTree(List.of(1L, 3L));
+    }
+
+    @Test
+    void givenReferencedCategories_whenDeleteAllCategoriesById_thenThrowsExceptionWithoutDeleting() {
+        System.out.println("Testing deleteAllCategoriesById method with referenced categories");
+        given(categoryRepository.findExistingIds(List.of(1L, 2L))).willReturn(List.of(1L, 2L));
+        given(productRepository.existsByCategoryIdIn(List.of(1L, 2L))).willReturn(true);
+        assertThatThrownBy(() -> catalogDeletionService.deleteAllCategoriesById(List.of(1L, 2L))).isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        verifyNoInteractions(catalogEventPublisher, categoryService);
+    }
+
+    @Test
+    void givenMissingCategoryIds_whenDeleteAllCategoriesById_thenDeletesNothing() {
+        System.out.println("Testing deleteAllCategoriesById method with only missing ids");
+        catalogDeletionService.deleteAllCategoriesById(List.of(1L));
+        verify(categoryRepository, never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        verifyNoInteractions(catalogEventPublisher, categoryService);
+    }
+
+    @Test
+    void givenExistingAndMissingBrandIds_whenDeleteAllBrandsById_thenDeletesOnlyExistingBrands() {
+        System.out.println("Testing deleteAllBrandsById method with missing ids");
+        given(brandRepository.findExistingIds(List.of(1L, 2L))).willReturn(List.of(2L));
+        catalogDeletionService.deleteAllBrandsById(List.of(1L, 2L));
+        verify(catalogEventPublisher).publishAll(ArgumentMatchers.eq(CatalogEvent.Aggregate.BRAND), ArgumentMatchers.any());
+        verify(brandRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void givenReferencedBrands_whenDeleteAllBrandsById_thenThrowsExceptionWithoutDeleting() {
+        System.out.println("Testing deleteAllBrandsById method with referenced brands");
+        given(brandRepository.findExistingIds(List.of(1L, 2L))).willReturn(List.of(1L, 2L));
+        given(productRepository.existsByBrandIdIn(List.of(1L, 2L))).willReturn(true);
+        assertThatThrownBy(() -> catalogDeletionService.deleteAllBrandsById(List.of(1L, 2L))).isInstanceOf(IllegalStateException.class);
+        verify(brandRepository, never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        verifyNoInteractions(catalogEventPublisher);
+    }
+
+    @Test
+    void givenCategorySubtree_whenDeleteCategoryWithReassign_thenReassignsPublishedProducts() {
+        System.out.println("Testing deleteCategory method with REASSIGN mode");
+        given(categoryRepository.findSubtreeIds(1L)).willReturn(List.of(1L, 2L));
+        given(categoryRepository.existsById(3L)).willReturn(true);
+        given(catalogEventPublisher.publishAll(ArgumentMatchers.eq(CatalogEvent.Aggregate.PRODUCT), ArgumentMatchers.any()))
+                .willReturn(List.of(5L, 6L));
+        catalogDeletionService.deleteCategory(1L, CatalogDeletionService.Mode.REASSIGN, 3L);
+        verify(productRepository).reassignCategorySubtree(1L, 3L);
+        verify(productSearchService).reassignProducts(List.of(5L, 6L), 3L, null);
+        verify(categoryService).removeFromCategoryTree(List.of(1L, 2L));
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.BrandPatchDto;
+import com.example.lab2.dto.CatalogEventDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.BrandRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class CatalogEventServiceIntegrationTests {
+
+    @Autowired
+    private CatalogEventService catalogEventService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CatalogDeletionService catalogDeletionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long startOffset;
+
+    @BeforeEach
+    void setUp() {
+        startOffset = catalogEventService.getLastOffset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        brandRepository.deleteAllInBatch();
+        catalogCacheService.evictAll();
+        catalogEventService.deleteEventsUpTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void givenBrandChanges_whenGetEvents_thenReturnsOneEventPerChangeInOrder() {
+        System.out.println("Testing getEvents method");
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        final var id = brandRepository.findAll().get(0).getId();
+        brandService.patchBrand(id, new BrandPatchDto(0L, "Renamed brand"));
+        catalogDeletionService.deleteBrand(id, CatalogDeletionService.Mode.REJECT, null);
+
+        final var events = catalogEventService.getEvents(startOffset, 10);
+        assertThat(events).extracting(CatalogEventDto::offset).containsExactly(startOffset + 1, startOffset + 2, startOffset + 3);
+        assertThat(events).extracting(CatalogEventDto::type)
+                .containsExactly(CatalogEvent.Type.CREATED, CatalogEvent.Type.UPDATED, CatalogEvent.Type.DELETED);
+        assertThat(events).extracting(CatalogEventDto::aggregate).containsOnly(CatalogEvent.Aggregate.BRAND);
+        assertThat(events).extracting(CatalogEventDto::aggregateId).containsOnly(id);
+        assertThat(events).extracting(CatalogEventDto::payload)
+                .containsExactly("{\"id\":" + id + ",\"name\":\"Brand\",\"version\":0}", "{\"id\":" + id + ",\"name\":\"Renamed brand\",\"version\":1}", null);
+        assertThat(catalogEventService.getLastOffset()).isEqualTo(startOffset + 3);
+    }
+
+    @Test
+    void givenRolledBackChanges_whenGetEvents_thenReturnsNoEvents() {
+        System.out.println("Testing getEvents method after rollback");
+        transactionTemplate.executeWithoutResult(status -> {
+            brandService.createBrand(new BrandDto(null, "Brand"));
+            status.setRollbackOnly();
+        });
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        assertThatThrownBy(() -> brandService.createBrand(new BrandDto(null, "Brand"))).isInstanceOf(IllegalStateException.class);
+
+        assertThat(catalogEventService.getEvents(startOffset, 10)).extracting(CatalogEventDto::offset).containsExactly(startOffset + 1);
+    }
+
+    @Test
+    void givenManyEvents_whenConsumeEvents_thenHandsOutBatchesUntilConsumerStops() {
+        System.out.println("Testing consumeEvents method");
+        brandService.createAllBrands(IntStream.rangeClosed(1, 25)
+                .mapToObj(index -> new BrandDto(null, "Brand " + index))
+                .toList());
+
+        final var batchSizes = new ArrayList<Integer>();
+        assertThat(catalogEventService.consumeEvents(startOffset, 10, events -> batchSizes.add(events.size()))).isEqualTo(startOffset + 25);
+        assertThat(batchSizes).containsExactly(10, 10, 5);
+
+        final var offset = catalogEventService.consumeEvents(startOffset, 10, events -> false);
+        assertThat(offset).isEqualTo(startOffset + 10);
+        assertThat(catalogEventService.getEvents(offset, 100)).hasSize(15);
+        assertThatThrownBy(() -> catalogEventService.getEvents(offset, CatalogEventService.MAX_BATCH_SIZE + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenConcurrentWriters_whenConsumeEvents_thenNeverSkipsAnOffset() {
+        System.out.println("Testing consumeEvents method with concurrent writers");
+        final var writerCount = 8;
+        final var brandsPerWriter = 25;
+        final var consumedOffsets = new ArrayList<Long>();
+        final var writersDone = new AtomicBoolean();
+        try (final var executor = Executors.newFixedThreadPool(writerCount + 1)) {
+            final var consumer = CompletableFuture.runAsync(() -> {
+                var offset = startOffset;
+                while (!writersDone.get()) {
+                    offset = catalogEventService.consumeEvents(offset, 7, events -> consumedOffsets.addAll(offsetsOf(events)));
+                }
+                catalogEventService.consumeEvents(offset, 7, events -> consumedOffsets.addAll(offsetsOf(events)));
+            }, executor);
+            CompletableFuture.allOf(IntStream.range(0, writerCount)
+                    .mapToObj(writer -> CompletableFuture.runAsync(() -> IntStream.range(0, brandsPerWriter)
+                            .forEach(index -> brandService.createBrand(new BrandDto(null, "Brand " + writer + "-" + index))), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+            writersDone.set(true);
+            consumer.join();
+        }
+
+        assertThat(consumedOffsets).containsExactlyElementsOf(LongStream.rangeClosed(startOffset + 1, startOffset + writerCount * brandsPerWriter)
+                .boxed()
+                .toList());
+    }
+
+    private static List<Long> offsetsOf(List<CatalogEventDto> events) {
+        return events.stream()
+                .map(CatalogEventDto::offset)
+                .toList();
+    }
+
+}
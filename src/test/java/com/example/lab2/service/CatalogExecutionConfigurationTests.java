@@ -0,0 +1,17 @@
+package com.example.lab2.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogExecutionConfigurationTests {
+
+    @Test
+    void givenProtocolHandlerCustomizer_whenDestroy_thenClosesRequestExecutor() {
+        System.out.println("Testing the virtual request executor being closed on shutdown");
+        final var customizer = new CatalogExecutionConfiguration().virtualThreadProtocolHandlerCustomizer();
+        customizer.destroy();
+        assertThat(customizer.isShutdown()).isTrue();
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.repository.BrandRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class CatalogExecutorIntegrationTests {
+
+    private static final int CALLER_COUNT = 1000;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int connectionPoolSize;
+
+    @BeforeEach
+    void setUp() {
+        brandService.createBrand(new BrandDto(null, "Executor brand"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        brandRepository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @EnumSource(CatalogExecutionProperties.Mode.class)
+    void givenThousandConcurrentCallers_whenCallingService_thenAllCallsGetConnection(CatalogExecutionProperties.Mode mode) {
+        System.out.println("Testing " + CALLER_COUNT + " concurrent service calls in " + mode + " mode");
+        final var catalogExecutor = new CatalogExecutor(new CatalogExecutionProperties(mode, 64, connectionPoolSize));
+        try {
+            final var start = System.nanoTime();
+            final var results = catalogExecutor.mapAll(IntStream.range(0, CALLER_COUNT).boxed().toList(),
+                    index -> brandService.getAllBrands().size());
+            final var elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            System.out.println(mode + " mode: " + CALLER_COUNT * 1000L / elapsedMillis + " calls/s");
+            assertThat(results).hasSize(CALLER_COUNT).containsOnly(1);
+        } finally {
+            catalogExecutor.destroy();
+        }
+    }
+
+}
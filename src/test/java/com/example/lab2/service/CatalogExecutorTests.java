@@ -0,0 +1,68 @@
+package com.example.lab2.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CatalogExecutorTests {
+
+    private static final int DATABASE_CONCURRENCY = 4;
+
+    private CatalogExecutor catalogExecutor;
+
+    @AfterEach
+    void tearDown() {
+        catalogExecutor.destroy();
+    }
+
+    @ParameterizedTest
+    @EnumSource(CatalogExecutionProperties.Mode.class)
+    void givenManyTasks_whenMapAll_thenRunsOnExpectedThreadsAndKeepsOrder(CatalogExecutionProperties.Mode mode) {
+        System.out.println("Testing mapAll method in " + mode + " mode");
+        catalogExecutor = new CatalogExecutor(new CatalogExecutionProperties(mode, 8, DATABASE_CONCURRENCY));
+        final var results = catalogExecutor.mapAll(IntStream.range(0, 100).boxed().toList(),
+                index -> index + ":" + Thread.currentThread().isVirtual());
+        assertThat(results).containsExactlyElementsOf(IntStream.range(0, 100)
+                .mapToObj(index -> index + ":" + (mode == CatalogExecutionProperties.Mode.VIRTUAL))
+                .toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CatalogExecutionProperties.Mode.class)
+    void givenManyBlockingTasks_whenMapAll_thenLimitsConcurrencyToDatabasePermits(CatalogExecutionProperties.Mode mode) {
+        System.out.println("Testing database concurrency limit in " + mode + " mode");
+        catalogExecutor = new CatalogExecutor(new CatalogExecutionProperties(mode, 16, DATABASE_CONCURRENCY));
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        catalogExecutor.mapAll(IntStream.range(0, 200).boxed().toList(), index -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return running.decrementAndGet();
+        });
+        assertThat(maxRunning.get()).isBetween(1, DATABASE_CONCURRENCY);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CatalogExecutionProperties.Mode.class)
+    void givenFailingTask_whenMapAll_thenRethrowsOriginalException(CatalogExecutionProperties.Mode mode) {
+        System.out.println("Testing mapAll method with failing task in " + mode + " mode");
+        catalogExecutor = new CatalogExecutor(new CatalogExecutionProperties(mode, 2, DATABASE_CONCURRENCY));
+        assertThatThrownBy(() -> catalogExecutor.mapAll(IntStream.range(0, 10).boxed().toList(), index -> {
+            if (index == 5) {
+                throw new IllegalStateException("Task " + index + " failed");
+            }
+            return index;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Task 5 failed");
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.example.lab2.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a PostgreSQL container and is skipped when Docker is not available.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Testcontainers(disabledWithoutDocker = true)
+public class CatalogSyncClockIntegrationTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CatalogSyncClock catalogSyncClock;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void givenOpenTransaction_whenGetUpperBound_thenStaysBelowItsStart() throws Exception {
+        System.out.println("Testing getUpperBound method with an open transaction");
+        try (final var connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+            connection.setAutoCommit(false);
+            final Instant transactionStart;
+            try (final var statement = connection.createStatement();
+                 final var resultSet = statement.executeQuery("select now()")) {
+                resultSet.next();
+                transactionStart = resultSet.getTimestamp(1).toInstant();
+            }
+            Thread.sleep(50);
+
+            assertThat(upperBound()).isBefore(transactionStart);
+            connection.commit();
+            assertThat(upperBound()).isAfter(transactionStart);
+        }
+    }
+
+    @Test
+    void givenNoOpenTransaction_whenGetUpperBound_thenTrailsDatabaseClockBySettleWindow() {
+        System.out.println("Testing getUpperBound method without open transactions");
+        final var before = Instant.now();
+        assertThat(catalogSyncClock.getUpperBound(Duration.ofHours(1))).isBefore(before.minus(Duration.ofMinutes(59)));
+    }
+
+    private Instant upperBound() {
+        return transactionTemplate.execute(status -> catalogSyncClock.getUpperBound(Duration.ZERO));
+    }
+
+}
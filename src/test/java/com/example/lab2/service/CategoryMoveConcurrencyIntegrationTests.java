@@ -0,0 +1,79 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.model.Category;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class CategoryMoveConcurrencyIntegrationTests {
+
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @AfterEach
+    void tearDown() {
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        categoryService.resetCategoryTree();
+    }
+
+    @Test
+    void givenTwoRootCategories_whenMovedUnderEachOtherConcurrently_thenOnlyOneMoveSucceeds() throws Exception {
+        System.out.println("Testing concurrent updateCategory calls moving two categories under each other");
+        for (var round = 0; round < ROUNDS; round++) {
+            final var first = createCategory("First " + round);
+            final var second = createCategory("Second " + round);
+            final var startGate = new CountDownLatch(1);
+            final Future<Boolean> firstMove;
+            final Future<Boolean> secondMove;
+            try (final var executor = Executors.newFixedThreadPool(2)) {
+                firstMove = executor.submit(() -> move(startGate, first, second.getId()));
+                secondMove = executor.submit(() -> move(startGate, second, first.getId()));
+                startGate.countDown();
+            }
+
+            assertThat(firstMove.get() ^ secondMove.get()).isTrue();
+            assertThat(categoryClosureRepository.existsByAncestorIdAndDescendantId(first.getId(), second.getId()))
+                    .isNotEqualTo(categoryClosureRepository.existsByAncestorIdAndDescendantId(second.getId(), first.getId()));
+        }
+    }
+
+    private Category createCategory(String name) {
+        categoryService.createCategory(new CategoryDto(null, name, null));
+        return categoryRepository.findAll().stream()
+                .filter(category -> category.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private boolean move(CountDownLatch startGate, Category category, Long parentCategoryId) throws InterruptedException, ExecutionException {
+        startGate.await();
+        try {
+            categoryService.updateCategory(category.getId(), new CategoryDto(category.getId(), category.getName(), parentCategoryId, category.getVersion()));
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.CategoryPatchDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.Product;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "lab2.metrics.hibernate-statistics=true")
+@Transactional
+public class CategoryServiceIntegrationTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        createCategory("Root", null);
+        createCategory("A", "Root");
+        createCategory("A1", "A");
+        createCategory("A2", "A");
+        createCategory("A1x", "A1");
+        createCategory("B", "Root");
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void givenCategoryTree_whenGetDescendants_thenReturnsWholeSubtreeInSingleStatement() {
+        System.out.println("Testing getDescendants method");
+        final var categoryId = idOf("A");
+        final var leafCategoryId = idOf("A1x");
+        statistics.clear();
+        assertThat(categoryService.getDescendants(categoryId)).extracting(CategoryDto::name).containsExactly("A1", "A2", "A1x");
+        assertThat(categoryService.getDescendants(leafCategoryId)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCategoryTree_whenGetAncestors_thenReturnsPathFromRootInSingleStatement() {
+        System.out.println("Testing getAncestors method");
+        final var categoryId = idOf("A1x");
+        statistics.clear();
+        assertThat(categoryService.getAncestors(categoryId)).extracting(CategoryDto::name).containsExactly("Root", "A", "A1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenProductsInCategoryTree_whenFindProductsInSubtree_thenReturnsProductsOfAllDescendants() {
+        System.out.println("Testing findProductsInSubtree method");
+        final var brand = brandRepository.save(Brand.builder().name("Brand").build());
+        List.of("A", "A1x", "B").forEach(categoryName -> productRepository.save(Product.builder()
+                .name("Product in " + categoryName)
+                .description("Description")
+                .priceInCents(100L)
+                .quantity(1)
+                .category(categoryRepository.getReferenceById(idOf(categoryName)))
+                .brand(brand)
+                .build()));
+        entityManager.flush();
+        final var categoryId = idOf("A");
+        statistics.clear();
+        assertThat(productService.findProductsInSubtree(categoryId)).extracting("name").containsExactly("Product in A", "Product in A1x");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCategoryTree_whenMoveSubtree_thenUpdatesDescendantsAndAncestors() {
+        System.out.println("Testing updateCategory method moving subtree");
+        categoryService.updateCategory(idOf("A1"), new CategoryDto(null, "A1", idOf("B"), categoryService.getCategoryVersion(idOf("A1"))));
+        assertThat(categoryService.getDescendants(idOf("A"))).extracting(CategoryDto::name).containsExactly("A2");
+        assertThat(categoryService.getDescendants(idOf("B"))).extracting(CategoryDto::name).containsExactly("A1", "A1x");
+        assertThat(categoryService.getAncestors(idOf("A1x"))).extracting(CategoryDto::name).containsExactly("Root", "B", "A1");
+    }
+
+    @Test
+    void givenCategoryTree_whenMoveCategoryUnderItsDescendant_thenThrowsException() {
+        System.out.println("Testing updateCategory method with cycle");
+        final var version = categoryService.getCategoryVersion(idOf("A"));
+        assertThatThrownBy(() -> categoryService.updateCategory(idOf("A"), new CategoryDto(null, "A", idOf("A1x"), version))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> categoryService.updateCategory(idOf("A"), new CategoryDto(null, "A", idOf("A"), version))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void givenCategoryTree_whenPatchCategoryToRoot_thenDetachesSubtree() {
+        System.out.println("Testing patchCategory method moving subtree to root");
+        categoryService.patchCategory(idOf("A1"), CategoryPatchDto.builder().moveToRoot(true).build());
+        assertThat(categoryService.getDescendants(idOf("A"))).extracting(CategoryDto::name).containsExactly("A2");
+        assertThat(categoryService.getAncestors(idOf("A1x"))).extracting(CategoryDto::name).containsExactly("A1");
+        assertThat(categoryService.getCategoryById(idOf("A1")).parentCategoryId()).isNull();
+    }
+
+    @Test
+    void givenCategoryTree_whenRebuildCategoryHierarchy_thenRestoresSamePaths() {
+        System.out.println("Testing rebuildCategoryHierarchy method");
+        final var descendants = categoryService.getDescendants(idOf("Root"));
+        final var ancestors = categoryService.getAncestors(idOf("A1x"));
+        categoryService.rebuildCategoryHierarchy();
+        assertThat(categoryService.getDescendants(idOf("Root"))).isEqualTo(descendants);
+        assertThat(categoryService.getAncestors(idOf("A1x"))).isEqualTo(ancestors);
+    }
+
+    private void createCategory(String name, String parentCategoryName) {
+        categoryService.createCategory(new CategoryDto(null, name, parentCategoryName == null ? null : idOf(parentCategoryName)));
+    }
+
+    private Long idOf(String name) {
+        return categoryRepository.findAll().stream()
+                .filter(category -> category.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+}
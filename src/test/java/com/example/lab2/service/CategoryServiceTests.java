@@ -1,7 +1,10 @@
 package com.example.lab2.service;
 
 import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.CategoryLinkDto;
+import com.example.lab2.dto.CategoryPatchDto;
 import com.example.lab2.model.Category;
+import com.example.lab2.repository.CategoryClosureRepository;
 import com.example.lab2.repository.CategoryRepository;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validation;
@@ -14,15 +17,24 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +42,21 @@ public class CategoryServiceTests {
 
     @Mock
     private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Mock
+    private CatalogEventPublisher catalogEventPublisher;
+
+    @Mock
+    private CatalogChangeTracker catalogChangeTracker;
+
+    @Mock
+    private CatalogDeletionService catalogDeletionService;
+
+    @Mock
+    private ObjectProvider<CatalogDeletionService> catalogDeletionServiceProvider;
     private CategoryService categoryService;
 
     static Stream<CategoryDto> createInvalidCategoryArgs() {
@@ -57,7 +84,8 @@ public class CategoryServiceTests {
     void setUp() {
         final var validatorFactory = Validation.buildDefaultValidatorFactory();
         final var validator = validatorFactory.getValidator();
-        categoryService = new CategoryService(categoryRepository, validator);
+        categoryService = new CategoryService(categoryRepository, categoryClosureRepository, validator, catalogEventPublisher, catalogChangeTracker,
+                catalogDeletionServiceProvider);
     }
 
     @Test
@@ -101,7 +129,20 @@ public class CategoryServiceTests {
                 .parentCategoryId(null)
                 .build();
         categoryService.createCategory(categoryDto);
-        verify(categoryRepository).save(ArgumentMatchers.eq(new Category(null, categoryDto.name(), null)));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(null, categoryDto.name(), null)));
+        verify(categoryClosureRepository).insertSelfPath(null);
+        verify(categoryClosureRepository, never()).insertAncestorPaths(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenCategoryDtoWithParent_whenCreateCategory_thenLinksCategoryToAncestors() {
+        System.out.println("Testing createCategory method with parent category");
+        final var parentCategory = new Category(1L, "Category 1", null);
+        given(categoryRepository.findById(parentCategory.getId())).willReturn(Optional.of(parentCategory));
+        categoryService.createCategory(new CategoryDto(null, "Category 2", parentCategory.getId()));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(null, "Category 2", parentCategory)));
+        verify(categoryClosureRepository).insertSelfPath(null);
+        verify(categoryClosureRepository).insertAncestorPaths(null, parentCategory.getId());
     }
 
     @ParameterizedTest
@@ -115,7 +156,7 @@ public class CategoryServiceTests {
     void givenCategoryNameIsTaken_whenCreateCategory_thenThrowsException() {
         System.out.println("Testing createCategory method with taken category name");
         final var categoryName = "Category 1";
-        given(categoryRepository.existsByName(categoryName)).willReturn(true);
+        given(categoryRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Category.NAME_CONSTRAINT));
         assertThatThrownBy(() -> categoryService.createCategory(new CategoryDto(null, categoryName, null))).isInstanceOf(IllegalStateException.class);
     }
 
@@ -124,10 +165,18 @@ public class CategoryServiceTests {
         System.out.println("Testing updateCategory method");
         final var id = 1L;
         final var categoryName = "Category 1";
-        given(categoryRepository.findById(id)).willReturn(Optional.of(new Category(id, categoryName, null)));
+        given(categoryRepository.findById(id)).willReturn(Optional.of(versioned(new Category(id, categoryName, null), 0L)));
         final var newCategoryName = "Category 2";
-        categoryService.updateCategory(id, new CategoryDto(id, newCategoryName, null));
-        verify(categoryRepository).save(ArgumentMatchers.eq(new Category(id, newCategoryName, null)));
+        categoryService.updateCategory(id, new CategoryDto(id, newCategoryName, null, 0L));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(id, newCategoryName, null)));
+    }
+
+    @Test
+    void givenNoVersion_whenUpdateCategory_thenThrowsException() {
+        System.out.println("Testing updateCategory method without version");
+        given(categoryRepository.findById(1L)).willReturn(Optional.of(versioned(new Category(1L, "Category 1", null), 0L)));
+        assertThatThrownBy(() -> categoryService.updateCategory(1L, new CategoryDto(1L, "Category 2", null))).isInstanceOf(IllegalArgumentException.class);
+        verify(categoryRepository, never()).saveAndFlush(ArgumentMatchers.any());
     }
 
     @ParameterizedTest
@@ -150,8 +199,312 @@ public class CategoryServiceTests {
     @ValueSource(longs = {1L, 2L, 3L, Long.MAX_VALUE})
     void givenCategoryId_whenDeleteCategory_thenDeletesCategory(Long id) {
         System.out.println("Testing deleteCategory method with id = " + id);
+        given(catalogDeletionServiceProvider.getObject()).willReturn(catalogDeletionService);
         categoryService.deleteCategory(id);
-        verify(categoryRepository).deleteById(id);
+        verify(catalogDeletionService).deleteCategory(id, CatalogDeletionService.Mode.REJECT, null);
+    }
+
+    @Test
+    void givenCategoryId_whenGetDescendants_thenReturnsDescendants() {
+        System.out.println("Testing getDescendants method");
+        final var descendants = List.of(new CategoryDto(2L, "Category 2", 1L), new CategoryDto(3L, "Category 3", 2L));
+        given(categoryRepository.findDescendants(1L)).willReturn(descendants);
+        assertThat(categoryService.getDescendants(1L)).isEqualTo(descendants);
+    }
+
+    @Test
+    void givenCategoryId_whenGetAncestors_thenReturnsAncestors() {
+        System.out.println("Testing getAncestors method");
+        final var ancestors = List.of(new CategoryDto(1L, "Category 1", null), new CategoryDto(2L, "Category 2", 1L));
+        given(categoryRepository.findAncestors(3L)).willReturn(ancestors);
+        assertThat(categoryService.getAncestors(3L)).isEqualTo(ancestors);
+    }
+
+    @Test
+    void givenNewParentCategory_whenUpdateCategory_thenMovesSubtree() {
+        System.out.println("Testing updateCategory method with new parent category");
+        final var id = 2L;
+        final var newParentCategory = new Category(3L, "Category 3", null);
+        given(categoryRepository.findById(id)).willReturn(Optional.of(versioned(new Category(id, "Category 2", new Category(1L, "Category 1", null)), 0L)));
+        given(categoryRepository.findById(newParentCategory.getId())).willReturn(Optional.of(newParentCategory));
+        categoryService.updateCategory(id, new CategoryDto(id, "Category 2", newParentCategory.getId(), 0L));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(id, "Category 2", newParentCategory)));
+        verify(categoryClosureRepository).deleteSubtreeAncestorPaths(id);
+        verify(categoryClosureRepository).insertSubtreeAncestorPaths(id, newParentCategory.getId());
+    }
+
+    @Test
+    void givenNoParentCategory_whenUpdateCategory_thenDetachesSubtree() {
+        System.out.println("Testing updateCategory method moving category to root");
+        final var id = 2L;
+        given(categoryRepository.findById(id)).willReturn(Optional.of(versioned(new Category(id, "Category 2", new Category(1L, "Category 1", null)), 0L)));
+        categoryService.updateCategory(id, new CategoryDto(id, "Category 2", null, 0L));
+        verify(categoryClosureRepository).deleteSubtreeAncestorPaths(id);
+        verify(categoryClosureRepository, never()).insertSubtreeAncestorPaths(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {2L, 3L})
+    void givenParentCategoryInSubtree_whenUpdateCategory_thenThrowsException(Long parentCategoryId) {
+        System.out.println("Testing updateCategory method with parent category id = " + parentCategoryId + " in subtree");
+        final var id = 2L;
+        given(categoryRepository.findById(id)).willReturn(Optional.of(versioned(new Category(id, "Category 2", null), 0L)));
+        given(categoryClosureRepository.existsByAncestorIdAndDescendantId(id, parentCategoryId)).willReturn(true);
+        assertThatThrownBy(() -> categoryService.updateCategory(id, new CategoryDto(id, "Category 2", parentCategoryId, 0L))).isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository).lockForMove(id, parentCategoryId);
+        verify(categoryRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenCategoryHierarchyWithThreeLevels_whenRebuildCategoryHierarchy_thenInsertsPathsLevelByLevel() {
+        System.out.println("Testing rebuildCategoryHierarchy method");
+        given(categoryClosureRepository.insertPathsBelowDepth(0)).willReturn(2);
+        given(categoryClosureRepository.insertPathsBelowDepth(1)).willReturn(1);
+        categoryService.rebuildCategoryHierarchy();
+        verify(categoryClosureRepository).deleteAllInBatch();
+        verify(categoryClosureRepository).insertAllSelfPaths();
+        verify(categoryClosureRepository).insertPathsBelowDepth(2);
+        verify(categoryClosureRepository, never()).insertPathsBelowDepth(3);
+    }
+
+    @Test
+    void givenCategoryLinks_whenQueryCategoryTree_thenLoadsSnapshotOnce() {
+        System.out.println("Testing category tree snapshot loading");
+        given(categoryRepository.findAllLinks()).willReturn(List.of(
+                new CategoryLinkDto(1L, null),
+                new CategoryLinkDto(2L, 1L),
+                new CategoryLinkDto(3L, 2L)
+        ));
+        assertThat(categoryService.isInSubtree(3L, 1L)).isTrue();
+        assertThat(categoryService.isInSubtree(1L, 3L)).isFalse();
+        assertThat(categoryService.getAncestorPath(3L)).containsExactly(1L, 2L);
+        verify(categoryRepository, times(1)).findAllLinks();
+    }
+
+    @Test
+    void givenLoadedCategoryTree_whenCreateAndDeleteCategory_thenUpdatesSnapshotWithoutReloading() {
+        System.out.println("Testing category tree snapshot updates on writes");
+        final var parentCategory = new Category(1L, "Category 1", null);
+        given(categoryRepository.findAllLinks()).willReturn(List.of(new CategoryLinkDto(1L, null)));
+        given(categoryRepository.findById(parentCategory.getId())).willReturn(Optional.of(parentCategory));
+        given(categoryRepository.saveAndFlush(ArgumentMatchers.any())).willAnswer(invocation -> {
+            final Category category = invocation.getArgument(0);
+            ReflectionTestUtils.setField(category, "id", 2L);
+            return category;
+        });
+        final var initialTree = categoryService.getCategoryTree();
+        categoryService.createCategory(new CategoryDto(null, "Category 2", parentCategory.getId()));
+        assertThat(categoryService.getAncestorPath(2L)).containsExactly(1L);
+        assertThat(initialTree.contains(2L)).isFalse();
+        categoryService.removeFromCategoryTree(List.of(2L));
+        assertThat(categoryService.getCategoryTree().contains(2L)).isFalse();
+        verify(categoryRepository, times(1)).findAllLinks();
+    }
+
+    @Test
+    void givenOtherDataIntegrityViolation_whenCreateCategory_thenRethrowsException() {
+        System.out.println("Testing createCategory method with other data integrity violation");
+        given(categoryRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation("fk_other"));
+        assertThatThrownBy(() -> categoryService.createCategory(new CategoryDto(null, "Category 1", null))).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void givenCategoriesData_whenCreateAllCategories_thenSavesAllCategoriesAndInsertsPathsInBulk() {
+        System.out.println("Testing createAllCategories method");
+        final var parentCategory = new Category(1L, "Category 1", null);
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(parentCategory));
+        given(categoryRepository.saveAllAndFlush(ArgumentMatchers.any())).willAnswer(invocation -> {
+            final List<Category> categories = invocation.getArgument(0);
+            for (var index = 0; index < categories.size(); index++) {
+                ReflectionTestUtils.setField(categories.get(index), "id", 2L + index);
+            }
+            return categories;
+        });
+        categoryService.createAllCategories(List.of(
+                new CategoryDto(null, "Category 2", 1L),
+                new CategoryDto(null, "Category 3", null)
+        ));
+        verify(categoryClosureRepository).insertSelfPaths(List.of(2L, 3L));
+        verify(categoryClosureRepository).insertAncestorPathsOfAll(List.of(2L, 3L));
+        verify(categoryRepository, never()).findById(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenLoadedCategoryTreeInTransaction_whenCreateAllCategories_thenPublishesOneTreeChangeAfterCommit() {
+        System.out.println("Testing createAllCategories method tree change publishing");
+        given(categoryRepository.findAllLinks()).willReturn(List.of(new CategoryLinkDto(1L, null)));
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(new Category(1L, "Category 1", null)));
+        given(categoryRepository.saveAllAndFlush(ArgumentMatchers.any())).willAnswer(invocation -> {
+            final List<Category> categories = invocation.getArgument(0);
+            for (var index = 0; index < categories.size(); index++) {
+                ReflectionTestUtils.setField(categories.get(index), "id", 2L + index);
+            }
+            return categories;
+        });
+        final var initialTree = categoryService.getCategoryTree();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            categoryService.createAllCategories(List.of(
+                    new CategoryDto(null, "Category 2", 1L),
+                    new CategoryDto(null, "Category 3", null)
+            ));
+            categoryService.removeFromCategoryTree(List.of(3L));
+            final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertThat(synchronizations).hasSize(1);
+            assertThat(categoryService.getCategoryTree()).isSameAs(initialTree);
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+        assertThat(categoryService.getAncestorPath(2L)).containsExactly(1L);
+        assertThat(categoryService.getCategoryTree().contains(3L)).isFalse();
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+        verify(categoryRepository, times(1)).findAllLinks();
+    }
+
+    @Test
+    void givenDuplicatedCategoryNames_whenCreateAllCategories_thenThrowsException() {
+        System.out.println("Testing createAllCategories method with duplicated names");
+        assertThatThrownBy(() -> categoryService.createAllCategories(List.of(
+                new CategoryDto(null, "Category 1", null),
+                new CategoryDto(null, "Category 1", null)
+        ))).isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenCategoryNameIsTaken_whenCreateAllCategories_thenThrowsException() {
+        System.out.println("Testing createAllCategories method with taken name");
+        given(categoryRepository.saveAllAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Category.NAME_CONSTRAINT));
+        assertThatThrownBy(() -> categoryService.createAllCategories(List.of(new CategoryDto(null, "Category 1", null))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(categoryClosureRepository, never()).insertSelfPaths(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenCategoriesData_whenUpdateAllCategories_thenMovesOnlyCategoriesWithNewParent() {
+        System.out.println("Testing updateAllCategories method");
+        final var rootCategory = new Category(1L, "Category 1", null);
+        final var newParentCategory = new Category(4L, "Category 4", null);
+        given(categoryRepository.findAllById(Set.of(2L, 3L))).willReturn(List.of(
+                versioned(new Category(2L, "Category 2", rootCategory), 0L),
+                versioned(new Category(3L, "Category 3", rootCategory), 1L)
+        ));
+        given(categoryRepository.findAllById(Set.of(1L, 4L))).willReturn(List.of(rootCategory, newParentCategory));
+        categoryService.updateAllCategories(List.of(
+                new CategoryDto(2L, "Category 5", 1L, 0L),
+                new CategoryDto(3L, "Category 3", 4L, 1L)
+        ));
+        verify(categoryClosureRepository, never()).deleteSubtreeAncestorPaths(2L);
+        verify(categoryClosureRepository).deleteSubtreeAncestorPaths(3L);
+        verify(categoryClosureRepository).insertSubtreeAncestorPaths(3L, 4L);
+        verify(categoryRepository).saveAllAndFlush(ArgumentMatchers.argThat(categories -> Set.copyOf((Collection<?>) categories).equals(Set.of(
+                new Category(2L, "Category 5", rootCategory),
+                new Category(3L, "Category 3", newParentCategory)
+        ))));
+    }
+
+    @Test
+    void givenParentCategoryInSubtree_whenUpdateAllCategories_thenThrowsException() {
+        System.out.println("Testing updateAllCategories method with parent category in subtree");
+        final var childCategory = new Category(3L, "Category 3", null);
+        given(categoryRepository.findAllById(Set.of(2L))).willReturn(List.of(versioned(new Category(2L, "Category 2", null), 0L)));
+        given(categoryRepository.findAllById(Set.of(3L))).willReturn(List.of(childCategory));
+        given(categoryClosureRepository.existsByAncestorIdAndDescendantId(2L, 3L)).willReturn(true);
+        assertThatThrownBy(() -> categoryService.updateAllCategories(List.of(new CategoryDto(2L, "Category 2", 3L, 0L))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateAllCategories_thenThrowsExceptionWithoutSaving() {
+        System.out.println("Testing updateAllCategories method with stale version");
+        given(categoryRepository.findAllById(Set.of(2L))).willReturn(List.of(versioned(new Category(2L, "Category 2", null), 1L)));
+        assertThatThrownBy(() -> categoryService.updateAllCategories(List.of(new CategoryDto(2L, "Category 3", null, 0L))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenLoadedCategoryTree_whenRemoveFromCategoryTree_thenUpdatesSnapshot() {
+        System.out.println("Testing removeFromCategoryTree method");
+        given(categoryRepository.findAllLinks()).willReturn(List.of(
+                new CategoryLinkDto(1L, null),
+                new CategoryLinkDto(2L, 1L),
+                new CategoryLinkDto(3L, 1L)
+        ));
+        categoryService.getCategoryTree();
+        categoryService.removeFromCategoryTree(List.of(2L, 3L));
+        verify(categoryRepository, times(1)).findAllLinks();
+        assertThat(categoryService.getCategoryTree().size()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCategoryIds_whenDeleteAllCategoriesById_thenDeletesThroughDeletionService() {
+        System.out.println("Testing deleteAllCategoriesById method");
+        given(catalogDeletionServiceProvider.getObject()).willReturn(catalogDeletionService);
+        categoryService.deleteAllCategoriesById(List.of(2L, 3L));
+        verify(catalogDeletionService).deleteAllCategoriesById(List.of(2L, 3L));
+    }
+
+    @Test
+    void givenCategoryNamePatch_whenPatchCategory_thenKeepsParentCategory() {
+        System.out.println("Testing patchCategory method with new name");
+        final var parentCategory = new Category(1L, "Category 1", null);
+        given(categoryRepository.findById(2L)).willReturn(Optional.of(new Category(2L, "Category 2", parentCategory)));
+        given(categoryRepository.findById(1L)).willReturn(Optional.of(parentCategory));
+        categoryService.patchCategory(2L, new CategoryPatchDto(null, "Category 3", null, null));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(2L, "Category 3", parentCategory)));
+        verify(categoryClosureRepository, never()).deleteSubtreeAncestorPaths(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenCategoryParentPatch_whenPatchCategory_thenMovesSubtreeAndKeepsName() {
+        System.out.println("Testing patchCategory method with new parent category");
+        final var newParentCategory = new Category(3L, "Category 3", null);
+        given(categoryRepository.findById(2L)).willReturn(Optional.of(new Category(2L, "Category 2", null)));
+        given(categoryRepository.findById(3L)).willReturn(Optional.of(newParentCategory));
+        categoryService.patchCategory(2L, new CategoryPatchDto(null, null, 3L, null));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(2L, "Category 2", newParentCategory)));
+        verify(categoryClosureRepository).deleteSubtreeAncestorPaths(2L);
+        verify(categoryClosureRepository).insertSubtreeAncestorPaths(2L, 3L);
+    }
+
+    @Test
+    void givenMoveToRootPatch_whenPatchCategory_thenDetachesSubtreeAndKeepsName() {
+        System.out.println("Testing patchCategory method moving category to root");
+        given(categoryRepository.findById(2L)).willReturn(Optional.of(new Category(2L, "Category 2", new Category(1L, "Category 1", null))));
+        categoryService.patchCategory(2L, new CategoryPatchDto(null, null, null, true));
+        verify(categoryRepository).saveAndFlush(ArgumentMatchers.eq(new Category(2L, "Category 2", null)));
+        verify(categoryClosureRepository).deleteSubtreeAncestorPaths(2L);
+        verify(categoryClosureRepository, never()).insertSubtreeAncestorPaths(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenMoveToRootWithParent_whenPatchCategory_thenThrowsException() {
+        System.out.println("Testing patchCategory method moving category to root and under a parent");
+        assertThatThrownBy(() -> categoryService.patchCategory(2L, new CategoryPatchDto(null, null, 3L, true))).isInstanceOf(IllegalArgumentException.class);
+        verify(categoryRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchCategory_thenThrowsException() {
+        System.out.println("Testing patchCategory method with stale version");
+        given(categoryRepository.findById(2L)).willReturn(Optional.of(versioned(new Category(2L, "Category 2", null), 1L)));
+        assertThatThrownBy(() -> categoryService.patchCategory(2L, new CategoryPatchDto(0L, "Category 3", null, null))).isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    private static Category versioned(Category category, Long version) {
+        ReflectionTestUtils.setField(category, "version", version);
+        return category;
+    }
+
+    private static DataIntegrityViolationException nameConstraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("Unique index or primary key violation",
+                new org.hibernate.exception.ConstraintViolationException("Unique index or primary key violation", null, constraintName.toUpperCase()));
     }
 
 }
@@ -0,0 +1,132 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CategoryLinkDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CategoryTreeSnapshotTests {
+
+    private CategoryTreeSnapshot categoryTree;
+
+    @BeforeEach
+    void setUp() {
+        categoryTree = CategoryTreeSnapshot.of(List.of(
+                new CategoryLinkDto(1L, null),
+                new CategoryLinkDto(2L, 1L),
+                new CategoryLinkDto(3L, 1L),
+                new CategoryLinkDto(4L, 2L),
+                new CategoryLinkDto(5L, 4L),
+                new CategoryLinkDto(10L, null),
+                new CategoryLinkDto(11L, 10L)
+        ));
+    }
+
+    @Test
+    void givenCategoryTree_whenGetAncestorPath_thenReturnsPathFromRoot() {
+        System.out.println("Testing getAncestorPath method");
+        assertThat(categoryTree.getAncestorPath(5L)).containsExactly(1L, 2L, 4L);
+        assertThat(categoryTree.getAncestorPath(11L)).containsExactly(10L);
+        assertThat(categoryTree.getAncestorPath(1L)).isEmpty();
+        assertThat(categoryTree.getDepth(5L)).isEqualTo(3);
+        assertThat(categoryTree.getParentId(1L)).isEqualTo(CategoryTreeSnapshot.NO_PARENT);
+    }
+
+    @Test
+    void givenCategoryTree_whenIsInSubtree_thenChecksSubtreeMembership() {
+        System.out.println("Testing isInSubtree method");
+        assertThat(categoryTree.isInSubtree(5L, 1L)).isTrue();
+        assertThat(categoryTree.isInSubtree(5L, 2L)).isTrue();
+        assertThat(categoryTree.isInSubtree(5L, 5L)).isTrue();
+        assertThat(categoryTree.isInSubtree(5L, 3L)).isFalse();
+        assertThat(categoryTree.isInSubtree(1L, 5L)).isFalse();
+        assertThat(categoryTree.isInSubtree(11L, 1L)).isFalse();
+        assertThat(categoryTree.isInSubtree(99L, 1L)).isFalse();
+    }
+
+    @Test
+    void givenCategoryTree_whenGetSubtreeAndChildIds_thenReturnsIdsInPreorder() {
+        System.out.println("Testing getSubtreeIds and getChildIds methods");
+        assertThat(categoryTree.getSubtreeIds(1L)).containsExactly(1L, 2L, 4L, 5L, 3L);
+        assertThat(categoryTree.getSubtreeIds(10L)).containsExactly(10L, 11L);
+        assertThat(categoryTree.getChildIds(1L)).containsExactly(2L, 3L);
+        assertThat(categoryTree.getChildIds(5L)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 6L, Long.MAX_VALUE})
+    void givenUnknownCategoryId_whenGetAncestorPath_thenThrowsException(long id) {
+        System.out.println("Testing getAncestorPath method with unknown id = " + id);
+        assertThatThrownBy(() -> categoryTree.getAncestorPath(id)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenCategoryTree_whenWithCategory_thenReturnsChangedCopy() {
+        System.out.println("Testing withCategory method");
+        final var changedTree = categoryTree
+                .withCategory(6L, 3L)
+                .withCategory(2L, 10L);
+        assertThat(changedTree.getAncestorPath(6L)).containsExactly(1L, 3L);
+        assertThat(changedTree.getAncestorPath(5L)).containsExactly(10L, 2L, 4L);
+        assertThat(changedTree.getSubtreeIds(1L)).containsExactly(1L, 3L, 6L);
+        assertThat(categoryTree.contains(6L)).isFalse();
+        assertThat(categoryTree.getAncestorPath(5L)).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void givenCategoryTree_whenWithoutCategories_thenRemovesCategoriesAndOrphansBecomeRoots() {
+        System.out.println("Testing withoutCategories method");
+        final var changedTree = categoryTree.withoutCategories(2L, 11L);
+        assertThat(changedTree.size()).isEqualTo(5);
+        assertThat(changedTree.contains(2L)).isFalse();
+        assertThat(changedTree.getAncestorPath(5L)).containsExactly(4L);
+        assertThat(changedTree.getChildIds(10L)).isEmpty();
+    }
+
+    @Test
+    void givenCategoryTree_whenWithChanges_thenAppliesAllChangesAtOnce() {
+        System.out.println("Testing withChanges method");
+        final var changedTree = categoryTree.withChanges(Map.of(6L, 3L, 7L, 6L, 4L, 10L, 12L, 2L), 2L, 12L);
+        assertThat(changedTree.size()).isEqualTo(8);
+        assertThat(changedTree.getAncestorPath(7L)).containsExactly(1L, 3L, 6L);
+        assertThat(changedTree.getAncestorPath(5L)).containsExactly(10L, 4L);
+        assertThat(changedTree.contains(2L)).isFalse();
+        assertThat(changedTree.contains(12L)).isFalse();
+        assertThat(categoryTree.getAncestorPath(5L)).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void givenRandomCategoryTree_whenQueried_thenMatchesParentLinks() {
+        System.out.println("Testing snapshot queries against random parent links");
+        final var random = new Random(42);
+        final var categoryLinks = new ArrayList<CategoryLinkDto>();
+        final var parentIds = new HashMap<Long, Long>();
+        for (var id = 1L; id <= 2000L; id++) {
+            final var parentId = id == 1L || random.nextInt(20) == 0 ? null : 1L + random.nextInt((int) id - 1);
+            categoryLinks.add(new CategoryLinkDto(id, parentId));
+            parentIds.put(id, parentId);
+        }
+        final var randomTree = CategoryTreeSnapshot.of(categoryLinks);
+        for (var i = 0; i < 500; i++) {
+            final long id = 1L + random.nextInt(2000);
+            final long ancestorId = 1L + random.nextInt(2000);
+            final var path = new ArrayList<Long>();
+            for (var parentId = parentIds.get(id); parentId != null; parentId = parentIds.get(parentId)) {
+                path.add(0, parentId);
+            }
+            assertThat(randomTree.getAncestorPath(id)).containsExactly(path.stream().mapToLong(Long::longValue).toArray());
+            assertThat(randomTree.isInSubtree(id, ancestorId)).isEqualTo(id == ancestorId || path.contains(ancestorId));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.example.lab2.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DatabasePermitDataSourceTests {
+
+    private static final int DATABASE_CONCURRENCY = 2;
+
+    @Mock
+    private DataSource targetDataSource;
+    @Mock
+    private Connection targetConnection;
+
+    private DatabasePermits databasePermits;
+    private DatabasePermitDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        databasePermits = new DatabasePermits(new CatalogExecutionProperties(CatalogExecutionProperties.Mode.VIRTUAL, 1, DATABASE_CONCURRENCY));
+        dataSource = new DatabasePermitDataSource(targetDataSource, databasePermits);
+    }
+
+    @Test
+    void givenOpenConnection_whenClose_thenHoldsPermitUntilClosedOnce() throws SQLException {
+        System.out.println("Testing getConnection method holding a database permit until close");
+        given(targetDataSource.getConnection()).willReturn(targetConnection);
+        final var connection = dataSource.getConnection();
+        assertThat(databasePermits.availablePermits()).isEqualTo(DATABASE_CONCURRENCY - 1);
+        assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(targetConnection);
+        connection.close();
+        connection.close();
+        assertThat(databasePermits.availablePermits()).isEqualTo(DATABASE_CONCURRENCY);
+        verify(targetConnection, times(1)).close();
+    }
+
+    @Test
+    void givenThreadHoldingPermit_whenGetConnection_thenDoesNotTakeAnotherPermit() throws SQLException {
+        System.out.println("Testing getConnection method reusing the permit held by the thread");
+        given(targetDataSource.getConnection()).willReturn(targetConnection);
+        databasePermits.acquire();
+        try (final var ignored = dataSource.getConnection(); final var nested = dataSource.getConnection()) {
+            assertThat(databasePermits.availablePermits()).isEqualTo(DATABASE_CONCURRENCY - 1);
+        } finally {
+            databasePermits.release();
+        }
+        assertThat(databasePermits.availablePermits()).isEqualTo(DATABASE_CONCURRENCY);
+    }
+
+    @Test
+    void givenFailingTargetDataSource_whenGetConnection_thenReleasesPermit() throws SQLException {
+        System.out.println("Testing getConnection method releasing the permit on failure");
+        given(targetDataSource.getConnection()).willThrow(new SQLException("Connection is not available"));
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThat(databasePermits.availablePermits()).isEqualTo(DATABASE_CONCURRENCY);
+    }
+
+}
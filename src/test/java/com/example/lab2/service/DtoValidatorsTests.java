@@ -0,0 +1,129 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoValidatorsTests {
+
+    private static final String LONG_NAME = "a".repeat(DtoValidators.MAX_NAME_LENGTH);
+    private static final String LONG_DESCRIPTION = "a".repeat(DtoValidators.MAX_DESCRIPTION_LENGTH);
+
+    private static Validator validator;
+
+    static Stream<ProductDto> createProductArgs() {
+        final var valid = ProductDto.builder()
+                .name("Product")
+                .description("Description")
+                .price(new BigDecimal("0.01"))
+                .quantity(0)
+                .categoryId(1L)
+                .brandId(1L)
+                .build();
+        return Stream.of(
+                valid,
+                copy(valid).name(LONG_NAME).description(LONG_DESCRIPTION).build(),
+                copy(valid).name(" x ").build(),
+                copy(valid).name(null).build(),
+                copy(valid).name("").build(),
+                copy(valid).name(" \t\n").build(),
+                copy(valid).name(LONG_NAME + "a").build(),
+                copy(valid).description(null).build(),
+                copy(valid).description(" ").build(),
+                copy(valid).description(LONG_DESCRIPTION + "a").build(),
+                copy(valid).price(null).build(),
+                copy(valid).price(new BigDecimal("0.0")).build(),
+                copy(valid).price(new BigDecimal("-0.01")).build(),
+                copy(valid).price(new BigDecimal("0.001")).build(),
+                copy(valid).price(new BigDecimal("1E+15")).build(),
+                copy(valid).price(new BigDecimal("999999999999999.99")).build(),
+                copy(valid).quantity(null).build(),
+                copy(valid).quantity(-1).build(),
+                copy(valid).categoryId(null).build(),
+                copy(valid).categoryId(0L).build(),
+                copy(valid).brandId(null).build(),
+                copy(valid).brandId(-1L).build()
+        );
+    }
+
+    static Stream<BrandDto> createBrandArgs() {
+        return Stream.of(
+                new BrandDto(null, "Brand"),
+                new BrandDto(1L, LONG_NAME),
+                new BrandDto(null, null),
+                new BrandDto(null, ""),
+                new BrandDto(null, "   "),
+                new BrandDto(null, LONG_NAME + "a")
+        );
+    }
+
+    static Stream<CategoryDto> createCategoryArgs() {
+        return Stream.of(
+                new CategoryDto(null, "Category", null),
+                new CategoryDto(null, "Category", 1L),
+                new CategoryDto(null, LONG_NAME, null),
+                new CategoryDto(null, null, null),
+                new CategoryDto(null, " ", null),
+                new CategoryDto(null, LONG_NAME + "a", null),
+                new CategoryDto(null, "Category", 0L),
+                new CategoryDto(null, "Category", -1L)
+        );
+    }
+
+    @BeforeAll
+    static void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @ParameterizedTest
+    @MethodSource("createProductArgs")
+    void givenProductDto_whenIsValid_thenAgreesWithValidator(ProductDto productDto) {
+        System.out.println("Testing isValid method for product: " + productDto);
+        assertThat(DtoValidators.isValid(productDto)).isEqualTo(validator.validate(productDto).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("createBrandArgs")
+    void givenBrandDto_whenIsValid_thenAgreesWithValidator(BrandDto brandDto) {
+        System.out.println("Testing isValid method for brand: " + brandDto);
+        assertThat(DtoValidators.isValid(brandDto)).isEqualTo(validator.validate(brandDto).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("createCategoryArgs")
+    void givenCategoryDto_whenIsValid_thenAgreesWithValidator(CategoryDto categoryDto) {
+        System.out.println("Testing isValid method for category: " + categoryDto);
+        assertThat(DtoValidators.isValid(categoryDto)).isEqualTo(validator.validate(categoryDto).isEmpty());
+    }
+
+    @Test
+    void givenNullDto_whenIsValid_thenDefersToValidator() {
+        System.out.println("Testing isValid method with null DTOs");
+        assertThat(DtoValidators.isValid((ProductDto) null)).isFalse();
+        assertThat(DtoValidators.isValid((BrandDto) null)).isFalse();
+        assertThat(DtoValidators.isValid((CategoryDto) null)).isFalse();
+    }
+
+    private static ProductDto.ProductDtoBuilder copy(ProductDto productDto) {
+        return ProductDto.builder()
+                .id(productDto.id())
+                .name(productDto.name())
+                .description(productDto.description())
+                .price(productDto.price())
+                .quantity(productDto.quantity())
+                .categoryId(productDto.categoryId())
+                .brandId(productDto.brandId());
+    }
+
+}
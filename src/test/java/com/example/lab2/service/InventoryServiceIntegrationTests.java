@@ -0,0 +1,143 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.dto.CategoryDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryClosureRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class InventoryServiceIntegrationTests {
+
+    private static final int WRITER_COUNT = 64;
+    private static final int RESERVATIONS_PER_WRITER = 25;
+    private static final int INITIAL_QUANTITY = 1000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        categoryService.createCategory(new CategoryDto(null, "Inventory category", null));
+        brandService.createBrand(new BrandDto(null, "Inventory brand"));
+        productService.createProduct(ProductDto.builder()
+                .name("Inventory product")
+                .description("Inventory product")
+                .price(new BigDecimal("1.0"))
+                .quantity(INITIAL_QUANTITY)
+                .categoryId(categoryRepository.findAll().get(0).getId())
+                .brandId(brandRepository.findAll().get(0).getId())
+                .build());
+        productId = productRepository.findAllDtos().get(0).id();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+        categoryClosureRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        brandRepository.deleteAllInBatch();
+        categoryService.resetCategoryTree();
+    }
+
+    @Test
+    void givenConcurrentWriters_whenReserve_thenNeverOversells() throws Exception {
+        System.out.println("Testing reserve method with " + WRITER_COUNT + " concurrent writers");
+        assertThat(reserveConcurrently(inventoryService)).isEqualTo(INITIAL_QUANTITY);
+        assertThat(productService.getProductById(productId).quantity()).isZero();
+        assertThat(inventoryService.reserve(productId, 1)).isFalse();
+    }
+
+    @Test
+    void givenWriteBufferAndConcurrentWriters_whenReserve_thenNeverOversellsAfterFlush() throws Exception {
+        System.out.println("Testing buffered reserve method with " + WRITER_COUNT + " concurrent writers");
+        final var inventoryWriteBuffer = new InventoryWriteBuffer(productRepository, transactionManager,
+                new InventoryWriteBufferProperties(true, Duration.ofMillis(100), 100, 0));
+        final var bufferedInventoryService = new InventoryService(productRepository, inventoryWriteBuffer);
+        assertThat(reserveConcurrently(bufferedInventoryService)).isEqualTo(INITIAL_QUANTITY);
+        inventoryWriteBuffer.flush();
+        assertThat(productService.getProductById(productId).quantity()).isZero();
+    }
+
+    private int reserveConcurrently(InventoryService inventoryService) throws Exception {
+        final var startGate = new CountDownLatch(1);
+        final var results = new ArrayList<Future<Integer>>();
+        try (final var executor = Executors.newFixedThreadPool(WRITER_COUNT)) {
+            for (var writer = 0; writer < WRITER_COUNT; writer++) {
+                results.add(executor.submit((Callable<Integer>) () -> {
+                    startGate.await();
+                    var reservations = 0;
+                    for (var attempt = 0; attempt < RESERVATIONS_PER_WRITER; attempt++) {
+                        if (inventoryService.reserve(productId, 1)) {
+                            reservations++;
+                        }
+                    }
+                    return reservations;
+                }));
+            }
+            startGate.countDown();
+        }
+
+        var reservations = 0;
+        for (final var result : results) {
+            reservations += result.get();
+        }
+        return reservations;
+    }
+
+    @Test
+    void givenReservedStock_whenRelease_thenStockCanBeReservedAgain() {
+        System.out.println("Testing release method");
+        assertThat(inventoryService.reserve(productId, INITIAL_QUANTITY)).isTrue();
+        assertThat(inventoryService.reserve(productId, 1)).isFalse();
+        assertThat(inventoryService.release(productId, 2)).isTrue();
+        assertThat(inventoryService.reserve(productId, 2)).isTrue();
+        assertThat(inventoryService.adjustQuantity(productId, -1)).isFalse();
+        assertThat(productService.getProductById(productId).quantity()).isZero();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.example.lab2.service;
+
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryWriteBuffer inventoryWriteBuffer;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(productRepository, inventoryWriteBuffer);
+    }
+
+    @Test
+    void givenEnoughStock_whenReserve_thenDecrementsQuantityWithSingleUpdate() {
+        System.out.println("Testing reserve method with enough stock");
+        given(productRepository.adjustQuantity(1L, -3)).willReturn(1);
+        assertThat(inventoryService.reserve(1L, 3)).isTrue();
+        verify(productRepository, never()).findById(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenNotEnoughStock_whenReserve_thenReturnsFalse() {
+        System.out.println("Testing reserve method without enough stock");
+        given(productRepository.adjustQuantity(1L, -3)).willReturn(0);
+        assertThat(inventoryService.reserve(1L, 3)).isFalse();
+    }
+
+    @Test
+    void givenQuantity_whenRelease_thenIncrementsQuantity() {
+        System.out.println("Testing release method");
+        given(productRepository.adjustQuantity(1L, 3)).willReturn(1);
+        assertThat(inventoryService.release(1L, 3)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, Integer.MIN_VALUE})
+    void givenNonPositiveQuantity_whenReserveOrRelease_thenThrowsException(int quantity) {
+        System.out.println("Testing reserve and release methods with quantity = " + quantity);
+        assertThatThrownBy(() -> inventoryService.reserve(1L, quantity)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> inventoryService.release(1L, quantity)).isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-5, 5})
+    void givenMissingProduct_whenAdjustQuantity_thenReturnsFalse(int delta) {
+        System.out.println("Testing adjustQuantity method with missing product and delta = " + delta);
+        given(productRepository.adjustQuantity(42L, delta)).willReturn(0);
+        assertThat(inventoryService.adjustQuantity(42L, delta)).isFalse();
+    }
+
+    @Test
+    void givenWriteBufferIsEnabled_whenReserve_thenBuffersChange() {
+        System.out.println("Testing reserve method with write buffer enabled");
+        given(inventoryWriteBuffer.isEnabled()).willReturn(true);
+        given(inventoryWriteBuffer.adjustQuantity(1L, -3)).willReturn(true);
+        assertThat(inventoryService.reserve(1L, 3)).isTrue();
+        verify(productRepository, never()).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+}
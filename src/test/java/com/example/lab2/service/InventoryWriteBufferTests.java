@@ -0,0 +1,228 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductQuantityDto;
+import com.example.lab2.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryWriteBufferTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void givenManyChanges_whenFlush_thenWritesSingleNetDeltaPerProduct() {
+        System.out.println("Testing flush method coalescing changes");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        given(productRepository.adjustQuantity(1L, -4)).willReturn(1);
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willReturn(List.of(new ProductQuantityDto(1L, 6)));
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -3)).isTrue();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -2)).isTrue();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, 1)).isTrue();
+        inventoryWriteBuffer.flush();
+        inventoryWriteBuffer.flush();
+        verify(productRepository, times(1)).findQuantityById(1L);
+        verify(productRepository, times(1)).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5})
+    void givenOversellGuard_whenAdjustQuantity_thenRejectsDecrementsBeyondGuard(int oversellGuard) {
+        System.out.println("Testing adjustQuantity method with oversell guard = " + oversellGuard);
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, oversellGuard);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(2));
+        var accepted = 0;
+        for (var attempt = 0; attempt < 10; attempt++) {
+            if (inventoryWriteBuffer.adjustQuantity(1L, -1)) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(2 + oversellGuard);
+    }
+
+    @Test
+    void givenMissingProduct_whenAdjustQuantity_thenReturnsFalse() {
+        System.out.println("Testing adjustQuantity method with missing product");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.empty());
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, 1)).isFalse();
+        inventoryWriteBuffer.flush();
+        verify(productRepository, never()).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void givenFlushThresholdReached_whenAdjustQuantity_thenFlushesImmediately() {
+        System.out.println("Testing adjustQuantity method reaching flush threshold");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(2, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        given(productRepository.adjustQuantity(1L, -2)).willReturn(1);
+        inventoryWriteBuffer.adjustQuantity(1L, -1);
+        verify(productRepository, never()).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+        inventoryWriteBuffer.adjustQuantity(1L, -1);
+        verify(productRepository).adjustQuantity(1L, -2);
+    }
+
+    @Test
+    void givenStockChangedInDatabase_whenFlush_thenClearsQuantityAndResynchronizes() {
+        System.out.println("Testing flush method when buffered decrement exceeds stock");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(3));
+        given(productRepository.adjustQuantity(1L, -3)).willReturn(0);
+        given(productRepository.clearQuantity(1L)).willReturn(1);
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willReturn(List.of(new ProductQuantityDto(1L, 0)));
+        inventoryWriteBuffer.adjustQuantity(1L, -3);
+        inventoryWriteBuffer.flush();
+        verify(productRepository).clearQuantity(1L);
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isFalse();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, 1)).isTrue();
+    }
+
+    @Test
+    void givenRestockInDatabase_whenFlush_thenAcceptsDecrementsAgainstStoredQuantity() {
+        System.out.println("Testing flush method picking up a restock made outside the buffer");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(1));
+        given(productRepository.adjustQuantity(1L, -1)).willReturn(1);
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willReturn(List.of(new ProductQuantityDto(1L, 5)));
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isTrue();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isFalse();
+        inventoryWriteBuffer.flush();
+
+        var accepted = 0;
+        for (var attempt = 0; attempt < 10; attempt++) {
+            if (inventoryWriteBuffer.adjustQuantity(1L, -1)) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(5);
+    }
+
+    @Test
+    void givenDecrementByOtherNode_whenFlush_thenRejectsDecrementsBeyondStoredQuantity() {
+        System.out.println("Testing flush method picking up a decrement made by another node");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willReturn(List.of(new ProductQuantityDto(1L, 1)));
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isTrue();
+        given(productRepository.adjustQuantity(1L, -1)).willReturn(1);
+        inventoryWriteBuffer.flush();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isTrue();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isFalse();
+    }
+
+    @Test
+    void givenFlushThresholdReached_whenAdjustQuantity_thenFlushesInNewTransaction() {
+        System.out.println("Testing adjustQuantity method flushing outside of the caller transaction");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        inventoryWriteBuffer.adjustQuantity(1L, -1);
+        verify(transactionManager).getTransaction(ArgumentMatchers.argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void givenFailedTransaction_whenFlush_thenKeepsChangesForNextFlush() {
+        System.out.println("Testing flush method with failed transaction");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        given(productRepository.adjustQuantity(1L, -3)).willReturn(1);
+        willThrow(new CannotCreateTransactionException("Connection refused"))
+                .willReturn(null)
+                .given(transactionManager).getTransaction(ArgumentMatchers.any());
+        inventoryWriteBuffer.adjustQuantity(1L, -3);
+        assertThatThrownBy(inventoryWriteBuffer::flush).isInstanceOf(CannotCreateTransactionException.class);
+        inventoryWriteBuffer.flush();
+        verify(productRepository).adjustQuantity(1L, -3);
+    }
+
+    @Test
+    void givenMoreChangedProductsThanOneBatch_whenFlush_thenWritesAndRereadsOnlyChangedProductsInBatches() {
+        System.out.println("Testing flush method with more changed products than one batch");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(Integer.MAX_VALUE, 0);
+        final var productCount = InventoryWriteBuffer.FLUSH_BATCH_SIZE * 2 + 1;
+        given(productRepository.findQuantityById(ArgumentMatchers.any())).willReturn(Optional.of(10));
+        given(productRepository.adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.eq(-1))).willReturn(1);
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willAnswer(invocation -> {
+            final Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> new ProductQuantityDto(id, 9))
+                    .toList();
+        });
+        for (var productId = 1L; productId <= productCount; productId++) {
+            inventoryWriteBuffer.adjustQuantity(productId, -1);
+        }
+        inventoryWriteBuffer.flush();
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Collection<Long>> rereadIds = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository, times(3)).findQuantitiesByIdIn(rereadIds.capture());
+        assertThat(rereadIds.getAllValues()).allMatch(ids -> ids.size() <= InventoryWriteBuffer.FLUSH_BATCH_SIZE);
+        assertThat(rereadIds.getAllValues().stream().mapToInt(Collection::size).sum()).isEqualTo(productCount);
+
+        inventoryWriteBuffer.adjustQuantity(1L, -1);
+        inventoryWriteBuffer.flush();
+        verify(productRepository, times(4)).findQuantitiesByIdIn(rereadIds.capture());
+        assertThat(rereadIds.getValue()).containsExactly(1L);
+        verify(productRepository, times(productCount + 1)).adjustQuantity(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void givenProductIdleForAFlush_whenAdjustQuantity_thenReloadsStoredQuantity() {
+        System.out.println("Testing flush method dropping idle products");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10), Optional.of(1));
+        given(productRepository.adjustQuantity(1L, -1)).willReturn(1);
+        given(productRepository.findQuantitiesByIdIn(ArgumentMatchers.any())).willReturn(List.of(new ProductQuantityDto(1L, 9)));
+        inventoryWriteBuffer.adjustQuantity(1L, -1);
+        inventoryWriteBuffer.flush();
+        inventoryWriteBuffer.flush();
+        inventoryWriteBuffer.flush();
+        verify(productRepository, times(1)).findQuantitiesByIdIn(ArgumentMatchers.any());
+
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isTrue();
+        assertThat(inventoryWriteBuffer.adjustQuantity(1L, -1)).isFalse();
+        verify(productRepository, times(2)).findQuantityById(1L);
+    }
+
+    @Test
+    void givenBufferedChanges_whenShutdown_thenFlushes() {
+        System.out.println("Testing flush on shutdown");
+        final var inventoryWriteBuffer = inventoryWriteBuffer(1000, 0);
+        given(productRepository.findQuantityById(1L)).willReturn(Optional.of(10));
+        inventoryWriteBuffer.adjustQuantity(1L, 5);
+        inventoryWriteBuffer.flushOnShutdown();
+        verify(productRepository).adjustQuantity(1L, 5);
+    }
+
+    private InventoryWriteBuffer inventoryWriteBuffer(int flushThreshold, int oversellGuard) {
+        return new InventoryWriteBuffer(productRepository, transactionManager,
+                new InventoryWriteBufferProperties(true, Duration.ofMillis(100), flushThreshold, oversellGuard));
+    }
+
+}
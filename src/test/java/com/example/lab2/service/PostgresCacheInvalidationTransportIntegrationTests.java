@@ -0,0 +1,144 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.BrandDto;
+import com.example.lab2.model.CatalogEvent;
+import com.example.lab2.repository.BrandRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a PostgreSQL container and is skipped when Docker is not available. A second transport stands in for
+ * another node listening on the same database.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "lab2.cache.invalidation.transport=POSTGRES"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public class PostgresCacheInvalidationTransportIntegrationTests {
+
+    private static final String OTHER_NODE = "other-node";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CacheInvalidationTransport cacheInvalidationTransport;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<CacheInvalidation> receivedInvalidations = new LinkedBlockingQueue<>();
+    private final Semaphore gaps = new Semaphore(0);
+    private PostgresCacheInvalidationTransport otherNode;
+    private Long brandId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        brandService.createBrand(new BrandDto(null, "Brand"));
+        brandId = brandRepository.findAll().get(0).getId();
+        otherNode = new PostgresCacheInvalidationTransport(
+                () -> DriverManager.getConnection(postgres.getJdbcUrl() + "&ApplicationName=" + OTHER_NODE, postgres.getUsername(), postgres.getPassword()),
+                entityManager, objectMapper, Duration.ofMillis(200));
+        otherNode.subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidation(CacheInvalidation invalidation) {
+                receivedInvalidations.add(invalidation);
+            }
+
+            @Override
+            public void onGap() {
+                gaps.release();
+            }
+        });
+        assertThat(gaps.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherNode.close();
+        brandRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenPostgresDatabase_whenStartApplication_thenUsesPostgresTransport() {
+        System.out.println("Testing cache invalidation transport selection on PostgreSQL");
+        assertThat(cacheInvalidationTransport).isInstanceOf(PostgresCacheInvalidationTransport.class);
+    }
+
+    @Test
+    void givenCommittedUpdate_whenUpdateBrand_thenOtherNodeReceivesInvalidation() throws Exception {
+        System.out.println("Testing NOTIFY round trip on updateBrand");
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand"));
+        assertThat(receivedInvalidations.poll(10, TimeUnit.SECONDS))
+                .isEqualTo(new CacheInvalidation(cacheInvalidationBus.getNodeId(), CatalogEvent.Aggregate.BRAND, List.of(brandId)));
+    }
+
+    @Test
+    void givenRolledBackUpdate_whenUpdateBrand_thenOtherNodeReceivesNothing() throws Exception {
+        System.out.println("Testing NOTIFY round trip on rolled back updateBrand");
+        transactionTemplate.executeWithoutResult(status -> {
+            brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand"));
+            status.setRollbackOnly();
+        });
+        assertThat(receivedInvalidations.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void givenTerminatedListenerConnection_whenListening_thenReportsGapAndReconnects() throws Exception {
+        System.out.println("Testing gap reported when the listener connection is terminated");
+        jdbcTemplate.queryForList("select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?", OTHER_NODE);
+        assertThat(gaps.tryAcquire(2, 10, TimeUnit.SECONDS)).isTrue();
+
+        brandService.updateBrand(brandId, new BrandDto(brandId, "Renamed brand"));
+        assertThat(receivedInvalidations.poll(10, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void givenListenerConnection_whenListening_thenDoesNotHoldPooledConnection() {
+        System.out.println("Testing listener connection outside of the connection pool");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from pg_stat_activity where application_name = ?", Integer.class,
+                PostgresCacheInvalidationTransport.APPLICATION_NAME)).isEqualTo(1);
+    }
+
+}
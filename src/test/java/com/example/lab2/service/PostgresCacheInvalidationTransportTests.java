@@ -0,0 +1,189 @@
+package com.example.lab2.service;
+
+import com.example.lab2.model.CatalogEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PostgresCacheInvalidationTransportTests {
+
+    private static final Duration MAX_STALENESS = Duration.ofMillis(20);
+    private static final CacheInvalidation INVALIDATION = new CacheInvalidation("remote-node", CatalogEvent.Aggregate.PRODUCT, List.of(1L, 2L));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<CacheInvalidation> invalidations = new LinkedBlockingQueue<>();
+    private final Semaphore gaps = new Semaphore(0);
+
+    @Mock
+    private PostgresCacheInvalidationTransport.ListenerConnectionFactory listenerConnectionFactory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private PostgresCacheInvalidationTransport transport;
+
+    @AfterEach
+    void tearDown() {
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    @Test
+    void givenSentInvalidation_whenNotified_thenDeliversSameInvalidation() throws Exception {
+        System.out.println("Testing send and receive round trip of an invalidation");
+        final var query = mock(Query.class);
+        given(entityManager.createNativeQuery(ArgumentMatchers.anyString())).willReturn(query);
+        given(query.setParameter(ArgumentMatchers.anyString(), ArgumentMatchers.any())).willReturn(query);
+        transport = transport();
+        transport.send(INVALIDATION);
+        final var payload = ArgumentCaptor.forClass(Object.class);
+        verify(query).setParameter(ArgumentMatchers.eq("payload"), payload.capture());
+
+        final var notifications = new PGNotification[]{notification((String) payload.getValue())};
+        final var pgConnection = listenerConnection();
+        given(pgConnection.getNotifications(ArgumentMatchers.anyInt()))
+                .willReturn(notifications)
+                .willAnswer(invocation -> idle());
+        subscribe();
+        assertThat(invalidations.poll(5, TimeUnit.SECONDS)).isEqualTo(INVALIDATION);
+    }
+
+    @Test
+    void givenMalformedPayload_whenNotified_thenSkipsIt() throws Exception {
+        System.out.println("Testing receive of a malformed invalidation");
+        final var notifications = new PGNotification[]{notification("not json"), notification(objectMapper.writeValueAsString(INVALIDATION))};
+        final var pgConnection = listenerConnection();
+        given(pgConnection.getNotifications(ArgumentMatchers.anyInt()))
+                .willReturn(notifications)
+                .willAnswer(invocation -> idle());
+        transport = transport();
+        subscribe();
+        assertThat(invalidations.poll(5, TimeUnit.SECONDS)).isEqualTo(INVALIDATION);
+        assertThat(invalidations).isEmpty();
+    }
+
+    @Test
+    void givenListenerConnection_whenSubscribe_thenReportsGapOnConnect() throws Exception {
+        System.out.println("Testing gap reported when the listener connects");
+        listenerConnection();
+        transport = transport();
+        subscribe();
+        assertThat(gaps.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        verify(listenerConnectionFactory).open();
+    }
+
+    @Test
+    void givenLostConnection_whenListening_thenReportsGapsAndReconnects() throws Exception {
+        System.out.println("Testing gap reported when the listener connection is lost");
+        final var lostConnection = connection(false);
+        final var connection = connection(true);
+        final var pgConnection = connection.unwrap(PGConnection.class);
+        given(listenerConnectionFactory.open())
+                .willReturn(lostConnection)
+                .willThrow(new SQLException("Connection refused"))
+                .willReturn(connection);
+        transport = transport();
+        subscribe();
+
+        assertThat(gaps.tryAcquire(4, 5, TimeUnit.SECONDS)).isTrue();
+        verify(listenerConnectionFactory, timeout(5000).times(3)).open();
+        verify(lostConnection, timeout(5000)).close();
+        verify(pgConnection, timeout(5000).atLeast(1)).getNotifications(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void givenClosedTransport_whenListening_thenStopsListening() throws Exception {
+        System.out.println("Testing close of the transport");
+        final var connection = connection(true);
+        final var pgConnection = connection.unwrap(PGConnection.class);
+        given(listenerConnectionFactory.open()).willReturn(connection);
+        transport = transport();
+        subscribe();
+        verify(pgConnection, timeout(5000).atLeast(1)).getNotifications(ArgumentMatchers.anyInt());
+
+        transport.close();
+        verify(connection, timeout(5000)).close();
+        verify(listenerConnectionFactory, atLeast(1)).open();
+    }
+
+    private PostgresCacheInvalidationTransport transport() {
+        return new PostgresCacheInvalidationTransport(listenerConnectionFactory, entityManager, objectMapper, MAX_STALENESS);
+    }
+
+    private PGConnection listenerConnection() throws SQLException {
+        final var connection = connection(true);
+        given(listenerConnectionFactory.open()).willReturn(connection);
+        return connection.unwrap(PGConnection.class);
+    }
+
+    private static Connection connection(boolean valid) throws SQLException {
+        final var connection = mock(Connection.class);
+        final var pgConnection = mock(PGConnection.class);
+        given(connection.createStatement()).willReturn(mock(Statement.class));
+        given(connection.unwrap(PGConnection.class)).willReturn(pgConnection);
+        given(connection.isValid(ArgumentMatchers.anyInt())).willReturn(valid);
+        given(pgConnection.getNotifications(ArgumentMatchers.anyInt())).willAnswer(invocation -> idle());
+        return connection;
+    }
+
+    private void subscribe() {
+        transport.subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onInvalidation(CacheInvalidation invalidation) {
+                invalidations.add(invalidation);
+            }
+
+            @Override
+            public void onGap() {
+                gaps.release();
+            }
+        });
+    }
+
+    private static PGNotification notification(String payload) {
+        final var notification = mock(PGNotification.class);
+        given(notification.getParameter()).willReturn(payload);
+        return notification;
+    }
+
+    private static PGNotification[] idle() {
+        try {
+            Thread.sleep(MAX_STALENESS.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductImportFailureDto;
+import com.example.lab2.dto.ProductImportReportDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.Category;
+import com.example.lab2.model.Product;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTests {
+
+    private static final String HEADER = "Name,Description,Price,Quantity,CategoryId,BrandId\n";
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private CatalogEventPublisher catalogEventPublisher;
+
+    @Captor
+    private ArgumentCaptor<Iterable<Product>> savedProducts;
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        final var validatorFactory = Validation.buildDefaultValidatorFactory();
+        final var validator = validatorFactory.getValidator();
+        productImportService = new ProductImportService(productRepository, categoryRepository, brandRepository, validator, new TransactionTemplate(transactionManager), productSearchService,
+                new CatalogExecutor(new CatalogExecutionProperties(CatalogExecutionProperties.Mode.VIRTUAL, 1, 2)), catalogEventPublisher);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5, 1000})
+    void givenProductFeed_whenImportProducts_thenSavesAllProductsInChunks(int chunkSize) {
+        System.out.println("Testing importProducts method with chunk size = " + chunkSize);
+        givenCategoriesAndBrandsExist();
+        final var feed = new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("/productArgs.csv")), StandardCharsets.UTF_8);
+        final var report = productImportService.importProducts(feed, chunkSize);
+        assertThat(report.importedCount()).isEqualTo(5);
+        assertThat(report.failures()).isEmpty();
+        verify(productRepository, times((5 + chunkSize - 1) / chunkSize)).flush();
+    }
+
+    @Test
+    void givenInvalidRows_whenImportProducts_thenReportsFailuresAndImportsValidRows() {
+        System.out.println("Testing importProducts method with invalid rows");
+        givenCategoriesAndBrandsExist();
+        final var feed = HEADER
+                + "Product 1,Description 1,0.99,1,1,1\n"
+                + " ,Description 2,0.99,1,1,1\n"
+                + "Product 3,Description 3,not a price,1,1,1\n"
+                + "Product 4,Description 4,0.99,1\n"
+                + "Product 1,Description 5,0.99,1,1,1\n"
+                + "\"Product, 6\",\"Description \"\"6\"\"\",0.99,1,1,1\n";
+        final var report = productImportService.importProducts(new StringReader(feed), 10);
+        assertThat(report.importedCount()).isEqualTo(2);
+        assertThat(report.failures()).extracting(ProductImportFailureDto::lineNumber).containsExactly(3L, 4L, 5L, 6L);
+        verify(productRepository).saveAll(savedProducts.capture());
+        assertThat(savedProducts.getValue()).extracting(Product::getName, Product::getDescription).containsExactly(
+                tuple("Product 1", "Description 1"),
+                tuple("Product, 6", "Description \"6\"")
+        );
+    }
+
+    @Test
+    void givenExistingNamesAndMissingReferences_whenImportProducts_thenReportsFailuresPerRow() {
+        System.out.println("Testing importProducts method with taken names and missing references");
+        given(productRepository.findExistingNames(anyCollection())).willReturn(Set.of("Product 1"));
+        given(categoryRepository.findAllById(anyIterable())).willReturn(List.of(new Category(1L, "Category 1", null)));
+        given(brandRepository.findAllById(anyIterable())).willReturn(List.of(new Brand(1L, "Brand 1")));
+        final var feed = HEADER
+                + "Product 1,Description 1,0.99,1,1,1\n"
+                + "Product 2,Description 2,0.99,1,2,1\n"
+                + "Product 3,Description 3,0.99,1,1,2\n"
+                + "Product 4,Description 4,0.99,1,1,1\n";
+        final var report = productImportService.importProducts(new StringReader(feed));
+        assertThat(report.importedCount()).isEqualTo(1);
+        assertThat(report.failures()).extracting(ProductImportFailureDto::lineNumber).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void givenChunkWriteFails_whenImportProducts_thenReportsChunkRowsAndContinues() {
+        System.out.println("Testing importProducts method with failing chunk write");
+        givenCategoriesAndBrandsExist();
+        willThrow(new DataIntegrityViolationException("duplicate key"))
+                .willDoNothing()
+                .given(productRepository).flush();
+        final var feed = HEADER
+                + "Product 1,Description 1,0.99,1,1,1\n"
+                + "Product 2,Description 2,0.99,1,1,1\n"
+                + "Product 3,Description 3,0.99,1,1,1\n";
+        final var report = productImportService.importProducts(new StringReader(feed), 2);
+        assertThat(report.importedCount()).isEqualTo(1);
+        assertThat(report.failures()).extracting(ProductImportFailureDto::lineNumber).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void givenCommitFails_whenImportProducts_thenReportsEveryChunkRowOnce() {
+        System.out.println("Testing importProducts method with failing commit");
+        givenCategoriesAndBrandsExist();
+        willThrow(new DataIntegrityViolationException("deferred constraint"))
+                .willDoNothing()
+                .given(transactionManager).commit(any());
+        final var feed = HEADER
+                + "Product 1,Description 1,0.99,1,1,1\n"
+                + "Product 2,Description 2,0.99,1,9,1\n"
+                + "Product 3,Description 3,0.99,1,1,1\n"
+                + "Product 4,Description 4,0.99,1,9,1\n";
+        final var report = productImportService.importProducts(new StringReader(feed), 2);
+        assertThat(report.importedCount()).isEqualTo(1);
+        assertThat(report.failures()).extracting(ProductImportFailureDto::lineNumber, ProductImportFailureDto::reason).containsExactly(
+                tuple(2L, "Chunk write failed: deferred constraint"),
+                tuple(3L, "Chunk write failed: deferred constraint"),
+                tuple(5L, "Category does not exist: 9")
+        );
+    }
+
+    @Test
+    void givenOnlyInvalidRows_whenImportProducts_thenDoesNotTouchDatabase() {
+        System.out.println("Testing importProducts method with only invalid rows");
+        final var report = productImportService.importProducts(new StringReader(HEADER + ",,,,,\n"));
+        assertThat(report.importedCount()).isZero();
+        assertThat(report.failures()).hasSize(1);
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void givenInvalidChunkSize_whenImportProducts_thenThrowsException(int chunkSize) {
+        System.out.println("Testing importProducts method with chunk size = " + chunkSize);
+        assertThatThrownBy(() -> productImportService.importProducts(new StringReader(HEADER), chunkSize)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenManyFeeds_whenImportAllProducts_thenReturnsReportPerFeed() {
+        System.out.println("Testing importAllProducts method");
+        givenCategoriesAndBrandsExist();
+        final var reports = productImportService.importAllProducts(List.of(
+                new StringReader(HEADER + "Product 1,Description 1,0.99,1,1,1\n"),
+                new StringReader(HEADER + "Product 2,Description 2,0.99,1,1,1\nProduct 3,Description 3,0.99,1,1,1\n"),
+                new StringReader(HEADER + " ,Description 4,0.99,1,1,1\n")
+        ));
+        assertThat(reports).extracting(ProductImportReportDto::importedCount).containsExactly(1L, 2L, 0L);
+        assertThat(reports.get(2).failures()).extracting(ProductImportFailureDto::lineNumber).containsExactly(2L);
+    }
+
+    private void givenCategoriesAndBrandsExist() {
+        given(categoryRepository.findAllById(anyIterable())).willReturn(List.of(
+                new Category(1L, "Category 1", null),
+                new Category(2L, "Category 2", null),
+                new Category(3L, "Category 3", null)
+        ));
+        given(brandRepository.findAllById(anyIterable())).willReturn(List.of(
+                new Brand(1L, "Brand 1"),
+                new Brand(2L, "Brand 2"),
+                new Brand(3L, "Brand 3")
+        ));
+    }
+
+}
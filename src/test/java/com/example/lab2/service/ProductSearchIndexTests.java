@@ -0,0 +1,154 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.ProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductSearchIndexTests {
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex();
+        searchIndex.put(new ProductDto(1L, "Red Running Shoes", "Lightweight shoes for trail running", new BigDecimal("99.0"), 5, 1L, 1L));
+        searchIndex.put(new ProductDto(2L, "Blue Sneakers", "Casual shoes, runner approved", new BigDecimal("59.0"), 3, 2L, 1L));
+        searchIndex.put(new ProductDto(3L, "Trail Backpack", "Backpack for running and hiking", new BigDecimal("120.0"), 7, 1L, 2L));
+        searchIndex.put(new ProductDto(4L, "Coffee Mug", "Ceramic mug", new BigDecimal("9.0"), 50, 3L, 3L));
+    }
+
+    @Test
+    void givenQueryWithManyTerms_whenSearch_thenReturnsProductsMatchingAllTerms() {
+        System.out.println("Testing search method with many terms");
+        assertThat(searchIndex.search("trail running", ProductSearchIndex.Filter.NONE, 10)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchIndex.search("ceramic running", ProductSearchIndex.Filter.NONE, 10)).isEmpty();
+    }
+
+    @Test
+    void givenTermInName_whenSearch_thenRanksNameMatchesFirst() {
+        System.out.println("Testing search method ranking");
+        assertThat(searchIndex.search("backpack", ProductSearchIndex.Filter.NONE, 10)).containsExactly(3L);
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 10)).containsExactly(1L, 3L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"run", "RUN", "  run!"})
+    void givenPrefixAsLastTerm_whenSearch_thenMatchesTermsStartingWithPrefix(String query) {
+        System.out.println("Testing search method with prefix query = " + query);
+        assertThat(searchIndex.search(query, ProductSearchIndex.Filter.NONE, 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void givenPrefixBeforeLastTerm_whenSearch_thenRequiresExactMatch() {
+        System.out.println("Testing search method with prefix before last term");
+        assertThat(searchIndex.search("run shoes", ProductSearchIndex.Filter.NONE, 10)).isEmpty();
+    }
+
+    @Test
+    void givenExactAndPrefixMatches_whenSearch_thenRanksExactMatchFirst() {
+        System.out.println("Testing search method ranking of exact matches");
+        searchIndex.put(new ProductDto(5L, "Mugshot Poster", "Poster", new BigDecimal("15.0"), 1, 3L, 3L));
+        assertThat(searchIndex.search("mug", ProductSearchIndex.Filter.NONE, 10)).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void givenMoreCompletionsThanExpansionLimit_whenSearch_thenKeepsMostFrequentCompletions() {
+        System.out.println("Testing search method with many prefix completions");
+        for (var index = 0; index < ProductSearchIndex.MAX_PREFIX_EXPANSIONS; index++) {
+            searchIndex.put(new ProductDto(100L + index, "Gadget ga" + index, "Rare", new BigDecimal("1.0"), 1, 1L, 1L));
+        }
+        searchIndex.put(new ProductDto(10L, "Gazebo", "Garden", new BigDecimal("1.0"), 1, 1L, 1L));
+        searchIndex.put(new ProductDto(11L, "Gazebo Cover", "Garden", new BigDecimal("1.0"), 1, 1L, 1L));
+        assertThat(searchIndex.search("gaz", ProductSearchIndex.Filter.NONE, 10)).containsExactly(10L, 11L);
+        assertThat(searchIndex.search("rare ga", ProductSearchIndex.Filter.NONE, 100)).hasSize(ProductSearchIndex.MAX_PREFIX_EXPANSIONS);
+        assertThat(searchIndex.search("garden ga", ProductSearchIndex.Filter.NONE, 10)).containsExactlyInAnyOrder(10L, 11L);
+    }
+
+    @Test
+    void givenManyBlocksOfPostings_whenSearch_thenSkipsOnlyBlocksThatCannotBeatTopHits() {
+        System.out.println("Testing search method skipping postings blocks");
+        for (var id = 1000L; id < 1000L + 10 * ProductSearchIndex.BLOCK_SIZE; id += 2) {
+            final var name = id % 97 == 0 ? "Widget" : "Gizmo";
+            searchIndex.put(new ProductDto(id, name, "Widget part", new BigDecimal("1.0"), 1, 1L, 1L));
+        }
+        assertThat(searchIndex.search("widget", ProductSearchIndex.Filter.NONE, 3)).containsExactly(1164L, 1358L, 1552L);
+        assertThat(searchIndex.search("part widget", ProductSearchIndex.Filter.NONE, 3)).containsExactly(1164L, 1358L, 1552L);
+
+        searchIndex.remove(1358L);
+        searchIndex.put(new ProductDto(1001L, "Widget", "Widget part", new BigDecimal("1.0"), 1, 1L, 1L));
+        searchIndex.put(new ProductDto(1552L, "Gizmo", "Widget part", new BigDecimal("1.0"), 1, 1L, 1L));
+        assertThat(searchIndex.search("widget", ProductSearchIndex.Filter.NONE, 3)).containsExactly(1001L, 1164L, 1746L);
+    }
+
+    @Test
+    void givenFilter_whenSearch_thenReturnsOnlyAcceptedProducts() {
+        System.out.println("Testing search method with filter");
+        assertThat(searchIndex.search("run", new ProductSearchIndex.Filter(categoryId -> categoryId == 1L, null, null, null), 10))
+                .containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchIndex.search("run", new ProductSearchIndex.Filter(null, 1L, null, null), 10))
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(searchIndex.search("run", new ProductSearchIndex.Filter(null, null, 6000L, 10000L), 10))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void givenLimit_whenSearch_thenReturnsBestRankedProducts() {
+        System.out.println("Testing search method with limit");
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 1)).containsExactly(1L);
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 0)).isEmpty();
+    }
+
+    @Test
+    void givenUpdatedProduct_whenSearch_thenMatchesOnlyNewTerms() {
+        System.out.println("Testing put method replacing product");
+        searchIndex.put(new ProductDto(4L, "Tea Cup", "Porcelain cup", new BigDecimal("9.0"), 50, 3L, 3L));
+        assertThat(searchIndex.search("mug", ProductSearchIndex.Filter.NONE, 10)).isEmpty();
+        assertThat(searchIndex.search("porcelain", ProductSearchIndex.Filter.NONE, 10)).containsExactly(4L);
+        assertThat(searchIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void givenRemovedProduct_whenSearch_thenDoesNotReturnIt() {
+        System.out.println("Testing remove method");
+        searchIndex.remove(1L);
+        searchIndex.remove(42L);
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 10)).containsExactly(3L);
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void givenReassignedProduct_whenSearch_thenFiltersByNewCategoryAndBrand() {
+        System.out.println("Testing reassign method");
+        searchIndex.reassign(1L, 3L, null);
+        searchIndex.reassign(3L, null, 3L);
+        searchIndex.reassign(42L, 3L, 3L);
+        assertThat(searchIndex.search("running", new ProductSearchIndex.Filter(categoryId -> categoryId == 3L, 1L, null, null), 10))
+                .containsExactly(1L);
+        assertThat(searchIndex.search("running", new ProductSearchIndex.Filter(categoryId -> categoryId == 1L, 3L, null, null), 10))
+                .containsExactly(3L);
+        assertThat(searchIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void givenProductsInsertedOutOfOrder_whenSearch_thenReturnsAllOfThem() {
+        System.out.println("Testing put method with ids out of order");
+        searchIndex.put(new ProductDto(100L, "Running Socks", "Socks", new BigDecimal("5.0"), 10, 1L, 1L));
+        searchIndex.put(new ProductDto(50L, "Running Cap", "Cap", new BigDecimal("15.0"), 10, 1L, 1L));
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 10)).containsExactly(1L, 50L, 100L, 3L);
+    }
+
+    @Test
+    void givenText_whenTokenize_thenSplitsOnNonAlphanumericCharactersAndLowercases() {
+        System.out.println("Testing tokenize method");
+        assertThat(ProductSearchIndex.tokenize("Wi-Fi Router, 5GHz (AC1200)")).containsExactly("wi", "fi", "router", "5ghz", "ac1200");
+        assertThat(ProductSearchIndex.tokenize(" ,. ")).isEmpty();
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+    }
+
+}
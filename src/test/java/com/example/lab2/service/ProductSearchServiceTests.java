@@ -0,0 +1,137 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.CategoryLinkDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductSearchDto;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchServiceTests {
+
+    private static final ProductDto RUNNING_SHOES = new ProductDto(1L, "Running Shoes", "Shoes for running", new BigDecimal("99.0"), 5, 2L, 1L);
+    private static final ProductDto TRAIL_BACKPACK = new ProductDto(2L, "Trail Backpack", "Backpack for running", new BigDecimal("120.0"), 7, 3L, 2L);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryService categoryService;
+    private ProductSearchService productSearchService;
+
+    static Stream<ProductSearchDto> createInvalidProductSearchArgs() {
+        return Stream.of(
+                ProductSearchDto.builder()
+                        .query(" ")
+                        .build(),
+                ProductSearchDto.builder()
+                        .query(null)
+                        .build(),
+                ProductSearchDto.builder()
+                        .query("shoes")
+                        .limit(0)
+                        .build(),
+                ProductSearchDto.builder()
+                        .query("shoes")
+                        .limit(101)
+                        .build(),
+                ProductSearchDto.builder()
+                        .query("shoes")
+                        .minPrice(new BigDecimal("-1.0"))
+                        .build()
+        );
+    }
+
+    @BeforeEach
+    void setUp() {
+        final var validatorFactory = Validation.buildDefaultValidatorFactory();
+        final var validator = validatorFactory.getValidator();
+        productSearchService = new ProductSearchService(productRepository, categoryService, validator);
+    }
+
+    @Test
+    void givenQuery_whenSearchProducts_thenReturnsProductsInRankOrder() {
+        System.out.println("Testing searchProducts method");
+        given(productRepository.streamAll()).willReturn(Stream.of(RUNNING_SHOES, TRAIL_BACKPACK));
+        given(productRepository.findAllDtosById(Set.of(1L, 2L))).willReturn(List.of(TRAIL_BACKPACK, RUNNING_SHOES));
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("runn").build()))
+                .containsExactly(RUNNING_SHOES, TRAIL_BACKPACK);
+    }
+
+    @Test
+    void givenCategoryFilter_whenSearchProducts_thenReturnsProductsInCategorySubtree() {
+        System.out.println("Testing searchProducts method with category filter");
+        given(productRepository.streamAll()).willReturn(Stream.of(RUNNING_SHOES, TRAIL_BACKPACK));
+        given(categoryService.getCategoryTree()).willReturn(CategoryTreeSnapshot.of(List.of(
+                new CategoryLinkDto(1L, null),
+                new CategoryLinkDto(2L, 1L),
+                new CategoryLinkDto(3L, null)
+        )));
+        given(productRepository.findAllDtosById(Set.of(1L))).willReturn(List.of(RUNNING_SHOES));
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("running").categoryId(1L).build()))
+                .containsExactly(RUNNING_SHOES);
+    }
+
+    @Test
+    void givenNoMatches_whenSearchProducts_thenDoesNotQueryProducts() {
+        System.out.println("Testing searchProducts method without matches");
+        given(productRepository.streamAll()).willReturn(Stream.of(RUNNING_SHOES));
+        assertThat(productSearchService.searchProducts(ProductSearchDto.builder().query("mug").build())).isEmpty();
+        verify(productRepository, never()).findAllDtosById(ArgumentMatchers.any());
+    }
+
+    @ParameterizedTest
+    @MethodSource("createInvalidProductSearchArgs")
+    void givenInvalidSearchData_whenSearchProducts_thenThrowsException(ProductSearchDto productSearchDto) {
+        System.out.println("Testing searchProducts method with invalid data: " + productSearchDto);
+        assertThatThrownBy(() -> productSearchService.searchProducts(productSearchDto)).isInstanceOf(ConstraintViolationException.class);
+    }
+
+    @Test
+    void givenMinPriceGreaterThanMaxPrice_whenSearchProducts_thenThrowsException() {
+        System.out.println("Testing searchProducts method with inverted price range");
+        assertThatThrownBy(() -> productSearchService.searchProducts(ProductSearchDto.builder().query("shoes").minPrice(new BigDecimal("10.0")).maxPrice(new BigDecimal("5.0")).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenLoadedIndex_whenProductsChange_thenUpdatesIndexWithoutReloading() {
+        System.out.println("Testing search index updates on writes");
+        given(productRepository.streamAll()).willReturn(Stream.of(RUNNING_SHOES));
+        final var searchIndex = productSearchService.getSearchIndex();
+        productSearchService.indexProducts(List.of(TRAIL_BACKPACK));
+        productSearchService.removeProducts(List.of(RUNNING_SHOES.id()));
+        assertThat(productSearchService.getSearchIndex()).isSameAs(searchIndex);
+        assertThat(searchIndex.search("running", ProductSearchIndex.Filter.NONE, 10)).containsExactly(TRAIL_BACKPACK.id());
+        verify(productRepository, times(1)).streamAll();
+    }
+
+    @Test
+    void givenIndexNotLoaded_whenProductsChange_thenDoesNotLoadIndex() {
+        System.out.println("Testing search index lazy loading");
+        productSearchService.indexProducts(List.of(TRAIL_BACKPACK));
+        verify(productRepository, never()).streamAll();
+    }
+
+}
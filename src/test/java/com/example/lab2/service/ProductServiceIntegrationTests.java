@@ -0,0 +1,239 @@
+package com.example.lab2.service;
+
+import com.example.lab2.dto.FacetCountDto;
+import com.example.lab2.dto.PriceStatisticsDto;
+import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductFilterDto;
+import com.example.lab2.model.Brand;
+import com.example.lab2.model.Category;
+import com.example.lab2.model.Product;
+import com.example.lab2.repository.BrandRepository;
+import com.example.lab2.repository.CategoryRepository;
+import com.example.lab2.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "lab2.metrics.hibernate-statistics=true")
+@Transactional
+public class ProductServiceIntegrationTests {
+
+    private static final int PRODUCT_COUNT = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LongStream.rangeClosed(1, PRODUCT_COUNT).forEach(index -> {
+            final var category = categoryRepository.save(Category.builder()
+                    .name("Category " + index)
+                    .build());
+            final var brand = brandRepository.save(Brand.builder()
+                    .name("Brand " + index)
+                    .build());
+            productRepository.save(Product.builder()
+                    .name("Product " + index)
+                    .description("Description " + index)
+                    .priceInCents(99L)
+                    .quantity(1)
+                    .category(category)
+                    .brand(brand)
+                    .build());
+        });
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void givenProductsWithDistinctCategoriesAndBrands_whenGetAllProducts_thenExecutesSingleStatement() {
+        System.out.println("Testing getAllProducts statement count for " + PRODUCT_COUNT + " products");
+        assertThat(productService.getAllProducts()).hasSize(PRODUCT_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void givenProductsWithDistinctCategoriesAndBrands_whenGetProductsPage_thenExecutesSingleStatement() {
+        System.out.println("Testing getProductsPage statement count");
+        assertThat(productService.getProductsPage(null, PRODUCT_COUNT / 2)).hasSize(PRODUCT_COUNT / 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void givenProductsWithDistinctCategoriesAndBrands_whenStreamAllProducts_thenExecutesSingleStatement() {
+        System.out.println("Testing streamAllProducts statement count");
+        final long streamedProductCount = productService.streamAllProducts(Stream::count);
+        assertThat(streamedProductCount).isEqualTo(PRODUCT_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void givenProductsWithDistinctCategoriesAndBrands_whenGetProductById_thenDoesNotLoadAssociations() {
+        System.out.println("Testing getProductById statement count");
+        final var productId = productRepository.findAllDtos().get(0).id();
+        statistics.clear();
+        assertThat(productService.getProductById(productId).id()).isEqualTo(productId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenProductNameIsTaken_whenCreateProduct_thenUniqueIndexViolationIsTranslated() {
+        System.out.println("Testing createProduct method against unique name index");
+        final var existingProduct = productRepository.findAllDtos().get(0);
+        assertThatThrownBy(() -> productService.createProduct(ProductDto.builder()
+                .name(existingProduct.name())
+                .description("Description")
+                .price(new BigDecimal("1.0"))
+                .quantity(1)
+                .categoryId(existingProduct.categoryId())
+                .brandId(existingProduct.brandId())
+                .build())
+        ).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void givenNames_whenFindExistingNames_thenReturnsOnlyTakenNamesInSingleStatement() {
+        System.out.println("Testing findExistingNames methods");
+        final var names = List.of("Product 1", "Brand 2", "Category 3", "Missing");
+        assertThat(productRepository.findExistingNames(names)).containsExactly("Product 1");
+        assertThat(brandRepository.findExistingNames(names)).containsExactly("Brand 2");
+        assertThat(categoryRepository.findExistingNames(names)).containsExactly("Category 3");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void givenFilter_whenFilterProductsAndGetProductFacets_thenCountsEachFacetWithSingleGroupedStatement() {
+        System.out.println("Testing filterProducts and getProductFacets methods");
+        final var footwear = categoryRepository.save(Category.builder().name("Footwear").build());
+        final var running = categoryRepository.save(Category.builder().name("Running").parentCategory(footwear).build());
+        final var kitchen = categoryRepository.save(Category.builder().name("Kitchen").build());
+        final var brandA = brandRepository.save(Brand.builder().name("Brand A").build());
+        final var brandB = brandRepository.save(Brand.builder().name("Brand B").build());
+        final var runningShoes = productRepository.save(product("Running Shoes", 5000L, 1, running, brandA));
+        productRepository.save(product("Running Socks", 8000L, 0, running, brandB));
+        productRepository.save(product("Hiking Boots", 12000L, 2, footwear, brandB));
+        productRepository.save(product("Coffee Mug", 6000L, 3, kitchen, brandA));
+        categoryService.rebuildCategoryHierarchy();
+        entityManager.flush();
+        entityManager.clear();
+        final var productFilterDto = ProductFilterDto.builder()
+                .categoryId(footwear.getId())
+                .brandIds(Set.of(brandA.getId()))
+                .minPrice(new BigDecimal("40.0"))
+                .maxPrice(new BigDecimal("130.0"))
+                .inStock(true)
+                .build();
+
+        assertThat(productService.filterProducts(productFilterDto, null, 10))
+                .extracting(ProductDto::id)
+                .containsExactly(runningShoes.getId());
+
+        statistics.clear();
+        final var productFacets = productService.getProductFacets(productFilterDto);
+        assertThat(productFacets.totalCount()).isEqualTo(1);
+        assertThat(productFacets.categoryCounts()).containsExactly(
+                new FacetCountDto(running.getId(), 1L),
+                new FacetCountDto(kitchen.getId(), 1L)
+        );
+        assertThat(productFacets.brandCounts()).containsExactly(
+                new FacetCountDto(brandA.getId(), 1L),
+                new FacetCountDto(brandB.getId(), 1L)
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void givenProducts_whenGetPriceStatistics_thenAggregatesPricesInSingleStatement() {
+        System.out.println("Testing getPriceStatisticsByCategory and getPriceStatisticsByBrand methods");
+        final var footwear = categoryRepository.save(Category.builder().name("Footwear").build());
+        final var brandA = brandRepository.save(Brand.builder().name("Brand A").build());
+        final var brandB = brandRepository.save(Brand.builder().name("Brand B").build());
+        productRepository.save(product("Running Shoes", 4999L, 1, footwear, brandA));
+        productRepository.save(product("Running Socks", 1000L, 0, footwear, brandB));
+        productRepository.save(product("Hiking Boots", 12001L, 2, footwear, brandB));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        assertThat(productService.getPriceStatisticsByCategory())
+                .filteredOn(priceStatistics -> priceStatistics.id().equals(footwear.getId()))
+                .containsExactly(new PriceStatisticsDto(footwear.getId(), new BigDecimal("10.00"), new BigDecimal("120.01"), new BigDecimal("60.00"), 3L));
+        assertThat(productService.getPriceStatisticsByBrand())
+                .filteredOn(priceStatistics -> priceStatistics.id().equals(brandB.getId()))
+                .containsExactly(new PriceStatisticsDto(brandB.getId(), new BigDecimal("10.00"), new BigDecimal("120.01"), new BigDecimal("65.00"), 2L));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void givenDecimalPrice_whenCreateProduct_thenStoresExactCents() {
+        System.out.println("Testing createProduct method with decimal price");
+        final var existingProduct = productRepository.findAllDtos().get(0);
+        productService.createProduct(ProductDto.builder()
+                .name("Decimal product")
+                .description("Description")
+                .price(new BigDecimal("0.3"))
+                .quantity(1)
+                .categoryId(existingProduct.categoryId())
+                .brandId(existingProduct.brandId())
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        final var product = productRepository.findAll().stream()
+                .filter(candidate -> candidate.getName().equals("Decimal product"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(product.getPriceInCents()).isEqualTo(30L);
+        assertThat(productService.getProductById(product.getId()).price()).isEqualTo(new BigDecimal("0.30"));
+    }
+
+    private static Product product(String name, long priceInCents, Integer quantity, Category category, Brand brand) {
+        return Product.builder()
+                .name(name)
+                .description(name)
+                .priceInCents(priceInCents)
+                .quantity(quantity)
+                .category(category)
+                .brand(brand)
+                .build();
+    }
+
+}
@@ -1,8 +1,14 @@
 package com.example.lab2.service;
 
+import com.example.lab2.dto.FacetCountDto;
 import com.example.lab2.dto.ProductDto;
+import com.example.lab2.dto.ProductFacetsDto;
+import com.example.lab2.dto.ProductFilterDto;
+import com.example.lab2.dto.ProductPatchDto;
 import com.example.lab2.model.Brand;
+import com.example.lab2.model.CatalogEvent;
 import com.example.lab2.model.Category;
+import com.example.lab2.model.Prices;
 import com.example.lab2.model.Product;
 import com.example.lab2.repository.BrandRepository;
 import com.example.lab2.repository.CategoryRepository;
@@ -20,16 +26,25 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
 public class ProductServiceTests {
@@ -42,6 +57,16 @@ public class ProductServiceTests {
 
     @Mock
     private BrandRepository brandRepository;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private CatalogEventPublisher catalogEventPublisher;
+
+    @Mock
+    private CatalogChangeTracker catalogChangeTracker;
+
     private ProductService productService;
 
     static Stream<ProductDto> createInvalidProductArgs() {
@@ -49,7 +74,7 @@ public class ProductServiceTests {
                 ProductDto.builder()
                         .name(" ")
                         .description(null)
-                        .price(0.99)
+                        .price(new BigDecimal("0.99"))
                         .quantity(-1)
                         .categoryId(-1L)
                         .brandId(null)
@@ -57,7 +82,7 @@ public class ProductServiceTests {
                 ProductDto.builder()
                         .name("")
                         .description("")
-                        .price(0.0)
+                        .price(new BigDecimal("0.0"))
                         .quantity(0)
                         .categoryId(null)
                         .brandId(0L)
@@ -65,7 +90,7 @@ public class ProductServiceTests {
                 ProductDto.builder()
                         .name(null)
                         .description("Description")
-                        .price(-1.0)
+                        .price(new BigDecimal("-1.0"))
                         .quantity(1)
                         .categoryId(1L)
                         .brandId(1L)
@@ -77,28 +102,28 @@ public class ProductServiceTests {
     void setUp() {
         final var validatorFactory = Validation.buildDefaultValidatorFactory();
         final var validator = validatorFactory.getValidator();
-        productService = new ProductService(productRepository, validator, categoryRepository, brandRepository);
+        productService = new ProductService(productRepository, validator, categoryRepository, brandRepository, productSearchService, catalogEventPublisher, catalogChangeTracker);
     }
 
     @Test
     void whenGetAllProducts_thenReturnsListOfProducts() {
         System.out.println("Testing getAllProducts method");
-        final List<Product> products = List.of(
-                Product.builder()
+        final List<ProductDto> products = List.of(
+                ProductDto.builder()
                         .name("Product 1")
                         .description("Description 1")
-                        .price(0.99)
+                        .price(new BigDecimal("0.99"))
                         .quantity(1)
-                        .category(new Category(1L, "Category 1", null))
-                        .brand(new Brand(1L, "Brand 1"))
+                        .categoryId(1L)
+                        .brandId(1L)
                         .build()
         );
-        given(productRepository.findAll()).willReturn(products);
+        given(productRepository.findAllDtos()).willReturn(products);
         assertThat(productService.getAllProducts()).containsExactly(
                 ProductDto.builder()
                         .name("Product 1")
                         .description("Description 1")
-                        .price(0.99)
+                        .price(new BigDecimal("0.99"))
                         .quantity(1)
                         .categoryId(1L)
                         .brandId(1L)
@@ -106,6 +131,52 @@ public class ProductServiceTests {
         );
     }
 
+    @Test
+    void givenLastSeenId_whenGetProductsPage_thenReturnsNextPageOfProducts() {
+        System.out.println("Testing getProductsPage method");
+        final var lastSeenId = 10L;
+        final var pageSize = 2;
+        final List<ProductDto> products = List.of(
+                new ProductDto(11L, "Product 11", "Description 11", new BigDecimal("0.99"), 1, 1L, 1L),
+                new ProductDto(12L, "Product 12", "Description 12", new BigDecimal("1.99"), 2, 2L, 2L)
+        );
+        given(productRepository.findPageAfter(lastSeenId, PageRequest.ofSize(pageSize))).willReturn(products);
+        assertThat(productService.getProductsPage(lastSeenId, pageSize)).containsExactly(
+                new ProductDto(11L, "Product 11", "Description 11", new BigDecimal("0.99"), 1, 1L, 1L),
+                new ProductDto(12L, "Product 12", "Description 12", new BigDecimal("1.99"), 2, 2L, 2L)
+        );
+    }
+
+    @Test
+    void givenNoLastSeenId_whenGetProductsPage_thenReturnsFirstPageOfProducts() {
+        System.out.println("Testing getProductsPage method without last seen id");
+        final var pageSize = 10;
+        given(productRepository.findPageAfter(0L, PageRequest.ofSize(pageSize))).willReturn(List.of());
+        assertThat(productService.getProductsPage(null, pageSize)).isEmpty();
+    }
+
+    @Test
+    void whenStreamAllProducts_thenPassesProductsStreamToAction() {
+        System.out.println("Testing streamAllProducts method");
+        final var productCount = ProductRepository.STREAM_FETCH_SIZE * 2 + 1;
+        given(productRepository.streamAll()).willReturn(Stream.iterate(1L, id -> id + 1)
+                .limit(productCount)
+                .map(id -> new ProductDto(id, "Product " + id, "Description " + id, new BigDecimal("0.99"), 1, 1L, 1L)));
+        final long streamedProductCount = productService.streamAllProducts(Stream::count);
+        assertThat(streamedProductCount).isEqualTo(productCount);
+    }
+
+    @Test
+    void givenCategoryId_whenFindProductsInSubtree_thenReturnsProductsOfCategorySubtree() {
+        System.out.println("Testing findProductsInSubtree method");
+        final List<ProductDto> products = List.of(
+                new ProductDto(1L, "Product 1", "Description 1", new BigDecimal("0.99"), 1, 1L, 1L),
+                new ProductDto(2L, "Product 2", "Description 2", new BigDecimal("1.99"), 2, 2L, 1L)
+        );
+        given(productRepository.findAllInCategorySubtree(1L)).willReturn(products);
+        assertThat(productService.findProductsInSubtree(1L)).isEqualTo(products);
+    }
+
     @ParameterizedTest
     @ValueSource(longs = {1L, 2L, 3L, Long.MAX_VALUE})
     void givenProductId_whenGetProductById_thenReturnsProduct(Long id) {
@@ -115,7 +186,7 @@ public class ProductServiceTests {
                 Product.builder()
                         .name("Product 1")
                         .description("Description 1")
-                        .price(0.99)
+                        .priceInCents(99L)
                         .quantity(1)
                         .category(new Category(1L, "Category 1", null))
                         .brand(new Brand(1L, "Brand 1"))
@@ -126,7 +197,7 @@ public class ProductServiceTests {
                 ProductDto.builder()
                         .name("Product 1")
                         .description("Description 1")
-                        .price(0.99)
+                        .price(new BigDecimal("0.99"))
                         .quantity(1)
                         .categoryId(1L)
                         .brandId(1L)
@@ -148,7 +219,7 @@ public class ProductServiceTests {
         final var productDto = ProductDto.builder()
                 .name(arguments.getString(0))
                 .description(arguments.getString(1))
-                .price(arguments.getDouble(2))
+                .price(arguments.get(2, BigDecimal.class))
                 .quantity(arguments.getInteger(3))
                 .categoryId(arguments.getLong(4))
                 .brandId(arguments.getLong(5))
@@ -157,11 +228,11 @@ public class ProductServiceTests {
         given(categoryRepository.findById(productDto.categoryId())).willReturn(Optional.of(new Category(productDto.categoryId(), null, null)));
         given(brandRepository.findById(productDto.brandId())).willReturn(Optional.of(new Brand(productDto.brandId(), null)));
         productService.createProduct(productDto);
-        verify(productRepository).save(ArgumentMatchers.eq(
+        verify(productRepository).saveAndFlush(ArgumentMatchers.eq(
                 Product.builder()
                         .name(productDto.name())
                         .description(productDto.description())
-                        .price(productDto.price())
+                        .priceInCents(Prices.toCents(productDto.price()))
                         .quantity(productDto.quantity())
                         .category(new Category(productDto.categoryId(), null, null))
                         .brand(new Brand(productDto.brandId(), null))
@@ -180,12 +251,14 @@ public class ProductServiceTests {
     void givenProductNameIsTaken_whenCreateProduct_thenThrowsException() {
         System.out.println("Testing createProduct method with taken product name");
         final var productName = "Product 1";
-        given(productRepository.existsByName(productName)).willReturn(true);
+        given(categoryRepository.findById(1L)).willReturn(Optional.of(new Category(1L, "Category 1", null)));
+        given(brandRepository.findById(1L)).willReturn(Optional.of(new Brand(1L, "Brand 1")));
+        given(productRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Product.NAME_CONSTRAINT));
         assertThatThrownBy(() -> productService.createProduct(
                 ProductDto.builder()
                         .name(productName)
                         .description("Description 1")
-                        .price(0.99)
+                        .price(new BigDecimal("0.99"))
                         .quantity(1)
                         .categoryId(1L)
                         .brandId(1L)
@@ -203,25 +276,36 @@ public class ProductServiceTests {
         final var product = Product.builder()
                 .name(productName)
                 .description("Description 1")
-                .price(0.99)
+                .priceInCents(99L)
                 .quantity(1)
                 .category(category)
                 .brand(brand)
                 .build();
         given(categoryRepository.findById(product.getCategory().getId())).willReturn(Optional.of(category));
         given(brandRepository.findById(product.getCategory().getId())).willReturn(Optional.of(brand));
-        given(productRepository.findById(id)).willReturn(Optional.of(product));
+        given(productRepository.findById(id)).willReturn(Optional.of(versioned(product, 0L)));
         final var newProductName = "Product 2";
         productService.updateProduct(id, ProductDto.builder()
                 .name(productName)
                 .description("Description 1")
-                .price(0.99)
+                .price(new BigDecimal("0.99"))
                 .quantity(1)
                 .categoryId(1L)
                 .brandId(1L)
+                .version(0L)
                 .build());
         product.setName(newProductName);
-        verify(productRepository).save(ArgumentMatchers.eq(product));
+        verify(productRepository).saveAndFlush(ArgumentMatchers.eq(product));
+    }
+
+    @Test
+    void givenNoVersion_whenUpdateProduct_thenThrowsException() {
+        System.out.println("Testing updateProduct method without version");
+        given(productRepository.findById(1L)).willReturn(Optional.of(versioned(
+                new Product(1L, "Product 1", "Description 1", 1000L, 5, new Category(1L, "Category 1", null), new Brand(1L, "Brand 1")), 0L)));
+        assertThatThrownBy(() -> productService.updateProduct(1L, new ProductDto(1L, "Product 2", "Description 2", new BigDecimal("20.0"), 3, 1L, 1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).saveAndFlush(ArgumentMatchers.any());
     }
 
     @ParameterizedTest
@@ -240,7 +324,7 @@ public class ProductServiceTests {
         assertThatThrownBy(() -> productService.updateProduct(id, ProductDto.builder()
                 .name("Product 1")
                 .description("Description 1")
-                .price(0.99)
+                .price(new BigDecimal("0.99"))
                 .quantity(1)
                 .categoryId(1L)
                 .brandId(1L)
@@ -252,8 +336,211 @@ public class ProductServiceTests {
     @ValueSource(longs = {1L, 2L, 3L, Long.MAX_VALUE})
     void givenProductId_whenDeleteProduct_thenDeletesProduct(Long id) {
         System.out.println("Testing deleteProduct method with id = " + id);
+        given(productRepository.deleteIfExists(id)).willReturn(1);
         productService.deleteProduct(id);
-        verify(productRepository).deleteById(id);
+        verify(productRepository).deleteIfExists(id);
+        verify(productSearchService).removeProducts(List.of(id));
+        verify(catalogEventPublisher).publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.PRODUCT, id, null);
+    }
+
+    @Test
+    void givenMissingProductId_whenDeleteProduct_thenPublishesNothing() {
+        System.out.println("Testing deleteProduct method with missing id");
+        given(productRepository.deleteIfExists(4L)).willReturn(0);
+        productService.deleteProduct(4L);
+        verifyNoInteractions(productSearchService, catalogEventPublisher);
+    }
+
+    @Test
+    void givenOtherDataIntegrityViolation_whenCreateProduct_thenRethrowsException() {
+        System.out.println("Testing createProduct method with other data integrity violation");
+        given(categoryRepository.findById(1L)).willReturn(Optional.of(new Category(1L, "Category 1", null)));
+        given(brandRepository.findById(1L)).willReturn(Optional.of(new Brand(1L, "Brand 1")));
+        given(productRepository.saveAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation("fk_other"));
+        assertThatThrownBy(() -> productService.createProduct(ProductDto.builder()
+                .name("Product 1")
+                .description("Description 1")
+                .price(new BigDecimal("0.99"))
+                .quantity(1)
+                .categoryId(1L)
+                .brandId(1L)
+                .build())).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void givenProductsData_whenCreateAllProducts_thenResolvesReferencesOnceAndSavesAllProducts() {
+        System.out.println("Testing createAllProducts method");
+        final var category = new Category(1L, "Category 1", null);
+        final var brand = new Brand(1L, "Brand 1");
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(category));
+        given(brandRepository.findAllById(Set.of(1L))).willReturn(List.of(brand));
+        productService.createAllProducts(List.of(
+                new ProductDto(null, "Product 1", "Description 1", new BigDecimal("10.0"), 5, 1L, 1L),
+                new ProductDto(null, "Product 2", "Description 2", new BigDecimal("20.0"), 3, 1L, 1L)
+        ));
+        verify(productRepository).saveAllAndFlush(List.of(
+                new Product(null, "Product 1", "Description 1", 1000L, 5, category, brand),
+                new Product(null, "Product 2", "Description 2", 2000L, 3, category, brand)
+        ));
+        verify(categoryRepository, never()).findById(ArgumentMatchers.any());
+        verify(brandRepository, never()).findById(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenMissingCategory_whenCreateAllProducts_thenThrowsExceptionWithoutSaving() {
+        System.out.println("Testing createAllProducts method with missing category");
+        given(categoryRepository.findAllById(Set.of(1L, 2L))).willReturn(List.of(new Category(1L, "Category 1", null)));
+        assertThatThrownBy(() -> productService.createAllProducts(List.of(
+                new ProductDto(null, "Product 1", "Description 1", new BigDecimal("10.0"), 5, 1L, 1L),
+                new ProductDto(null, "Product 2", "Description 2", new BigDecimal("20.0"), 3, 2L, 1L)
+        ))).isInstanceOf(NoSuchElementException.class);
+        verify(productRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenDuplicatedProductNames_whenCreateAllProducts_thenThrowsException() {
+        System.out.println("Testing createAllProducts method with duplicated names");
+        assertThatThrownBy(() -> productService.createAllProducts(List.of(
+                new ProductDto(null, "Product 1", "Description 1", new BigDecimal("10.0"), 5, 1L, 1L),
+                new ProductDto(null, "Product 1", "Description 2", new BigDecimal("20.0"), 3, 1L, 1L)
+        ))).isInstanceOf(IllegalStateException.class);
+        verify(productRepository, never()).saveAllAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenProductNameIsTaken_whenCreateAllProducts_thenThrowsException() {
+        System.out.println("Testing createAllProducts method with taken name");
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(new Category(1L, "Category 1", null)));
+        given(brandRepository.findAllById(Set.of(1L))).willReturn(List.of(new Brand(1L, "Brand 1")));
+        given(productRepository.saveAllAndFlush(ArgumentMatchers.any())).willThrow(nameConstraintViolation(Product.NAME_CONSTRAINT));
+        assertThatThrownBy(() -> productService.createAllProducts(List.of(
+                new ProductDto(null, "Product 1", "Description 1", new BigDecimal("10.0"), 5, 1L, 1L)
+        ))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void givenProductsData_whenUpdateAllProducts_thenLoadsAllProductsWithSingleQuery() {
+        System.out.println("Testing updateAllProducts method");
+        final var category = new Category(1L, "Category 1", null);
+        final var brand = new Brand(1L, "Brand 1");
+        given(productRepository.findAllById(Set.of(1L)))
+                .willReturn(List.of(versioned(new Product(1L, "Product 1", "Description 1", 1000L, 5, category, brand), 2L)));
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(category));
+        given(brandRepository.findAllById(Set.of(1L))).willReturn(List.of(brand));
+        productService.updateAllProducts(List.of(new ProductDto(1L, "Product 2", "Description 2", 2000L, 3, 1L, 1L, 2L)));
+        verify(productRepository).saveAllAndFlush(List.of(new Product(1L, "Product 2", "Description 2", 2000L, 3, category, brand)));
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateAllProducts_thenThrowsExceptionWithoutSaving() {
+        System.out.println("Testing updateAllProducts method with stale version");
+        final var category = new Category(1L, "Category 1", null);
+        final var brand = new Brand(1L, "Brand 1");
+        given(productRepository.findAllById(Set.of(1L)))
+                .willReturn(List.of(versioned(new Product(1L, "Product 1", "Description 1", 1000L, 5, category, brand), 2L)));
+        given(categoryRepository.findAllById(Set.of(1L))).willReturn(List.of(category));
+        given(brandRepository.findAllById(Set.of(1L))).willReturn(List.of(brand));
+        assertThatThrownBy(() -> productService.updateAllProducts(List.of(new ProductDto(1L, "Product 2", "Description 2", 2000L, 3, 1L, 1L, 1L))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(productRepository, never()).saveAllAndFlush(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void givenProductIds_whenDeleteAllProductsById_thenDeletesInBatch() {
+        System.out.println("Testing deleteAllProductsById method");
+        given(productRepository.findExistingIds(List.of(1L, 2L, 3L))).willReturn(List.of(1L, 3L));
+        productService.deleteAllProductsById(List.of(1L, 2L, 3L));
+        verify(productRepository).deleteAllByIdInBatch(List.of(1L, 3L));
+        verify(productSearchService).removeProducts(List.of(1L, 3L));
+        verify(catalogEventPublisher).publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.PRODUCT, 1L, null);
+        verify(catalogEventPublisher).publish(CatalogEvent.Type.DELETED, CatalogEvent.Aggregate.PRODUCT, 3L, null);
+        verifyNoMoreInteractions(catalogEventPublisher);
+    }
+
+    @Test
+    void givenNoExistingProductIds_whenDeleteAllProductsById_thenDeletesNothing() {
+        System.out.println("Testing deleteAllProductsById method with missing products");
+        productService.deleteAllProductsById(List.of(1L, 2L));
+        verify(productRepository, never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        verifyNoInteractions(productSearchService, catalogEventPublisher);
+    }
+
+    @Test
+    void givenInvalidFilter_whenFilterProducts_thenThrowsException() {
+        System.out.println("Testing filterProducts method with invalid filter");
+        assertThatThrownBy(() -> productService.filterProducts(ProductFilterDto.builder().brandIds(Set.of(-1L)).build(), null, 10))
+                .isInstanceOf(ConstraintViolationException.class);
+        verify(productRepository, never()).findDtosAfter(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void givenMinPriceGreaterThanMaxPrice_whenGetProductFacets_thenThrowsException() {
+        System.out.println("Testing getProductFacets method with inverted price range");
+        assertThatThrownBy(() -> productService.getProductFacets(ProductFilterDto.builder().minPrice(new BigDecimal("10.0")).maxPrice(new BigDecimal("5.0")).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenFilter_whenGetProductFacets_thenReturnsCountsFromGroupedQueries() {
+        System.out.println("Testing getProductFacets method");
+        final var categoryCounts = List.of(new FacetCountDto(1L, 3L), new FacetCountDto(2L, 1L));
+        final var brandCounts = List.of(new FacetCountDto(1L, 4L));
+        given(productRepository.count(ArgumentMatchers.<Specification<Product>>any())).willReturn(4L);
+        given(productRepository.countByCategory(ArgumentMatchers.any())).willReturn(categoryCounts);
+        given(productRepository.countByBrand(ArgumentMatchers.any())).willReturn(brandCounts);
+        assertThat(productService.getProductFacets(ProductFilterDto.builder().inStock(true).build()))
+                .isEqualTo(new ProductFacetsDto(4L, categoryCounts, brandCounts));
+    }
+
+    @Test
+    void givenProductPatch_whenPatchProduct_thenChangesOnlyGivenFields() {
+        System.out.println("Testing patchProduct method");
+        final var category = new Category(1L, "Category 1", null);
+        final var brand = new Brand(1L, "Brand 1");
+        given(productRepository.findById(1L)).willReturn(Optional.of(new Product(1L, "Product 1", "Description 1", 1000L, 5, category, brand)));
+        productService.patchProduct(1L, ProductPatchDto.builder().price(new BigDecimal("12.5")).quantity(0).build());
+        verify(productRepository).saveAndFlush(ArgumentMatchers.eq(new Product(1L, "Product 1", "Description 1", 1250L, 0, category, brand)));
+        verify(categoryRepository, never()).findById(ArgumentMatchers.any());
+        verify(brandRepository, never()).findById(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenProductReferencePatch_whenPatchProduct_thenLoadsOnlyChangedReferences() {
+        System.out.println("Testing patchProduct method with new brand");
+        final var category = new Category(1L, "Category 1", null);
+        final var newBrand = new Brand(2L, "Brand 2");
+        given(productRepository.findById(1L)).willReturn(Optional.of(new Product(1L, "Product 1", "Description 1", 1000L, 5, category, new Brand(1L, "Brand 1"))));
+        given(brandRepository.findById(2L)).willReturn(Optional.of(newBrand));
+        productService.patchProduct(1L, ProductPatchDto.builder().brandId(2L).build());
+        verify(productRepository).saveAndFlush(ArgumentMatchers.eq(new Product(1L, "Product 1", "Description 1", 1000L, 5, category, newBrand)));
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchProduct_thenThrowsException() {
+        System.out.println("Testing patchProduct method with stale version");
+        final var product = versioned(new Product(1L, "Product 1", "Description 1", 1000L, 5, new Category(1L, "Category 1", null), new Brand(1L, "Brand 1")), 5L);
+        given(productRepository.findById(1L)).willReturn(Optional.of(product));
+        assertThatThrownBy(() -> productService.patchProduct(1L, ProductPatchDto.builder().version(4L).price(new BigDecimal("1.0")).build()))
+                .isInstanceOf(IllegalStateException.class);
+        verify(productRepository, never()).saveAndFlush(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenInvalidProductPatch_whenPatchProduct_thenThrowsException() {
+        System.out.println("Testing patchProduct method with invalid patch");
+        assertThatThrownBy(() -> productService.patchProduct(1L, ProductPatchDto.builder().price(new BigDecimal("-1.0")).name(" ").build()))
+                .isInstanceOf(ConstraintViolationException.class);
+        verify(productRepository, never()).findById(ArgumentMatchers.any());
+    }
+
+    private static Product versioned(Product product, Long version) {
+        ReflectionTestUtils.setField(product, "version", version);
+        return product;
+    }
+
+    private static DataIntegrityViolationException nameConstraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("Unique index or primary key violation",
+                new org.hibernate.exception.ConstraintViolationException("Unique index or primary key violation", null, constraintName.toUpperCase()));
     }
 
 }